@@ -23,8 +23,6 @@
 
 package vertx;
 
-import java.util.function.Supplier;
-
 import de.undercouch.actson.JsonEvent;
 import de.undercouch.actson.JsonParser;
 import io.vertx.core.AsyncResult;
@@ -41,6 +39,12 @@ import io.vertx.core.file.OpenOptions;
  * @author Michel Kraemer
  */
 public class VertxExample {
+  /**
+   * The maximum number of events to process before letting other tasks
+   * run on the event loop
+   */
+  private static final int MAX_EVENTS = 1000;
+
   private final Vertx vertx = Vertx.vertx();
 
   /**
@@ -86,53 +90,72 @@ public class VertxExample {
       JsonParser parser = new JsonParser();
       AsyncFile f = ar.result();
 
-      Supplier<Boolean> processEvents = () -> {
-        // process events from the parser until it needs more input
-        int event;
-        do {
-          event = parser.nextEvent();
-
-          // print all events to System.out
-          if (event != JsonEvent.NEED_MORE_INPUT) {
-            System.out.println("JSON event: " + event);
-          }
-
-          // handle values, errors, and end of file
-          if (event == JsonEvent.VALUE_STRING) {
-            System.out.println("VALUE: " + parser.getCurrentString());
-          } else if (event == JsonEvent.EOF) {
-            handler.handle(Future.succeededFuture());
-            return false;
-          } else if (event == JsonEvent.ERROR) {
-            handler.handle(Future.failedFuture("Syntax error"));
-            return false;
-          }
-        } while (event != JsonEvent.NEED_MORE_INPUT);
-
-        return true;
-      };
-
       f.exceptionHandler(t -> handler.handle(Future.failedFuture(t)));
 
       f.handler(buf -> {
-        // forward bytes read from the file to the parser
-        byte[] bytes = buf.getBytes();
-        int i = 0;
-        while (i < bytes.length) {
-          i += parser.getFeeder().feed(bytes, i, bytes.length - i);
-          if (!processEvents.get()) {
-            f.handler(null);
-            f.endHandler(null);
-            break;
-          }
-        }
+        // stop reading until all bytes have been forwarded to the parser
+        f.pause();
+        processEvents(parser, f, buf.getBytes(), 0, handler);
       });
 
       f.endHandler(v -> {
         // process events one last time
         parser.getFeeder().done();
-        processEvents.get();
+        processEvents(parser, f, new byte[0], 0, handler);
       });
     });
   }
+
+  /**
+   * Forward bytes to the parser and process its events. Process at most
+   * {@link #MAX_EVENTS} events at once and then let other tasks run on the
+   * event loop before continuing, so a large chunk of data does not block
+   * the event loop for a long time.
+   * @param parser the parser
+   * @param f the file being parsed
+   * @param bytes the bytes to forward to the parser
+   * @param pos the position of the first byte not forwarded yet
+   * @param handler a handler that will be called when the file has been parsed
+   * or when an error has occurred
+   */
+  private void processEvents(JsonParser parser, AsyncFile f, byte[] bytes,
+      int pos, Handler<AsyncResult<Void>> handler) {
+    while (true) {
+      int event = parser.nextEvents(e -> printEvent(parser, e), MAX_EVENTS);
+      if (event == JsonEvent.BUDGET_EXHAUSTED) {
+        // continue later
+        int p = pos;
+        vertx.runOnContext(v -> processEvents(parser, f, bytes, p, handler));
+        return;
+      } else if (event == JsonEvent.EOF) {
+        handler.handle(Future.succeededFuture());
+        return;
+      } else if (event == JsonEvent.ERROR) {
+        f.handler(null);
+        f.endHandler(null);
+        handler.handle(Future.failedFuture("Syntax error"));
+        return;
+      }
+
+      // the parser needs more input
+      if (pos == bytes.length) {
+        // all bytes have been forwarded. read the next chunk.
+        f.resume();
+        return;
+      }
+      pos += parser.getFeeder().feed(bytes, pos, bytes.length - pos);
+    }
+  }
+
+  /**
+   * Print a JSON event to System.out
+   * @param parser the parser that has produced the event
+   * @param event the event
+   */
+  private static void printEvent(JsonParser parser, int event) {
+    System.out.println("JSON event: " + event);
+    if (event == JsonEvent.VALUE_STRING) {
+      System.out.println("VALUE: " + parser.getCurrentString());
+    }
+  }
 }
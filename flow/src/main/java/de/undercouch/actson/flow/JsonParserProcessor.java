@@ -0,0 +1,325 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.flow;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.JsonToken;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A {@link Flow.Processor} that parses the byte buffers it receives and
+ * publishes the resulting {@link JsonToken}s.</p>
+ * <p>The processor honors the demand of its subscriber. It only parses as
+ * many tokens as have been requested and only requests the next byte buffer
+ * from upstream when the parser needs more input. At any time, it keeps at
+ * most one byte buffer plus the contents of the parser's feeder in memory.
+ * The processor does not copy byte buffers, so upstream must not modify
+ * a buffer after it has been published.</p>
+ * <p>The processor supports a single subscriber. It completes when the
+ * parser reaches the end of the JSON text and fails with an
+ * {@link IllegalStateException} if the JSON text is invalid.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JsonParserProcessor
+    implements Flow.Processor<ByteBuffer, JsonToken> {
+  private final JsonParser parser;
+
+  /**
+   * Makes sure only one thread runs {@link #drain()} at a time. Counts the
+   * number of times the method has been called while it was running.
+   */
+  private final AtomicInteger wip = new AtomicInteger();
+
+  /**
+   * The number of tokens requested by the subscriber but not sent yet
+   */
+  private final AtomicLong requested = new AtomicLong();
+
+  /**
+   * True if a subscriber has subscribed to the processor (guarded by
+   * <code>this</code>)
+   */
+  private boolean subscribed;
+
+  /**
+   * The subscriber. Only set after its
+   * {@link Flow.Subscriber#onSubscribe(Flow.Subscription)} method has
+   * returned, and reset after it has received a terminal signal.
+   */
+  private volatile Flow.Subscriber<? super JsonToken> subscriber;
+  private volatile Flow.Subscription upstream;
+
+  /**
+   * The byte buffer received from upstream that has not been completely
+   * fed into the parser yet
+   */
+  private volatile ByteBuffer pending;
+
+  private volatile boolean upstreamDone;
+  private volatile Throwable upstreamError;
+
+  /**
+   * An error caused by the subscriber (e.g. by a non-positive request)
+   */
+  private volatile Throwable subscriberError;
+
+  private volatile boolean cancelled;
+
+  /**
+   * True if a byte buffer has been requested from upstream but not
+   * received yet (only accessed in {@link #drain()})
+   */
+  private boolean inputRequested;
+
+  /**
+   * True if the subscriber has received a terminal signal (only accessed
+   * in {@link #drain()})
+   */
+  private boolean terminated;
+
+  /**
+   * Constructs a new processor with a default {@link JsonParser}
+   */
+  public JsonParserProcessor() {
+    this(new JsonParser());
+  }
+
+  /**
+   * Constructs a new processor
+   * @param parser the parser to use. It must not have received any input
+   * yet and must not be used elsewhere.
+   */
+  public JsonParserProcessor(JsonParser parser) {
+    this.parser = Objects.requireNonNull(parser);
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super JsonToken> s) {
+    Objects.requireNonNull(s);
+    boolean first;
+    synchronized (this) {
+      first = !subscribed;
+      subscribed = true;
+    }
+    if (first) {
+      s.onSubscribe(new Subscription());
+      subscriber = s;
+      drain();
+      return;
+    }
+    s.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        // nothing to do
+      }
+
+      @Override
+      public void cancel() {
+        // nothing to do
+      }
+    });
+    s.onError(new IllegalStateException("The processor supports only " +
+        "one subscriber"));
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    Objects.requireNonNull(subscription);
+    if (upstream != null) {
+      subscription.cancel();
+      return;
+    }
+    upstream = subscription;
+    if (cancelled) {
+      subscription.cancel();
+      return;
+    }
+    drain();
+  }
+
+  @Override
+  public void onNext(ByteBuffer item) {
+    Objects.requireNonNull(item);
+    pending = item;
+    drain();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    Objects.requireNonNull(throwable);
+    upstreamError = throwable;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    upstreamDone = true;
+    drain();
+  }
+
+  /**
+   * Parse tokens and send them to the subscriber as long as it has demand.
+   * Request more input from upstream if necessary. Only one thread can
+   * execute this method at a time. Calls made while the method is running
+   * (e.g. from within {@link Flow.Subscriber#onNext(Object)}) make the
+   * running thread loop once more instead of recursing.
+   */
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super JsonToken> s = subscriber;
+      if (s != null && !terminated) {
+        drainLoop(s);
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void drainLoop(Flow.Subscriber<? super JsonToken> s) {
+    while (true) {
+      if (cancelled) {
+        terminate();
+        return;
+      }
+
+      Throwable error = subscriberError;
+      if (error == null) {
+        error = upstreamError;
+      }
+      if (error != null) {
+        fail(s, error);
+        return;
+      }
+
+      long r = requested.get();
+      if (r == 0) {
+        return;
+      }
+
+      int event = parser.nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        ByteBuffer buf = pending;
+        if (buf != null) {
+          inputRequested = false;
+          parser.getFeeder().feed(buf);
+          if (!buf.hasRemaining()) {
+            pending = null;
+          }
+        } else if (upstreamDone) {
+          parser.getFeeder().done();
+        } else {
+          Flow.Subscription u = upstream;
+          if (u != null && !inputRequested) {
+            inputRequested = true;
+            u.request(1);
+          } else {
+            // wait for the next byte buffer
+            return;
+          }
+        }
+      } else if (event == JsonEvent.EOF) {
+        terminate();
+        s.onComplete();
+        return;
+      } else if (event == JsonEvent.ERROR) {
+        fail(s, new IllegalStateException("Invalid JSON text at character " +
+            parser.getParsedCharacterCount()));
+        return;
+      } else {
+        s.onNext(JsonToken.of(parser, event));
+        if (r != Long.MAX_VALUE) {
+          requested.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Send an error to the subscriber and cancel upstream
+   */
+  private void fail(Flow.Subscriber<? super JsonToken> s, Throwable error) {
+    terminate();
+    Flow.Subscription u = upstream;
+    if (u != null && !upstreamDone && upstreamError == null) {
+      u.cancel();
+    }
+    s.onError(error);
+  }
+
+  /**
+   * Release all resources after a terminal signal or cancellation
+   */
+  private void terminate() {
+    terminated = true;
+    pending = null;
+    subscriber = null;
+  }
+
+  /**
+   * The subscription given to the subscriber
+   */
+  private class Subscription implements Flow.Subscription {
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        subscriberError = new IllegalArgumentException("Number of " +
+            "requested elements must be positive");
+      } else {
+        long r;
+        long u;
+        do {
+          r = requested.get();
+          u = r + n;
+          if (u < 0) {
+            u = Long.MAX_VALUE;
+          }
+        } while (r != Long.MAX_VALUE && !requested.compareAndSet(r, u));
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      if (!cancelled) {
+        cancelled = true;
+        Flow.Subscription u = upstream;
+        if (u != null) {
+          u.cancel();
+        }
+        drain();
+      }
+    }
+  }
+}
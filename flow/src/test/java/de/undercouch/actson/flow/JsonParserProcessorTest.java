@@ -0,0 +1,393 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.flow;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link JsonParserProcessor}. The test names refer to the rules of
+ * the Reactive Streams specification where applicable.
+ * @author Michel Kraemer
+ */
+public class JsonParserProcessorTest {
+  /**
+   * A subscriber that records all signals
+   */
+  private static class RecordingSubscriber
+      implements Flow.Subscriber<JsonToken> {
+    final List<String> signals =
+        Collections.synchronizedList(new ArrayList<>());
+    final List<JsonToken> tokens =
+        Collections.synchronizedList(new ArrayList<>());
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    volatile Flow.Subscription subscription;
+    volatile Throwable error;
+    private final long initialRequest;
+
+    RecordingSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      signals.add("onSubscribe");
+      this.subscription = subscription;
+      if (initialRequest > 0) {
+        subscription.request(initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(JsonToken item) {
+      signals.add("onNext");
+      tokens.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      signals.add("onError");
+      error = throwable;
+      done.complete(null);
+    }
+
+    @Override
+    public void onComplete() {
+      signals.add("onComplete");
+      done.complete(null);
+    }
+
+    List<Integer> events() {
+      List<Integer> result = new ArrayList<>();
+      for (JsonToken t : tokens) {
+        result.add(t.getEvent());
+      }
+      return result;
+    }
+  }
+
+  /**
+   * An upstream subscription that records requests and cancellation
+   */
+  private static class TestSubscription implements Flow.Subscription {
+    long requested;
+    boolean cancelled;
+
+    @Override
+    public void request(long n) {
+      requested += n;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  private static ByteBuffer buf(String s) {
+    return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parse a JSON text published asynchronously in small chunks
+   * @throws Exception if the test fails
+   */
+  @Test
+  public void parseAsync() throws Exception {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; ++i) {
+      sb.append("{\"id\":").append(i)
+          .append(",\"name\":\"n").append(i).append("\"},");
+    }
+    sb.append("null]");
+    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    JsonParserProcessor processor = new JsonParserProcessor();
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    processor.subscribe(subscriber);
+
+    try (SubmissionPublisher<ByteBuffer> publisher =
+        new SubmissionPublisher<>()) {
+      publisher.subscribe(processor);
+      for (int i = 0; i < bytes.length; i += 37) {
+        publisher.submit(ByteBuffer.wrap(bytes, i,
+            Math.min(37, bytes.length - i)));
+      }
+    }
+
+    subscriber.done.get(10, TimeUnit.SECONDS);
+    assertThat(subscriber.error).isNull();
+    assertThat(subscriber.tokens).hasSize(1000 * 6 + 3);
+    assertThat(subscriber.tokens.get(3).getLong()).isEqualTo(0L);
+    assertThat(subscriber.tokens.get(5).getString()).isEqualTo("n0");
+    assertThat(subscriber.tokens.get(6001).getEvent())
+        .isEqualTo(JsonEvent.VALUE_NULL);
+    assertThat(subscriber.signals.get(0)).isEqualTo("onSubscribe");
+    assertThat(subscriber.signals.get(subscriber.signals.size() - 1))
+        .isEqualTo("onComplete");
+  }
+
+  /**
+   * Rule 1.1: never signal more elements than requested, and only request
+   * input from upstream when the parser needs it
+   */
+  @Test
+  public void spec101HonorsDemand() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    assertThat(upstream.requested).isEqualTo(0L);
+
+    RecordingSubscriber subscriber = new RecordingSubscriber(0);
+    processor.subscribe(subscriber);
+    assertThat(upstream.requested).isEqualTo(0L);
+
+    subscriber.subscription.request(2);
+    assertThat(upstream.requested).isEqualTo(1L);
+    processor.onNext(buf("[1,2,3,4]"));
+    assertThat(subscriber.events()).containsExactly(JsonEvent.START_ARRAY,
+        JsonEvent.VALUE_INT);
+    assertThat(upstream.requested).isEqualTo(1L);
+
+    subscriber.subscription.request(4);
+    assertThat(subscriber.tokens).hasSize(6);
+    assertThat(upstream.requested).isEqualTo(1L);
+    assertThat(subscriber.signals).doesNotContain("onComplete");
+
+    processor.onComplete();
+    assertThat(subscriber.signals).doesNotContain("onComplete");
+    subscriber.subscription.request(1);
+    assertThat(subscriber.signals).contains("onComplete");
+    assertThat(upstream.cancelled).isFalse();
+  }
+
+  /**
+   * Input is only buffered to a bounded limit: a large buffer is fed into
+   * the parser step by step and the next one is only requested when the
+   * previous one has been consumed
+   */
+  @Test
+  public void boundedInput() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 10000; ++i) {
+      sb.append(i).append(',');
+    }
+    sb.append("0]");
+    ByteBuffer big = buf(sb.toString());
+
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(10);
+    processor.subscribe(subscriber);
+    processor.onNext(big);
+
+    assertThat(subscriber.tokens).hasSize(10);
+    assertThat(big.position()).isLessThan(big.limit());
+    assertThat(upstream.requested).isEqualTo(1L);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertThat(big.hasRemaining()).isFalse();
+    assertThat(subscriber.tokens).hasSize(10003);
+    assertThat(upstream.requested).isEqualTo(2L);
+  }
+
+  /**
+   * Rule 3.3: requesting from within onNext must not lead to unbounded
+   * recursion
+   */
+  @Test
+  public void spec303RequestFromOnNext() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 100000; ++i) {
+      sb.append(i).append(',');
+    }
+    sb.append("0]");
+
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(1) {
+      @Override
+      public void onNext(JsonToken item) {
+        super.onNext(item);
+        subscription.request(1);
+      }
+    };
+    processor.subscribe(subscriber);
+    processor.onNext(buf(sb.toString()));
+    processor.onComplete();
+    assertThat(subscriber.tokens).hasSize(100003);
+    assertThat(subscriber.signals).contains("onComplete");
+  }
+
+  /**
+   * Rule 3.9: a non-positive request must be signalled as an error
+   */
+  @Test
+  public void spec309NonPositiveRequest() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(0);
+    processor.subscribe(subscriber);
+    subscriber.subscription.request(0);
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    assertThat(upstream.cancelled).isTrue();
+  }
+
+  /**
+   * Rule 3.5 and 3.7: cancellation cancels upstream and stops all signals
+   */
+  @Test
+  public void spec305Cancel() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(1);
+    processor.subscribe(subscriber);
+    processor.onNext(buf("[1,2,3]"));
+    subscriber.subscription.cancel();
+    subscriber.subscription.cancel();
+    assertThat(upstream.cancelled).isTrue();
+
+    subscriber.subscription.request(10);
+    processor.onComplete();
+    assertThat(subscriber.signals).containsExactly("onSubscribe", "onNext");
+  }
+
+  /**
+   * Rule 1.9: additional subscribers are rejected with onSubscribe followed
+   * by onError
+   */
+  @Test
+  public void spec109SingleSubscriber() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    processor.subscribe(new RecordingSubscriber(0));
+    RecordingSubscriber second = new RecordingSubscriber(0);
+    processor.subscribe(second);
+    assertThat(second.signals).containsExactly("onSubscribe", "onError");
+    assertThat(second.error).isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Rule 2.5: a second upstream subscription is cancelled
+   */
+  @Test
+  public void spec205SecondSubscription() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription first = new TestSubscription();
+    TestSubscription second = new TestSubscription();
+    processor.onSubscribe(first);
+    processor.onSubscribe(second);
+    assertThat(first.cancelled).isFalse();
+    assertThat(second.cancelled).isTrue();
+  }
+
+  /**
+   * Rule 2.13: <code>null</code> arguments are rejected
+   */
+  @Test
+  public void spec213Null() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    assertThatThrownBy(() -> processor.subscribe(null))
+        .isInstanceOf(NullPointerException.class);
+    assertThatThrownBy(() -> processor.onSubscribe(null))
+        .isInstanceOf(NullPointerException.class);
+    assertThatThrownBy(() -> processor.onNext(null))
+        .isInstanceOf(NullPointerException.class);
+    assertThatThrownBy(() -> processor.onError(null))
+        .isInstanceOf(NullPointerException.class);
+  }
+
+  /**
+   * Invalid JSON leads to an error and cancels upstream
+   */
+  @Test
+  public void syntaxError() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    processor.subscribe(subscriber);
+    processor.onNext(buf("[1,}"));
+    assertThat(subscriber.events()).containsExactly(JsonEvent.START_ARRAY,
+        JsonEvent.VALUE_INT);
+    assertThat(subscriber.error).isInstanceOf(IllegalStateException.class);
+    assertThat(upstream.cancelled).isTrue();
+
+    // rule 1.7: no signals after a terminal signal
+    processor.onNext(buf("2]"));
+    processor.onComplete();
+    assertThat(subscriber.signals).containsExactly("onSubscribe", "onNext",
+        "onNext", "onError");
+  }
+
+  /**
+   * Upstream errors are forwarded
+   */
+  @Test
+  public void upstreamError() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    TestSubscription upstream = new TestSubscription();
+    processor.onSubscribe(upstream);
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    processor.subscribe(subscriber);
+    processor.onNext(buf("[1,"));
+    RuntimeException e = new RuntimeException("boom");
+    processor.onError(e);
+    assertThat(subscriber.error).isSameAs(e);
+    assertThat(upstream.cancelled).isFalse();
+    assertThat(subscriber.signals).containsExactly("onSubscribe", "onNext",
+        "onNext", "onError");
+  }
+
+  /**
+   * An empty input is not a valid JSON text
+   */
+  @Test
+  public void emptyInput() {
+    JsonParserProcessor processor = new JsonParserProcessor();
+    processor.onSubscribe(new TestSubscription());
+    RecordingSubscriber subscriber = new RecordingSubscriber(1);
+    processor.subscribe(subscriber);
+    processor.onComplete();
+    assertThat(subscriber.error).isInstanceOf(IllegalStateException.class);
+  }
+}
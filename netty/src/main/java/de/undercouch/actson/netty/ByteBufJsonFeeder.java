@@ -0,0 +1,304 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.netty;
+
+import de.undercouch.actson.JsonFeeder;
+import de.undercouch.actson.JsonParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.UnmappableCharacterException;
+
+/**
+ * <p>A {@link JsonFeeder} that decodes characters directly from Netty
+ * {@link ByteBuf}s without copying them into an intermediate array.</p>
+ * <p>The feeder holds at most one buffer at a time. It takes ownership of
+ * the buffers passed to {@link #feed(ByteBuf)} and releases them as soon as
+ * all of their bytes have been decoded. Call {@link #release()} to release
+ * the current buffer if parsing is aborted.</p>
+ * <p>The methods inherited from {@link JsonFeeder} that accept byte arrays
+ * or {@link ByteBuffer}s copy the given bytes, because the caller may reuse
+ * them after the method has returned.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class ByteBufJsonFeeder implements JsonFeeder {
+  private final CharBuffer charBuf;
+  private final CharsetDecoder decoder;
+
+  /**
+   * Bytes of a character that spans two buffers. Always in write mode.
+   */
+  private final ByteBuffer carry = ByteBuffer.allocate(16);
+
+  /**
+   * The buffer currently being decoded (may be <code>null</code>)
+   */
+  private ByteBuf buf;
+  private boolean done = false;
+
+  /**
+   * Constructs a feeder
+   * @param charset the charset that should be used to decode input data
+   */
+  public ByteBufJsonFeeder(Charset charset) {
+    this(charset, 1024);
+  }
+
+  /**
+   * Constructs a feeder
+   * @param charset the charset that should be used to decode input data
+   * @param capacity the capacity of the internal buffer caching decoded
+   * characters
+   */
+  public ByteBufJsonFeeder(Charset charset, int capacity) {
+    charBuf = CharBuffer.allocate(capacity);
+    charBuf.limit(0);
+    decoder = charset.newDecoder();
+  }
+
+  /**
+   * Provide the {@link JsonParser} with a buffer. The feeder takes
+   * ownership of the buffer and releases it when all of its bytes have been
+   * decoded.
+   * @param b the buffer
+   * @throws IllegalStateException if the feeder is full (see
+   * {@link #isFull()})
+   */
+  public void feed(ByteBuf b) {
+    if (isFull()) {
+      throw new IllegalStateException("JSON parser is full");
+    }
+    if (!b.isReadable()) {
+      b.release();
+      return;
+    }
+    buf = b;
+  }
+
+  @Override
+  public void feed(byte b) {
+    if (isFull()) {
+      throw new IllegalStateException("JSON parser is full");
+    }
+    buf = Unpooled.copiedBuffer(new byte[] { b });
+  }
+
+  @Override
+  public int feed(byte[] b) {
+    return feed(b, 0, b.length);
+  }
+
+  @Override
+  public int feed(byte[] b, int offset, int len) {
+    if (isFull() || len == 0) {
+      return 0;
+    }
+    buf = Unpooled.copiedBuffer(b, offset, len);
+    return len;
+  }
+
+  @Override
+  public int feed(ByteBuffer b) {
+    if (isFull() || !b.hasRemaining()) {
+      return 0;
+    }
+    int n = b.remaining();
+    buf = Unpooled.copiedBuffer(b);
+    b.position(b.limit());
+    return n;
+  }
+
+  /**
+   * Release the current buffer without decoding the rest of its bytes
+   */
+  public void release() {
+    if (buf != null) {
+      buf.release();
+      buf = null;
+    }
+  }
+
+  @Override
+  public void done() {
+    done = true;
+  }
+
+  /**
+   * Checks if the feeder still holds a buffer that has not been decoded
+   * completely. New input can only be provided if it does not.
+   * @return true if the parser does not accept more input
+   */
+  @Override
+  public boolean isFull() {
+    return buf != null;
+  }
+
+  @Override
+  public boolean hasInput() throws CharacterCodingException {
+    return fillBuffer();
+  }
+
+  @Override
+  public boolean isDone() throws CharacterCodingException {
+    return done && !hasInput();
+  }
+
+  @Override
+  public char nextInput() throws CharacterCodingException {
+    if (!hasInput()) {
+      throw new IllegalStateException("Not enough input data");
+    }
+    return charBuf.get();
+  }
+
+  @Override
+  public int nextInput(char[] dst, int offset, int len)
+      throws CharacterCodingException {
+    if (!hasInput()) {
+      return 0;
+    }
+    int n = Math.min(len, charBuf.remaining());
+    charBuf.get(dst, offset, n);
+    return n;
+  }
+
+  /**
+   * Decode bytes from {@link #carry} and {@link #buf} and fill
+   * {@link #charBuf}. This method is a no-op if {@link #charBuf} is not
+   * empty or if there are no bytes to decode.
+   * @return true if the buffer contains characters now, false if it's
+   * still empty
+   * @throws CharacterCodingException if the input data contains invalid
+   * characters
+   */
+  private boolean fillBuffer() throws CharacterCodingException {
+    if (charBuf.hasRemaining()) {
+      return true;
+    }
+
+    charBuf.clear();
+    while (charBuf.position() == 0) {
+      if (carry.position() > 0) {
+        if (!decodeCarry()) {
+          break;
+        }
+      } else if (buf != null) {
+        decodeBuf();
+      } else {
+        break;
+      }
+    }
+    charBuf.flip();
+
+    return charBuf.hasRemaining();
+  }
+
+  /**
+   * Try to decode the character in {@link #carry}. Append a byte from
+   * {@link #buf} if the character is still incomplete.
+   * @return false if the character is incomplete and there is no more input
+   * @throws CharacterCodingException if the input data contains invalid
+   * characters
+   */
+  private boolean decodeCarry() throws CharacterCodingException {
+    carry.flip();
+    CoderResult result = decoder.decode(carry, charBuf, done && buf == null);
+    carry.compact();
+    check(result);
+    if (carry.position() == 0) {
+      return true;
+    }
+    if (buf == null) {
+      return false;
+    }
+    carry.put(buf.readByte());
+    releaseIfConsumed();
+    return true;
+  }
+
+  /**
+   * Decode bytes from the first NIO buffer of {@link #buf}. If the NIO
+   * buffer ends with an incomplete character, move its bytes to
+   * {@link #carry}.
+   * @throws CharacterCodingException if the input data contains invalid
+   * characters
+   */
+  private void decodeBuf() throws CharacterCodingException {
+    ByteBuffer in = nioBuffer();
+    int start = in.position();
+    CoderResult result = decoder.decode(in, charBuf, false);
+    check(result);
+    buf.skipBytes(in.position() - start);
+
+    if (result.isUnderflow() && in.hasRemaining()) {
+      int n = in.remaining();
+      carry.put(in);
+      buf.skipBytes(n);
+    }
+
+    releaseIfConsumed();
+  }
+
+  /**
+   * @return a NIO buffer containing the first readable bytes of
+   * {@link #buf}, without copying them if possible
+   */
+  private ByteBuffer nioBuffer() {
+    int index = buf.readerIndex();
+    int length = buf.readableBytes();
+    int count = buf.nioBufferCount();
+    if (count == 1) {
+      return buf.internalNioBuffer(index, length);
+    }
+    if (count > 1) {
+      return buf.nioBuffers(index, length)[0];
+    }
+    return buf.nioBuffer(index, length);
+  }
+
+  private void releaseIfConsumed() {
+    if (!buf.isReadable()) {
+      release();
+    }
+  }
+
+  private static void check(CoderResult result)
+      throws CharacterCodingException {
+    if (result.isMalformed()) {
+      throw new MalformedInputException(result.length());
+    }
+    if (result.isUnmappable()) {
+      throw new UnmappableCharacterException(result.length());
+    }
+  }
+}
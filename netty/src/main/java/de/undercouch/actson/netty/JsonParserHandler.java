@@ -0,0 +1,267 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.netty;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * <p>A channel handler that parses the {@link ByteBuf}s it receives and
+ * passes the resulting {@link JsonToken}s to the next handler in the
+ * pipeline. Other messages are passed on unchanged.</p>
+ * <p>The handler decodes the buffers with a {@link ByteBufJsonFeeder}, so
+ * their bytes are never copied. It processes at most
+ * {@link #getMaxEventsPerRead()} events at a time and then continues on the
+ * channel's event loop, so other channels do not starve while a large
+ * buffer is being parsed. If there is unparsed input at this point or if
+ * more buffers arrive before the parser has caught up, the handler
+ * disables the channel's auto-read flag until all input has been
+ * parsed.</p>
+ * <p>When the channel becomes inactive, the handler parses the remaining
+ * input, unless it has not received any input at all. After the last token,
+ * it passes {@link JsonEndEvent#INSTANCE} to the next handler's
+ * <code>userEventTriggered</code> method. If the JSON text is invalid, it
+ * passes a {@link CorruptedFrameException} to the next handler's
+ * <code>exceptionCaught</code> method and discards all further input.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JsonParserHandler extends ChannelInboundHandlerAdapter {
+  private final ByteBufJsonFeeder feeder;
+  private final JsonParser parser;
+
+  /**
+   * Buffers received while the feeder was full
+   */
+  private final ArrayDeque<ByteBuf> pending = new ArrayDeque<>();
+
+  private int maxEventsPerRead = 1024;
+
+  /**
+   * True if this handler has disabled auto-read and has to enable it again
+   */
+  private boolean autoReadDisabled;
+
+  /**
+   * True if a continuation of {@link #process(ChannelHandlerContext, int)}
+   * has been scheduled on the event loop
+   */
+  private boolean scheduled;
+
+  /**
+   * True if at least one buffer has been received
+   */
+  private boolean receivedInput;
+
+  /**
+   * True if the channel has become inactive and no more buffers will
+   * arrive
+   */
+  private boolean inputEnded;
+
+  /**
+   * True if the end of the JSON text or a syntax error has been reached
+   */
+  private boolean finished;
+
+  /**
+   * Constructs a handler that decodes UTF-8
+   */
+  public JsonParserHandler() {
+    this(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Constructs a handler
+   * @param charset the charset that should be used to decode input data
+   */
+  public JsonParserHandler(Charset charset) {
+    feeder = new ByteBufJsonFeeder(charset);
+    parser = new JsonParser(feeder);
+  }
+
+  /**
+   * @return the parser, for example to configure it before the first
+   * buffer arrives
+   */
+  public JsonParser getParser() {
+    return parser;
+  }
+
+  /**
+   * Set the maximum number of events to process before yielding to other
+   * tasks on the event loop
+   * @param maxEventsPerRead the maximum number of events (must be greater
+   * than 0)
+   */
+  public void setMaxEventsPerRead(int maxEventsPerRead) {
+    if (maxEventsPerRead <= 0) {
+      throw new IllegalArgumentException("Maximum number of events must " +
+          "be greater than 0");
+    }
+    this.maxEventsPerRead = maxEventsPerRead;
+  }
+
+  /**
+   * @return the maximum number of events to process before yielding to
+   * other tasks on the event loop
+   */
+  public int getMaxEventsPerRead() {
+    return maxEventsPerRead;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    if (!(msg instanceof ByteBuf)) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+
+    ByteBuf buf = (ByteBuf)msg;
+    if (finished) {
+      buf.release();
+      return;
+    }
+
+    receivedInput = true;
+    pending.add(buf);
+    if (scheduled) {
+      // the handler has yielded. stop reading until the parser has caught up.
+      disableAutoRead(ctx);
+    } else {
+      process(ctx, maxEventsPerRead);
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) {
+    // the feeder is told about the end of input only after all pending
+    // buffers have been fed into it
+    inputEnded = true;
+    if (!finished && receivedInput) {
+      process(ctx, Integer.MAX_VALUE);
+    }
+    ctx.fireChannelInactive();
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) {
+    finished = true;
+    releaseInput();
+  }
+
+  /**
+   * Feed pending buffers into the parser and pass tokens on until the
+   * parser needs more input or until the given number of events has been
+   * processed
+   * @param ctx the handler context
+   * @param maxEvents the maximum number of events to process
+   */
+  private void process(ChannelHandlerContext ctx, int maxEvents) {
+    int n = 0;
+    while (!finished) {
+      int event = parser.nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        ByteBuf buf = pending.poll();
+        if (buf != null) {
+          feeder.feed(buf);
+        } else if (inputEnded) {
+          feeder.done();
+        } else {
+          break;
+        }
+        continue;
+      }
+
+      if (event == JsonEvent.EOF) {
+        finished = true;
+        releaseInput();
+        ctx.fireUserEventTriggered(JsonEndEvent.INSTANCE);
+        break;
+      }
+
+      if (event == JsonEvent.ERROR) {
+        finished = true;
+        releaseInput();
+        enableAutoRead(ctx);
+        ctx.fireExceptionCaught(new CorruptedFrameException(
+            "Syntax error in JSON text"));
+        return;
+      }
+
+      ctx.fireChannelRead(JsonToken.of(parser, event));
+
+      if (++n == maxEvents) {
+        if (feeder.isFull() || !pending.isEmpty()) {
+          disableAutoRead(ctx);
+        }
+        scheduled = true;
+        ctx.executor().execute(() -> {
+          scheduled = false;
+          process(ctx, maxEventsPerRead);
+        });
+        return;
+      }
+    }
+
+    enableAutoRead(ctx);
+  }
+
+  private void disableAutoRead(ChannelHandlerContext ctx) {
+    ChannelConfig config = ctx.channel().config();
+    if (config.isAutoRead()) {
+      config.setAutoRead(false);
+      autoReadDisabled = true;
+    }
+  }
+
+  private void enableAutoRead(ChannelHandlerContext ctx) {
+    if (autoReadDisabled) {
+      autoReadDisabled = false;
+      ctx.channel().config().setAutoRead(true);
+    }
+  }
+
+  /**
+   * Release the feeder's buffer and all pending buffers
+   */
+  private void releaseInput() {
+    feeder.release();
+    ByteBuf buf;
+    while ((buf = pending.poll()) != null) {
+      buf.release();
+    }
+  }
+}
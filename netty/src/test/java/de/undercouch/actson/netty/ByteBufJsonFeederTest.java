@@ -0,0 +1,238 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.netty;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link ByteBufJsonFeeder}
+ * @author Michel Kraemer
+ */
+public class ByteBufJsonFeederTest {
+  /**
+   * A string containing characters that are encoded with one, two, three,
+   * and four bytes in UTF-8
+   */
+  private static final String TEXT = "a\u00e4\u20ac\ud83d\ude00z";
+
+  /**
+   * Feed the given buffers into a parser and return the value of the
+   * string they contain
+   * @param bufs the buffers
+   * @return the string
+   */
+  private static String parseString(ByteBuf... bufs) {
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    JsonParser parser = new JsonParser(feeder);
+    int i = 0;
+    String result = null;
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        assertThat(feeder.isFull()).isFalse();
+        if (i < bufs.length) {
+          feeder.feed(bufs[i++]);
+        } else {
+          feeder.done();
+        }
+      } else if (event == JsonEvent.VALUE_STRING) {
+        result = parser.getCurrentString();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the UTF-8 encoded JSON string containing {@link #TEXT}
+   */
+  private static byte[] json() {
+    return ("\"" + TEXT + "\"").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decode a string from a single buffer
+   */
+  @Test
+  public void singleBuffer() {
+    ByteBuf buf = Unpooled.wrappedBuffer(json());
+    assertThat(parseString(buf)).isEqualTo(TEXT);
+    assertThat(buf.refCnt()).isEqualTo(0);
+  }
+
+  /**
+   * Decode a string from two buffers, split at every possible position, so
+   * that multi-byte characters span both buffers
+   */
+  @Test
+  public void splitCharacters() {
+    byte[] json = json();
+    for (int i = 1; i < json.length; ++i) {
+      ByteBuf a = Unpooled.copiedBuffer(json, 0, i);
+      ByteBuf b = Unpooled.copiedBuffer(json, i, json.length - i);
+      assertThat(parseString(a, b)).isEqualTo(TEXT);
+      assertThat(a.refCnt()).isEqualTo(0);
+      assertThat(b.refCnt()).isEqualTo(0);
+    }
+  }
+
+  /**
+   * Decode a string from buffers containing one byte each
+   */
+  @Test
+  public void singleBytes() {
+    byte[] json = json();
+    ByteBuf[] bufs = new ByteBuf[json.length];
+    for (int i = 0; i < json.length; ++i) {
+      bufs[i] = Unpooled.copiedBuffer(json, i, 1);
+    }
+    assertThat(parseString(bufs)).isEqualTo(TEXT);
+  }
+
+  /**
+   * Decode a string from a composite buffer whose components split
+   * multi-byte characters
+   */
+  @Test
+  public void compositeBuffer() {
+    byte[] json = json();
+    for (int i = 1; i < json.length; ++i) {
+      ByteBuf composite = Unpooled.wrappedBuffer(
+          Unpooled.copiedBuffer(json, 0, i),
+          Unpooled.copiedBuffer(json, i, json.length - i));
+      assertThat(parseString(composite)).isEqualTo(TEXT);
+      assertThat(composite.refCnt()).isEqualTo(0);
+    }
+  }
+
+  /**
+   * Make sure the feeder does not accept a buffer while it still holds one
+   */
+  @Test
+  public void full() throws Exception {
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    assertThat(feeder.isFull()).isFalse();
+    feeder.feed(Unpooled.copiedBuffer(json()));
+    assertThat(feeder.isFull()).isTrue();
+    ByteBuf b = Unpooled.copiedBuffer(json());
+    assertThatThrownBy(() -> feeder.feed(b))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(feeder.feed(json())).isEqualTo(0);
+
+    // decode everything
+    while (feeder.hasInput()) {
+      feeder.nextInput();
+    }
+    assertThat(feeder.isFull()).isFalse();
+    b.release();
+  }
+
+  /**
+   * Make sure an empty buffer is released immediately
+   */
+  @Test
+  public void emptyBuffer() {
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    ByteBuf buf = Unpooled.copiedBuffer(new byte[0]);
+    feeder.feed(buf);
+    assertThat(feeder.isFull()).isFalse();
+    assertThat(buf.refCnt()).isEqualTo(0);
+  }
+
+  /**
+   * Make sure byte arrays and byte buffers are copied
+   */
+  @Test
+  public void copyArrays() {
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    JsonParser parser = new JsonParser(feeder);
+    byte[] arr = "[1".getBytes(StandardCharsets.UTF_8);
+    assertThat(feeder.feed(arr)).isEqualTo(2);
+    arr[1] = '2';
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+
+    ByteBuffer bb = ByteBuffer.wrap(",3]".getBytes(StandardCharsets.UTF_8));
+    assertThat(feeder.feed(bb)).isEqualTo(3);
+    assertThat(bb.hasRemaining()).isFalse();
+    bb.put(0, (byte)'x');
+    feeder.done();
+
+    List<Long> values = new ArrayList<>();
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.VALUE_INT) {
+        values.add(parser.getCurrentLong());
+      }
+    }
+    assertThat(values).containsExactly(1L, 3L);
+  }
+
+  /**
+   * Make sure an incomplete character at the end of the input leads to an
+   * error
+   */
+  @Test
+  public void incompleteCharacter() {
+    byte[] json = json();
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    JsonParser parser = new JsonParser(feeder);
+
+    // end the input after the first byte of the four-byte character
+    feeder.feed(Unpooled.copiedBuffer(json, 0, 8));
+    feeder.done();
+    int event;
+    do {
+      event = parser.nextEvent();
+    } while (event != JsonEvent.ERROR && event != JsonEvent.EOF);
+    assertThat(event).isEqualTo(JsonEvent.ERROR);
+  }
+
+  /**
+   * Release a buffer that has not been decoded completely
+   */
+  @Test
+  public void release() {
+    ByteBufJsonFeeder feeder = new ByteBufJsonFeeder(StandardCharsets.UTF_8);
+    ByteBuf buf = Unpooled.copiedBuffer(json());
+    feeder.feed(buf);
+    feeder.release();
+    assertThat(buf.refCnt()).isEqualTo(0);
+    assertThat(feeder.isFull()).isFalse();
+  }
+}
@@ -0,0 +1,317 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.netty;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link JsonParserHandler}
+ * @author Michel Kraemer
+ */
+public class JsonParserHandlerTest {
+  private static ByteBuf buf(String s) {
+    return Unpooled.copiedBuffer(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Read all tokens from the given channel
+   * @param channel the channel
+   * @return the tokens
+   */
+  private static List<JsonToken> readTokens(EmbeddedChannel channel) {
+    List<JsonToken> result = new ArrayList<>();
+    JsonToken token;
+    while ((token = channel.readInbound()) != null) {
+      result.add(token);
+    }
+    return result;
+  }
+
+  /**
+   * Parse a JSON text split into several buffers
+   */
+  @Test
+  public void parse() {
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonParserHandler());
+    channel.writeInbound(buf("{\"na"), buf("me\":\"El"));
+    channel.writeInbound(buf("vis\",\"age\":42}"));
+
+    List<JsonToken> tokens = readTokens(channel);
+    assertThat(tokens).hasSize(6);
+    assertThat(tokens.get(0).getEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(tokens.get(1).getString()).isEqualTo("name");
+    assertThat(tokens.get(2).getString()).isEqualTo("Elvis");
+    assertThat(tokens.get(3).getString()).isEqualTo("age");
+    assertThat(tokens.get(4).getLong()).isEqualTo(42L);
+    assertThat(tokens.get(5).getEvent()).isEqualTo(JsonEvent.END_OBJECT);
+
+    assertThat(channel.finish()).isFalse();
+  }
+
+  /**
+   * Make sure the remaining input is parsed when the channel becomes
+   * inactive
+   */
+  @Test
+  public void parseOnInactive() {
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonParserHandler());
+    channel.writeInbound(buf("12"));
+    assertThat(readTokens(channel)).isEmpty();
+    channel.writeInbound(buf("3"));
+    assertThat(readTokens(channel)).isEmpty();
+
+    assertThat(channel.finish()).isTrue();
+    List<JsonToken> tokens = readTokens(channel);
+    assertThat(tokens).hasSize(1);
+    assertThat(tokens.get(0).getLong()).isEqualTo(123L);
+  }
+
+  /**
+   * Make sure messages that are not buffers are passed on
+   */
+  @Test
+  public void passThrough() {
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonParserHandler());
+    channel.writeInbound("hello");
+    String msg = channel.readInbound();
+    assertThat(msg).isEqualTo("hello");
+    assertThat(channel.finish()).isFalse();
+  }
+
+  /**
+   * Make sure a syntax error is raised and further input is released
+   */
+  @Test
+  public void syntaxError() {
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonParserHandler());
+    assertThatThrownBy(() -> channel.writeInbound(buf("[1,}")))
+        .isInstanceOf(CorruptedFrameException.class);
+
+    ByteBuf b = buf("[2]");
+    channel.writeInbound(b);
+    assertThat(b.refCnt()).isEqualTo(0);
+
+    List<JsonToken> tokens = readTokens(channel);
+    assertThat(tokens).hasSize(2);
+    assertThat(channel.finish()).isFalse();
+  }
+
+  /**
+   * Make sure the handler yields to the event loop after the maximum number
+   * of events and disables auto-read while the feeder is full
+   */
+  @Test
+  public void maxEventsPerRead() {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 1000; ++i) {
+      if (i > 0) {
+        json.append(",");
+      }
+      json.append(i);
+    }
+    json.append("]");
+
+    List<Boolean> autoRead = new ArrayList<>();
+    List<Long> values = new ArrayList<>();
+    JsonParserHandler handler = new JsonParserHandler();
+    handler.setMaxEventsPerRead(10);
+    EmbeddedChannel channel = new EmbeddedChannel(handler,
+        new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            JsonToken token = (JsonToken)msg;
+            autoRead.add(ctx.channel().config().isAutoRead());
+            if (token.getEvent() == JsonEvent.VALUE_INT) {
+              values.add(token.getLong());
+            }
+          }
+        });
+
+    channel.writeInbound(buf(json.toString()));
+
+    assertThat(values).hasSize(1000);
+    for (int i = 0; i < 1000; ++i) {
+      assertThat(values.get(i)).isEqualTo((long)i);
+    }
+    assertThat(autoRead).hasSize(1002);
+    assertThat(autoRead.get(0)).isTrue();
+    assertThat(autoRead.get(10)).isFalse();
+    assertThat(channel.config().isAutoRead()).isTrue();
+    assertThat(channel.finish()).isFalse();
+  }
+
+  /**
+   * Make sure auto-read is disabled if buffers arrive while the handler
+   * has yielded, even if the feeder itself is not full
+   */
+  @Test
+  public void buffersDuringYield() {
+    List<Boolean> autoRead = new ArrayList<>();
+    List<Long> values = new ArrayList<>();
+    JsonParserHandler handler = new JsonParserHandler();
+    handler.setMaxEventsPerRead(10);
+    EmbeddedChannel channel = new EmbeddedChannel(handler,
+        new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            JsonToken token = (JsonToken)msg;
+            autoRead.add(ctx.channel().config().isAutoRead());
+            if (token.getEvent() == JsonEvent.VALUE_INT) {
+              values.add(token.getLong());
+            }
+          }
+        });
+
+    // each buffer is small enough to be decoded at once, so the feeder is
+    // not full when the handler yields
+    ByteBuf[] bufs = new ByteBuf[5];
+    for (int i = 0; i < bufs.length; ++i) {
+      StringBuilder sb = new StringBuilder(i == 0 ? "[" : ",");
+      for (int j = 0; j < 20; ++j) {
+        if (j > 0) {
+          sb.append(",");
+        }
+        sb.append(i * 20 + j);
+      }
+      if (i == bufs.length - 1) {
+        sb.append("]");
+      }
+      bufs[i] = buf(sb.toString());
+    }
+    channel.writeInbound((Object[])bufs);
+
+    assertThat(values).hasSize(100);
+    for (int i = 0; i < 100; ++i) {
+      assertThat(values.get(i)).isEqualTo((long)i);
+    }
+    assertThat(autoRead.get(0)).isTrue();
+    assertThat(autoRead.get(10)).isFalse();
+    assertThat(autoRead.get(95)).isFalse();
+    assertThat(channel.config().isAutoRead()).isTrue();
+    for (ByteBuf b : bufs) {
+      assertThat(b.refCnt()).isEqualTo(0);
+    }
+    assertThat(channel.finish()).isFalse();
+  }
+
+  /**
+   * A handler that records the values of all tokens and all user events
+   */
+  private static class RecordingHandler extends ChannelInboundHandlerAdapter {
+    final List<Long> values = new ArrayList<>();
+    final List<Object> userEvents = new ArrayList<>();
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      JsonToken token = (JsonToken)msg;
+      if (token.getEvent() == JsonEvent.VALUE_INT) {
+        values.add(token.getLong());
+      }
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+      userEvents.add(evt);
+    }
+  }
+
+  /**
+   * Make sure the end of the JSON text is signalled with a user event
+   */
+  @Test
+  public void endEvent() {
+    RecordingHandler recorder = new RecordingHandler();
+    EmbeddedChannel channel = new EmbeddedChannel(new JsonParserHandler(),
+        recorder);
+    channel.writeInbound(buf("[1,2]"));
+    assertThat(recorder.values).containsExactly(1L, 2L);
+    assertThat(recorder.userEvents).isEmpty();
+
+    channel.finish();
+    assertThat(recorder.userEvents).containsExactly(JsonEndEvent.INSTANCE);
+  }
+
+  /**
+   * Make sure buffers that are still queued when the channel becomes
+   * inactive are parsed completely
+   */
+  @Test
+  public void inactiveWithPendingBuffers() {
+    JsonParserHandler handler = new JsonParserHandler();
+    handler.setMaxEventsPerRead(10);
+    RecordingHandler recorder = new RecordingHandler();
+    EmbeddedChannel channel = new EmbeddedChannel(handler, recorder);
+
+    // fire the buffers without running the continuations scheduled by the
+    // handler, so all buffers but the first are queued
+    for (int i = 0; i < 5; ++i) {
+      StringBuilder sb = new StringBuilder(i == 0 ? "[" : ",");
+      for (int j = 0; j < 20; ++j) {
+        if (j > 0) {
+          sb.append(",");
+        }
+        sb.append(i * 20 + j);
+      }
+      if (i == 4) {
+        sb.append("]");
+      }
+      channel.pipeline().fireChannelRead(buf(sb.toString()));
+    }
+    assertThat(recorder.values).hasSize(9);
+
+    channel.pipeline().fireChannelInactive();
+    channel.checkException();
+    assertThat(recorder.values).hasSize(100);
+    for (int i = 0; i < 100; ++i) {
+      assertThat(recorder.values.get(i)).isEqualTo((long)i);
+    }
+    assertThat(recorder.userEvents).containsExactly(JsonEndEvent.INSTANCE);
+    channel.finish();
+  }
+
+  /**
+   * Make sure the maximum number of events must be positive
+   */
+  @Test
+  public void invalidMaxEventsPerRead() {
+    assertThatThrownBy(() -> new JsonParserHandler().setMaxEventsPerRead(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
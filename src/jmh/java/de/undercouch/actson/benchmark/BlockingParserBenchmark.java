@@ -0,0 +1,199 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import de.undercouch.actson.BlockingJsonParser;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Parses a document in many concurrent threads that read from simulated
+ * network connections. Compares {@link BlockingJsonParser} with a loop that
+ * feeds a {@link JsonParser} manually. Virtual threads require Java 21. On
+ * older JVMs, the benchmarks with <code>threads=virtual</code> fail. Run
+ * the benchmark on a Java 21 JVM with
+ * <code>./gradlew jmh -PjmhArgs="BlockingParserBenchmark"</code>.
+ * @author Michel Kraemer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockingParserBenchmark {
+  @Param({ "virtual", "platform" })
+  public String threads;
+
+  /**
+   * The number of documents parsed concurrently
+   */
+  @Param({ "1000", "10000" })
+  public int concurrency;
+
+  /**
+   * The size of the document parsed in each thread
+   */
+  private static final long DOCUMENT_SIZE = 64 * 1024;
+
+  /**
+   * The maximum number of bytes returned by each read
+   */
+  private static final int CHUNK_SIZE = 1460;
+
+  /**
+   * The time a read waits for the next chunk
+   */
+  private static final long LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private byte[] json;
+  private ThreadFactory threadFactory;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    json = new CorpusGenerator("twitter", DOCUMENT_SIZE, 1).toByteArray();
+    if ("virtual".equals(threads)) {
+      // Thread.ofVirtual().factory() without requiring Java 21 at compile time
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      threadFactory = (ThreadFactory)Class.forName("java.lang.Thread$Builder")
+          .getMethod("factory").invoke(builder);
+    } else {
+      threadFactory = Thread::new;
+    }
+  }
+
+  /**
+   * An input stream that returns at most {@link #CHUNK_SIZE} bytes per read
+   * and waits before each read, like a network connection
+   */
+  private static class SlowInputStream extends ByteArrayInputStream {
+    SlowInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      LockSupport.parkNanos(LATENCY_NANOS);
+      return super.read(b, off, Math.min(len, CHUNK_SIZE));
+    }
+  }
+
+  /**
+   * Run the given task in {@link #concurrency} threads and wait for all of
+   * them to finish
+   * @param task the task
+   * @return the sum of the results of all tasks
+   */
+  private long run(Task task) throws InterruptedException {
+    AtomicLong sum = new AtomicLong();
+    Thread[] ts = new Thread[concurrency];
+    for (int i = 0; i < ts.length; ++i) {
+      ts[i] = threadFactory.newThread(() -> {
+        try {
+          sum.addAndGet(task.run(new SlowInputStream(json)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      ts[i].start();
+    }
+    for (Thread t : ts) {
+      t.join();
+    }
+    return sum.get();
+  }
+
+  @FunctionalInterface
+  private interface Task {
+    long run(InputStream in) throws IOException;
+  }
+
+  @Benchmark
+  public long blocking() throws InterruptedException {
+    return run(in -> {
+      BlockingJsonParser parser = new BlockingJsonParser(in);
+      long count = 0;
+      int event;
+      while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+        if (event == JsonEvent.ERROR) {
+          throw new IllegalStateException("Syntax error");
+        }
+        ++count;
+      }
+      return count;
+    });
+  }
+
+  @Benchmark
+  public long nonBlocking() throws InterruptedException {
+    return run(in -> {
+      JsonParser parser = new JsonParser();
+      byte[] buf = new byte[CHUNK_SIZE];
+      int pos = 0;
+      int len = 0;
+      long count = 0;
+      int event;
+      while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+        if (event == JsonEvent.NEED_MORE_INPUT) {
+          if (pos == len) {
+            len = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (len < 0) {
+              parser.getFeeder().done();
+              len = 0;
+              continue;
+            }
+          }
+          pos += parser.getFeeder().feed(buf, pos, len - pos);
+        } else if (event == JsonEvent.ERROR) {
+          throw new IllegalStateException("Syntax error");
+        } else {
+          ++count;
+        }
+      }
+      return count;
+    });
+  }
+}
@@ -0,0 +1,163 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates the JSON documents the benchmarks run on. All documents are
+ * generated with a fixed seed, so every run sees the same input.
+ * @author Michel Kraemer
+ */
+public final class Corpus {
+  /**
+   * The names of all documents
+   */
+  public static final String[] NAMES = {
+    "small", "deep", "strings", "numbers", "array", "twitter", "citm",
+    "canada", "escapes"
+  };
+
+  /**
+   * The size of documents created by the {@link CorpusGenerator}
+   */
+  private static final long GENERATED_SIZE = 1024 * 1024;
+
+  private static final String[] WORDS = {
+    "actson", "reactive", "parser", "json", "stream", "event", "buffer",
+    "feeder", "non-blocking", "asynchronous", "Grüße", "naïve", "東京",
+    "quote\\\"d", "tab\\t", "line\\n"
+  };
+
+  private Corpus() {
+    // hidden constructor
+  }
+
+  /**
+   * Generate a document
+   * @param name the document's name (one of {@link #NAMES})
+   * @return the UTF-8 encoded document
+   */
+  public static byte[] get(String name) {
+    Random random = new Random(1);
+    StringBuilder sb = new StringBuilder();
+    switch (name) {
+      case "small":
+        // a typical small message
+        sb.append("{\"id\":12345,\"type\":\"update\",\"timestamp\":1700000000123,")
+            .append("\"user\":{\"name\":\"Elvis\",\"verified\":true,\"score\":98.6},")
+            .append("\"tags\":[\"a\",\"b\",\"c\"],\"payload\":null}");
+        break;
+
+      case "deep":
+        // many deeply nested objects and arrays
+        sb.append('[');
+        for (int i = 0; i < 50; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          for (int j = 0; j < 100; ++j) {
+            sb.append(j % 2 == 0 ? "{\"k\":" : "[");
+          }
+          sb.append(i);
+          for (int j = 99; j >= 0; --j) {
+            sb.append(j % 2 == 0 ? '}' : ']');
+          }
+        }
+        sb.append(']');
+        break;
+
+      case "strings":
+        // long string values with escape sequences and non-ASCII characters
+        sb.append('[');
+        for (int i = 0; i < 1000; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append("{\"title\":\"");
+          appendWords(sb, random, 5);
+          sb.append("\",\"text\":\"");
+          appendWords(sb, random, 40);
+          sb.append("\"}");
+        }
+        sb.append(']');
+        break;
+
+      case "numbers":
+        // integers and floating point numbers
+        sb.append('[');
+        for (int i = 0; i < 20000; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          if (i % 2 == 0) {
+            sb.append(random.nextInt());
+          } else {
+            sb.append(String.format(Locale.ROOT, "%.6f",
+                (random.nextDouble() - 0.5) * 1000));
+          }
+        }
+        sb.append(']');
+        break;
+
+      case "array":
+        // a large array of small records
+        sb.append('[');
+        for (int i = 0; i < 10000; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append("{\"ts\":").append(1700000000000L + i)
+              .append(",\"v\":").append(random.nextInt(1000) / 10.0)
+              .append(",\"tag\":\"").append(WORDS[random.nextInt(10)])
+              .append("\",\"ok\":").append(random.nextBoolean())
+              .append('}');
+        }
+        sb.append(']');
+        break;
+
+      case "twitter":
+      case "citm":
+      case "canada":
+      case "escapes":
+        return new CorpusGenerator(name, GENERATED_SIZE, 1).toByteArray();
+
+      default:
+        throw new IllegalArgumentException("Unknown document: " + name);
+    }
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void appendWords(StringBuilder sb, Random random, int count) {
+    for (int i = 0; i < count; ++i) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+  }
+}
@@ -0,0 +1,445 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * <p>Generates large, reproducible JSON documents for benchmarks. The
+ * following shapes are supported:</p>
+ * <ul>
+ * <li><code>twitter</code> - search results with tweets and users, similar
+ * to <code>twitter.json</code> (mixed types, Unicode text, URLs)</li>
+ * <li><code>citm</code> - an event catalog similar to
+ * <code>citm_catalog.json</code> (many small integers and nested arrays)</li>
+ * <li><code>canada</code> - a GeoJSON polygon similar to
+ * <code>canada.json</code> (floating point numbers with many digits)</li>
+ * <li><code>deep</code> - deeply nested objects and arrays</li>
+ * <li><code>escapes</code> - strings full of escape sequences</li>
+ * <li><code>ndjson</code> - log records, one JSON object per line</li>
+ * </ul>
+ * <p>The generator writes records until the document has reached the
+ * requested size and then closes all open objects and arrays, so the
+ * document is slightly larger than requested. Records are written one by
+ * one, so documents of several gigabytes can be generated without keeping
+ * them in memory. The same shape, size, and seed always produce the same
+ * document.</p>
+ * <p>Run the generator from the command line with
+ * <code>./gradlew generateCorpus -PcorpusArgs="SHAPE SIZE SEED FILE"</code>.
+ * The size may have a suffix <code>k</code>, <code>m</code>, or
+ * <code>g</code>.</p>
+ * @author Michel Kraemer
+ */
+public class CorpusGenerator {
+  /**
+   * The names of all supported shapes
+   */
+  public static final String[] SHAPES = {
+    "twitter", "citm", "canada", "deep", "escapes", "ndjson"
+  };
+
+  private static final String[] WORDS = {
+    "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "JSON",
+    "stream", "parser", "reactive", "benchmark", "Grüße", "naïve", "café",
+    "東京", "日本語", "😀", "🚀", "#java", "@actson"
+  };
+
+  private static final String[] LANGUAGES = { "en", "de", "ja", "fr", "es" };
+
+  private static final String[] LEVELS = { "DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR" };
+
+  private static final String[] LOGGERS = {
+    "com.example.http.Server", "com.example.db.Pool", "com.example.auth.Login",
+    "com.example.cache.Store", "com.example.jobs.Scheduler"
+  };
+
+  private final String shape;
+  private final long size;
+  private final Random random;
+
+  /**
+   * The number of bytes written so far
+   */
+  private long written;
+
+  /**
+   * Collects the current record before it is encoded and written
+   */
+  private final StringBuilder sb = new StringBuilder();
+
+  /**
+   * Constructs a new generator
+   * @param shape the document's shape (one of {@link #SHAPES})
+   * @param size the minimum size of the document in bytes
+   * @param seed the seed for the random number generator
+   */
+  public CorpusGenerator(String shape, long size, long seed) {
+    if (!Arrays.asList(SHAPES).contains(shape)) {
+      throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+    this.shape = shape;
+    this.size = size;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generate a document into a byte array. Only use this for documents
+   * that fit into memory.
+   * @return the UTF-8 encoded document
+   */
+  public byte[] toByteArray() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream((int)Math.min(
+        size + 4096, Integer.MAX_VALUE - 8));
+    try {
+      write(out);
+    } catch (IOException e) {
+      // cannot happen
+      throw new IllegalStateException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Generate a document and write it to a stream. The stream will not be
+   * closed.
+   * @param out the stream
+   * @throws IOException if the document could not be written
+   */
+  public void write(OutputStream out) throws IOException {
+    written = 0;
+    switch (shape) {
+      case "twitter":
+        flush(out, "{\"statuses\":[");
+        for (long i = 0; written < size; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          tweet(i);
+          flush(out);
+        }
+        flush(out, "],\"search_metadata\":{\"completed_in\":0.087,\"max_id\":" +
+            "505874924095815681,\"query\":\"%E4%B8%80\",\"count\":100}}");
+        break;
+
+      case "citm":
+        sb.append("{\"areaNames\":{");
+        for (int i = 0; i < 20; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append('"').append(205705993 + i).append("\":\"");
+          words(3);
+          sb.append('"');
+        }
+        sb.append("},\"performances\":[");
+        flush(out);
+        for (long i = 0; written < size; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          performance(i);
+          flush(out);
+        }
+        flush(out, "],\"venueNames\":{\"PLEYEL_PLEYEL\":\"Salle Pleyel\"}}");
+        break;
+
+      case "canada":
+        flush(out, "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":" +
+            "\"Feature\",\"properties\":{\"name\":\"Canada\"},\"geometry\":" +
+            "{\"type\":\"Polygon\",\"coordinates\":[");
+        double lon = -65.613616999999977;
+        double lat = 43.420273000000009;
+        for (long i = 0; written < size; ++i) {
+          sb.append(i > 0 ? ",[" : "[");
+          int points = 10 + random.nextInt(500);
+          for (int j = 0; j < points; ++j) {
+            lon += (random.nextDouble() - 0.5) * 0.1;
+            lat += (random.nextDouble() - 0.5) * 0.1;
+            if (j > 0) {
+              sb.append(',');
+            }
+            sb.append('[').append(lon).append(',').append(lat).append(']');
+          }
+          sb.append(']');
+          flush(out);
+        }
+        flush(out, "]}}]}");
+        break;
+
+      case "deep":
+        flush(out, "[");
+        for (long i = 0; written < size; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          nested(1 + random.nextInt(500));
+          flush(out);
+        }
+        flush(out, "]");
+        break;
+
+      case "escapes":
+        flush(out, "[");
+        for (long i = 0; written < size; ++i) {
+          if (i > 0) {
+            sb.append(',');
+          }
+          sb.append('"');
+          escapedString(50 + random.nextInt(200));
+          sb.append('"');
+          flush(out);
+        }
+        flush(out, "]");
+        break;
+
+      case "ndjson":
+        for (long i = 0; written < size; ++i) {
+          logRecord(i);
+          sb.append('\n');
+          flush(out);
+        }
+        break;
+
+      default:
+        throw new IllegalStateException("Unknown shape: " + shape);
+    }
+  }
+
+  /**
+   * Append a string to the current record and write the record
+   */
+  private void flush(OutputStream out, String s) throws IOException {
+    sb.append(s);
+    flush(out);
+  }
+
+  /**
+   * Write the current record and clear it
+   */
+  private void flush(OutputStream out) throws IOException {
+    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    out.write(bytes);
+    written += bytes.length;
+    sb.setLength(0);
+  }
+
+  private void words(int count) {
+    for (int i = 0; i < count; ++i) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+  }
+
+  private void tweet(long i) {
+    long id = 505874924095815681L - i * 1000 - random.nextInt(1000);
+    sb.append("{\"metadata\":{\"result_type\":\"recent\",\"iso_language_code\":\"")
+        .append(LANGUAGES[random.nextInt(LANGUAGES.length)])
+        .append("\"},\"created_at\":\"Sun Aug 31 00:29:15 +0000 2014\",\"id\":")
+        .append(id).append(",\"id_str\":\"").append(id).append("\",\"text\":\"");
+    words(5 + random.nextInt(15));
+    sb.append(" http:\\/\\/t.co\\/").append(Long.toString(random.nextLong() >>> 1, 36))
+        .append("\",\"source\":\"<a href=\\\"https:\\/\\/mobile.twitter.com\\\" ")
+        .append("rel=\\\"nofollow\\\">Mobile Web<\\/a>\",\"truncated\":false,")
+        .append("\"in_reply_to_status_id\":null,\"user\":{\"id\":")
+        .append(random.nextInt(Integer.MAX_VALUE)).append(",\"name\":\"");
+    words(2);
+    sb.append("\",\"screen_name\":\"user").append(random.nextInt(100000))
+        .append("\",\"location\":\"\",\"description\":\"");
+    words(random.nextInt(20));
+    sb.append("\",\"url\":null,\"protected\":false,\"followers_count\":")
+        .append(random.nextInt(100000)).append(",\"friends_count\":")
+        .append(random.nextInt(5000)).append(",\"listed_count\":")
+        .append(random.nextInt(100)).append(",\"favourites_count\":")
+        .append(random.nextInt(10000)).append(",\"utc_offset\":")
+        .append(random.nextBoolean() ? "null" : String.valueOf(3600 * (random.nextInt(24) - 12)))
+        .append(",\"geo_enabled\":").append(random.nextBoolean())
+        .append(",\"verified\":false,\"statuses_count\":").append(random.nextInt(100000))
+        .append(",\"profile_background_color\":\"C0DEED\",\"default_profile\":true}")
+        .append(",\"geo\":null,\"coordinates\":null,\"place\":null,\"entities\":{")
+        .append("\"hashtags\":[");
+    int hashtags = random.nextInt(3);
+    for (int j = 0; j < hashtags; ++j) {
+      if (j > 0) {
+        sb.append(',');
+      }
+      int start = random.nextInt(100);
+      sb.append("{\"text\":\"").append(WORDS[random.nextInt(WORDS.length)])
+          .append("\",\"indices\":[").append(start).append(',')
+          .append(start + 5).append("]}");
+    }
+    sb.append("],\"symbols\":[],\"urls\":[],\"user_mentions\":[]},")
+        .append("\"favorited\":false,\"retweeted\":false,\"retweet_count\":")
+        .append(random.nextInt(1000)).append(",\"favorite_count\":")
+        .append(random.nextInt(1000)).append(",\"lang\":\"")
+        .append(LANGUAGES[random.nextInt(LANGUAGES.length)]).append("\"}");
+  }
+
+  private void performance(long i) {
+    sb.append("{\"eventId\":").append(138586341 + random.nextInt(1000))
+        .append(",\"id\":").append(339887544 + i)
+        .append(",\"logo\":").append(random.nextBoolean() ? "null" :
+            "\"\\/images\\/UE0AAAAACEKo6QAAAAZDSVRN\"")
+        .append(",\"name\":null,\"prices\":[");
+    int prices = 1 + random.nextInt(4);
+    for (int j = 0; j < prices; ++j) {
+      if (j > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"amount\":").append(10000 + random.nextInt(100000))
+          .append(",\"audienceSubCategoryId\":337100890,\"seatCategoryId\":")
+          .append(338937295 + j).append('}');
+    }
+    sb.append("],\"seatCategories\":[");
+    for (int j = 0; j < prices; ++j) {
+      if (j > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"areas\":[");
+      int areas = 1 + random.nextInt(8);
+      for (int k = 0; k < areas; ++k) {
+        if (k > 0) {
+          sb.append(',');
+        }
+        sb.append("{\"areaId\":").append(205705993 + random.nextInt(20))
+            .append(",\"blockIds\":[]}");
+      }
+      sb.append("],\"seatCategoryId\":").append(338937295 + j).append('}');
+    }
+    sb.append("],\"seatMapImage\":null,\"start\":")
+        .append(1372701600000L + i * 86400000L)
+        .append(",\"venueCode\":\"PLEYEL_PLEYEL\"}");
+  }
+
+  private void nested(int depth) {
+    for (int i = 0; i < depth; ++i) {
+      sb.append(i % 2 == 0 ? "{\"child\":" : "[");
+    }
+    sb.append(random.nextInt());
+    for (int i = depth - 1; i >= 0; --i) {
+      sb.append(i % 2 == 0 ? '}' : ']');
+    }
+  }
+
+  private void escapedString(int length) {
+    for (int i = 0; i < length; ++i) {
+      int r = random.nextInt(12);
+      switch (r) {
+        case 0:
+          sb.append("\\n");
+          break;
+        case 1:
+          sb.append("\\t");
+          break;
+        case 2:
+          sb.append("\\\"");
+          break;
+        case 3:
+          sb.append("\\\\");
+          break;
+        case 4:
+          sb.append("\\/");
+          break;
+        case 5:
+          sb.append(String.format(Locale.ROOT, "\\u%04x", 0x20 + random.nextInt(0xd7ff - 0x20)));
+          break;
+        case 6:
+          // escaped surrogate pair
+          int cp = 0x10000 + random.nextInt(0x100000);
+          sb.append(String.format(Locale.ROOT, "\\u%04x\\u%04x",
+              (int)Character.highSurrogate(cp), (int)Character.lowSurrogate(cp)));
+          break;
+        default:
+          sb.append((char)('a' + random.nextInt(26)));
+          break;
+      }
+    }
+  }
+
+  private void logRecord(long i) {
+    long ts = 1700000000000L + i * 37 + random.nextInt(37);
+    int status = random.nextInt(10) == 0 ? 500 : 200;
+    sb.append("{\"ts\":").append(ts)
+        .append(",\"level\":\"").append(LEVELS[random.nextInt(LEVELS.length)])
+        .append("\",\"logger\":\"").append(LOGGERS[random.nextInt(LOGGERS.length)])
+        .append("\",\"thread\":\"worker-").append(random.nextInt(16))
+        .append("\",\"msg\":\"");
+    words(4 + random.nextInt(10));
+    sb.append("\",\"status\":").append(status)
+        .append(",\"duration_ms\":").append(random.nextInt(100000) / 100.0)
+        .append(",\"request_id\":\"").append(Long.toHexString(random.nextLong()))
+        .append("\"}");
+  }
+
+  /**
+   * Parse a size with an optional suffix <code>k</code>, <code>m</code>,
+   * or <code>g</code>
+   * @param s the size
+   * @return the size in bytes
+   */
+  static long parseSize(String s) {
+    String lower = s.toLowerCase(Locale.ROOT);
+    long factor = 1;
+    if (lower.endsWith("k")) {
+      factor = 1024;
+    } else if (lower.endsWith("m")) {
+      factor = 1024 * 1024;
+    } else if (lower.endsWith("g")) {
+      factor = 1024 * 1024 * 1024;
+    }
+    if (factor > 1) {
+      lower = lower.substring(0, lower.length() - 1);
+    }
+    return Long.parseLong(lower) * factor;
+  }
+
+  /**
+   * Generate a document and write it to a file
+   * @param args the shape, the size, the seed, and the output file
+   * @throws IOException if the file could not be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4) {
+      System.err.println("Usage: CorpusGenerator SHAPE SIZE SEED FILE");
+      System.err.println("Shapes: " + String.join(", ", SHAPES));
+      System.exit(1);
+    }
+    CorpusGenerator generator = new CorpusGenerator(args[0],
+        parseSize(args[1]), Long.parseLong(args[2]));
+    try (OutputStream out = new BufferedOutputStream(
+        new FileOutputStream(args[3]), 1 << 16)) {
+      generator.write(out);
+    }
+  }
+}
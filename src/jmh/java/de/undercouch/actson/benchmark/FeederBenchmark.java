@@ -0,0 +1,101 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link DefaultJsonFeeder} accepts bytes and decodes
+ * them into characters, either one character at a time or in bulk
+ * @author Michel Kraemer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeederBenchmark {
+  @Param({ "strings", "numbers" })
+  public String corpus;
+
+  /**
+   * The number of bytes passed to the feeder at once
+   */
+  @Param({ "64", "8192" })
+  public int chunkSize;
+
+  private byte[] json;
+  private final char[] chars = new char[1024];
+
+  @Setup
+  public void setUp() {
+    json = Corpus.get(corpus);
+  }
+
+  @Benchmark
+  public long singleChars() throws CharacterCodingException {
+    DefaultJsonFeeder feeder = new DefaultJsonFeeder(StandardCharsets.UTF_8);
+    long sum = 0;
+    int i = 0;
+    while (i < json.length) {
+      i += feeder.feed(json, i, Math.min(chunkSize, json.length - i));
+      while (feeder.hasInput()) {
+        sum += feeder.nextInput();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long bulk() throws CharacterCodingException {
+    DefaultJsonFeeder feeder = new DefaultJsonFeeder(StandardCharsets.UTF_8);
+    long sum = 0;
+    int i = 0;
+    while (i < json.length) {
+      i += feeder.feed(json, i, Math.min(chunkSize, json.length - i));
+      int n;
+      while ((n = feeder.nextInput(chars, 0, chars.length)) > 0) {
+        sum += n;
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,192 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JsonParser} with Jackson's blocking and non-blocking
+ * parsers. The <code>*Events</code> benchmarks only iterate over the
+ * events, the <code>*Values</code> benchmarks also retrieve all strings and
+ * numbers.
+ * @author Michel Kraemer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+  @Param({ "small", "deep", "strings", "numbers", "array", "twitter", "citm",
+      "canada", "escapes" })
+  public String corpus;
+
+  private byte[] json;
+  private JsonFactory jsonFactory;
+
+  @Setup
+  public void setUp() {
+    json = Corpus.get(corpus);
+    jsonFactory = new JsonFactory();
+  }
+
+  /**
+   * Feed the document to an Actson parser and process all events
+   * @param parser the parser
+   * @param json the document
+   * @param values true if strings and numbers should be retrieved
+   * @param bh consumes the results
+   */
+  static void parse(JsonParser parser, byte[] json, boolean values, Blackhole bh) {
+    int i = 0;
+    int event;
+    do {
+      while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+        i += parser.getFeeder().feed(json, i, json.length - i);
+        if (i == json.length) {
+          parser.getFeeder().done();
+        }
+      }
+      if (event == JsonEvent.ERROR) {
+        throw new IllegalStateException("Syntax error");
+      }
+      if (values) {
+        switch (event) {
+          case JsonEvent.FIELD_NAME:
+          case JsonEvent.VALUE_STRING:
+            bh.consume(parser.getCurrentString());
+            break;
+          case JsonEvent.VALUE_INT:
+            bh.consume(parser.getCurrentLong());
+            break;
+          case JsonEvent.VALUE_DOUBLE:
+            bh.consume(parser.getCurrentDouble());
+            break;
+          default:
+            break;
+        }
+      }
+      bh.consume(event);
+    } while (event != JsonEvent.EOF);
+  }
+
+  /**
+   * Process all tokens of a Jackson parser
+   * @param parser the parser
+   * @param values true if strings and numbers should be retrieved
+   * @param bh consumes the results
+   * @throws IOException if the document could not be parsed
+   */
+  static void parse(com.fasterxml.jackson.core.JsonParser parser,
+      boolean values, Blackhole bh) throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null &&
+        token != JsonToken.NOT_AVAILABLE) {
+      if (values) {
+        switch (token) {
+          case FIELD_NAME:
+          case VALUE_STRING:
+            bh.consume(parser.getText());
+            break;
+          case VALUE_NUMBER_INT:
+            bh.consume(parser.getLongValue());
+            break;
+          case VALUE_NUMBER_FLOAT:
+            bh.consume(parser.getDoubleValue());
+            break;
+          default:
+            break;
+        }
+      }
+      bh.consume(token);
+    }
+  }
+
+  @Benchmark
+  public void actsonEvents(Blackhole bh) {
+    parse(new JsonParser(), json, false, bh);
+  }
+
+  @Benchmark
+  public void actsonValues(Blackhole bh) {
+    parse(new JsonParser(), json, true, bh);
+  }
+
+  @Benchmark
+  public void actsonValuesFast(Blackhole bh) {
+    // number fast path and lazy copies enabled
+    JsonParser parser = new JsonParser();
+    parser.setScanNumbers(true);
+    parser.setLazyValues(true);
+    parse(parser, json, true, bh);
+  }
+
+  @Benchmark
+  public void jacksonEvents(Blackhole bh) throws IOException {
+    try (com.fasterxml.jackson.core.JsonParser parser =
+        jsonFactory.createParser(json)) {
+      parse(parser, false, bh);
+    }
+  }
+
+  @Benchmark
+  public void jacksonValues(Blackhole bh) throws IOException {
+    try (com.fasterxml.jackson.core.JsonParser parser =
+        jsonFactory.createParser(json)) {
+      parse(parser, true, bh);
+    }
+  }
+
+  @Benchmark
+  public void jacksonNonBlockingValues(Blackhole bh) throws IOException {
+    try (com.fasterxml.jackson.core.JsonParser parser =
+        jsonFactory.createNonBlockingByteArrayParser()) {
+      ByteArrayFeeder feeder = (ByteArrayFeeder)parser.getNonBlockingInputFeeder();
+      feeder.feedInput(json, 0, json.length);
+      feeder.endOfInput();
+      parse(parser, true, bh);
+    }
+  }
+}
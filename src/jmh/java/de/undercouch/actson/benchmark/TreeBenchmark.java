@@ -0,0 +1,109 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.tree.CollectionsTreeModel;
+import de.undercouch.actson.tree.Node;
+import de.undercouch.actson.tree.TreeBuilder;
+import de.undercouch.actson.tree.TreeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TreeBuilder} with Jackson's <code>readTree</code> and
+ * <code>readValue</code>
+ * @author Michel Kraemer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+  @Param({ "small", "strings", "numbers", "array" })
+  public String corpus;
+
+  private byte[] json;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Setup
+  public void setUp() {
+    json = Corpus.get(corpus);
+  }
+
+  private <N> N build(TreeModel<N> model) {
+    JsonParser parser = new JsonParser();
+    TreeBuilder<N> builder = new TreeBuilder<>(parser, model);
+    int i = 0;
+    int event;
+    while ((event = builder.read()) == JsonEvent.NEED_MORE_INPUT) {
+      i += parser.getFeeder().feed(json, i, json.length - i);
+      if (i == json.length) {
+        parser.getFeeder().done();
+      }
+    }
+    if (event == JsonEvent.ERROR) {
+      throw new IllegalStateException("Syntax error");
+    }
+    return builder.getValue();
+  }
+
+  @Benchmark
+  public Node actsonCompact() {
+    return build(Node.MODEL);
+  }
+
+  @Benchmark
+  public Object actsonCollections() {
+    return build(CollectionsTreeModel.INSTANCE);
+  }
+
+  @Benchmark
+  public JsonNode jacksonReadTree() throws IOException {
+    return mapper.readTree(json);
+  }
+
+  @Benchmark
+  public Object jacksonCollections() throws IOException {
+    return mapper.readValue(json, Object.class);
+  }
+}
@@ -0,0 +1,194 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Incrementally decodes base64 encoded characters and writes the decoded
+ * bytes to an {@link OutputStream}. The decoder accepts the standard as well
+ * as the URL-safe alphabet (see RFC 4648). Padding is optional.
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+class Base64Decoder {
+  /**
+   * Maps ASCII characters to their 6-bit values (-1 for invalid characters)
+   */
+  private static final byte[] DECODE_TABLE = new byte[128];
+  static {
+    Arrays.fill(DECODE_TABLE, (byte)-1);
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    for (int i = 0; i < alphabet.length(); ++i) {
+      DECODE_TABLE[alphabet.charAt(i)] = (byte)i;
+    }
+    DECODE_TABLE['+'] = 62;
+    DECODE_TABLE['/'] = 63;
+    DECODE_TABLE['-'] = 62;
+    DECODE_TABLE['_'] = 63;
+  }
+
+  /**
+   * The stream to write decoded bytes to
+   */
+  private final OutputStream out;
+
+  /**
+   * Decoded bytes that have not been written to {@link #out} yet
+   */
+  private final byte[] buf = new byte[1024];
+
+  /**
+   * The number of bytes in {@link #buf}
+   */
+  private int bufLength = 0;
+
+  /**
+   * The bits of the current quantum decoded so far
+   */
+  private int quantum = 0;
+
+  /**
+   * The number of characters in the current quantum
+   */
+  private int quantumLength = 0;
+
+  /**
+   * The number of padding characters encountered so far
+   */
+  private int padding = 0;
+
+  /**
+   * Creates a new decoder
+   * @param out the stream to write decoded bytes to
+   */
+  Base64Decoder(OutputStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Decode a character
+   * @param c the character
+   * @return false if the character is invalid at this position
+   * @throws IOException if decoded bytes could not be written
+   */
+  boolean decode(char c) throws IOException {
+    if (c == '=') {
+      // padding is only allowed at the end of the last quantum
+      if (quantumLength + padding < 2 || (padding > 0 && quantumLength == 0)) {
+        return false;
+      }
+      padding++;
+      if (quantumLength + padding == 4) {
+        flushQuantum();
+      }
+      return true;
+    }
+
+    int v;
+    if (c >= 128 || padding > 0 || (v = DECODE_TABLE[c]) < 0) {
+      return false;
+    }
+
+    quantum = (quantum << 6) | v;
+    if (++quantumLength == 4) {
+      if (bufLength > buf.length - 3) {
+        flush();
+      }
+      buf[bufLength++] = (byte)(quantum >> 16);
+      buf[bufLength++] = (byte)(quantum >> 8);
+      buf[bufLength++] = (byte)quantum;
+      quantum = 0;
+      quantumLength = 0;
+    }
+    return true;
+  }
+
+  /**
+   * Decode a range of characters
+   * @param src the array containing the characters
+   * @param offset the index of the first character to decode
+   * @param len the number of characters to decode
+   * @return false if one of the characters is invalid at its position
+   * @throws IOException if decoded bytes could not be written
+   */
+  boolean decode(char[] src, int offset, int len) throws IOException {
+    for (int i = offset; i < offset + len; ++i) {
+      if (!decode(src[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decode the bytes of an incomplete quantum at the end of the input
+   */
+  private void flushQuantum() throws IOException {
+    if (bufLength > buf.length - 2) {
+      flush();
+    }
+    if (quantumLength == 2) {
+      buf[bufLength++] = (byte)(quantum >> 4);
+    } else if (quantumLength == 3) {
+      buf[bufLength++] = (byte)(quantum >> 10);
+      buf[bufLength++] = (byte)(quantum >> 2);
+    }
+    quantum = 0;
+    quantumLength = 0;
+  }
+
+  /**
+   * Write all decoded bytes to the output stream
+   */
+  private void flush() throws IOException {
+    if (bufLength > 0) {
+      out.write(buf, 0, bufLength);
+      bufLength = 0;
+    }
+  }
+
+  /**
+   * Finish decoding and write all remaining bytes to the output stream
+   * @return false if the input ended in the middle of a quantum
+   * @throws IOException if decoded bytes could not be written
+   */
+  boolean finish() throws IOException {
+    if (padding > 0) {
+      if (quantumLength != 0) {
+        // incomplete padding
+        return false;
+      }
+    } else if (quantumLength == 1) {
+      return false;
+    } else if (quantumLength > 0) {
+      flushQuantum();
+    }
+    flush();
+    return true;
+  }
+}
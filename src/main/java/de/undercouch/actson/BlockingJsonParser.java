@@ -0,0 +1,363 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>A facade for {@link JsonParser} that reads its input from an
+ * {@link InputStream}, a {@link ReadableByteChannel}, or a {@link Reader}.
+ * {@link #nextEvent()} never returns {@link JsonEvent#NEED_MORE_INPUT}.
+ * Instead, it blocks until more input has been read.</p>
+ * <p>The parser is meant to be used in a thread-per-request model, for
+ * example with virtual threads. It does not use locks or
+ * <code>synchronized</code> blocks, so a virtual thread blocked while
+ * reading does not pin its carrier thread (unless the underlying stream
+ * does). To keep memory usage low while many parsers are open, the read
+ * buffer starts small and only grows if reads fill it completely.</p>
+ * <p>Instances of this class are not thread-safe.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class BlockingJsonParser implements Closeable {
+  /**
+   * The initial number of bytes or characters to read at once
+   */
+  static final int MIN_READ_SIZE = 1024;
+
+  /**
+   * The maximum number of bytes or characters to read at once
+   */
+  static final int MAX_READ_SIZE = 64 * 1024;
+
+  private final JsonParser parser;
+  private final InputStream in;
+  private final ReadableByteChannel channel;
+  private final Reader reader;
+
+  /**
+   * The feeder if the input is read from a {@link Reader}
+   */
+  private final CharFeeder charFeeder;
+
+  /**
+   * The number of bytes or characters to read next
+   */
+  private int readSize = MIN_READ_SIZE;
+
+  /**
+   * Bytes read but not fed into the parser yet (from {@link #pos} to
+   * {@link #limit})
+   */
+  private byte[] buf;
+  private ByteBuffer byteBuffer;
+  private int pos;
+  private int limit;
+
+  /**
+   * Constructs a parser that reads UTF-8 from an input stream
+   * @param in the input stream
+   */
+  public BlockingJsonParser(InputStream in) {
+    this(in, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Constructs a parser that reads from an input stream
+   * @param in the input stream
+   * @param charset the charset that should be used to decode the input
+   */
+  public BlockingJsonParser(InputStream in, Charset charset) {
+    this(new JsonParser(charset), in, null, null, null);
+  }
+
+  /**
+   * Constructs a parser that reads UTF-8 from a channel
+   * @param channel the channel (must be in blocking mode)
+   * @throws IllegalBlockingModeException if the channel is in non-blocking
+   * mode
+   */
+  public BlockingJsonParser(ReadableByteChannel channel) {
+    this(channel, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Constructs a parser that reads from a channel
+   * @param channel the channel (must be in blocking mode)
+   * @param charset the charset that should be used to decode the input
+   * @throws IllegalBlockingModeException if the channel is in non-blocking
+   * mode
+   */
+  public BlockingJsonParser(ReadableByteChannel channel, Charset charset) {
+    this(new JsonParser(charset), null, channel, null, null);
+    if (channel instanceof SelectableChannel &&
+        !((SelectableChannel)channel).isBlocking()) {
+      throw new IllegalBlockingModeException();
+    }
+  }
+
+  /**
+   * Constructs a parser that reads characters from a reader
+   * @param reader the reader
+   */
+  public BlockingJsonParser(Reader reader) {
+    this(new CharFeeder(), reader);
+  }
+
+  private BlockingJsonParser(CharFeeder charFeeder, Reader reader) {
+    this(new JsonParser(charFeeder), null, null, reader, charFeeder);
+  }
+
+  private BlockingJsonParser(JsonParser parser, InputStream in,
+      ReadableByteChannel channel, Reader reader, CharFeeder charFeeder) {
+    this.parser = parser;
+    this.in = in;
+    this.channel = channel;
+    this.reader = reader;
+    this.charFeeder = charFeeder;
+  }
+
+  /**
+   * @return the underlying non-blocking parser, for example to configure
+   * it before the first event is read
+   */
+  public JsonParser getParser() {
+    return parser;
+  }
+
+  /**
+   * Get the next JSON event. Block until enough input has been read.
+   * @return the next event (never {@link JsonEvent#NEED_MORE_INPUT})
+   * @throws IOException if the input could not be read
+   * @see JsonParser#nextEvent()
+   */
+  public int nextEvent() throws IOException {
+    int event;
+    while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+      if (charFeeder != null) {
+        fillChars();
+      } else {
+        fillBytes();
+      }
+    }
+    return event;
+  }
+
+  /**
+   * @return the current string
+   * @see JsonParser#getCurrentString()
+   */
+  public String getCurrentString() {
+    return parser.getCurrentString();
+  }
+
+  /**
+   * @return the current integer
+   * @see JsonParser#getCurrentInt()
+   */
+  public int getCurrentInt() {
+    return parser.getCurrentInt();
+  }
+
+  /**
+   * @return the current long integer
+   * @see JsonParser#getCurrentLong()
+   */
+  public long getCurrentLong() {
+    return parser.getCurrentLong();
+  }
+
+  /**
+   * @return the current double
+   * @see JsonParser#getCurrentDouble()
+   */
+  public double getCurrentDouble() {
+    return parser.getCurrentDouble();
+  }
+
+  /**
+   * Close the underlying stream, channel, or reader
+   * @throws IOException if the input could not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+    } else if (channel != null) {
+      channel.close();
+    } else {
+      reader.close();
+    }
+  }
+
+  /**
+   * Feed bytes that have already been read into the parser or read the
+   * next chunk of bytes
+   * @throws IOException if the input could not be read
+   */
+  private void fillBytes() throws IOException {
+    if (pos < limit) {
+      pos += parser.getFeeder().feed(buf, pos, limit - pos);
+      return;
+    }
+
+    if (buf == null || buf.length < readSize) {
+      buf = new byte[readSize];
+      byteBuffer = ByteBuffer.wrap(buf);
+    }
+
+    int n;
+    if (in != null) {
+      n = in.read(buf, 0, readSize);
+    } else {
+      byteBuffer.clear().limit(readSize);
+      do {
+        n = channel.read(byteBuffer);
+      } while (n == 0);
+    }
+
+    if (n < 0) {
+      parser.getFeeder().done();
+      return;
+    }
+
+    adaptReadSize(n);
+    pos = 0;
+    limit = n;
+  }
+
+  /**
+   * Read the next chunk of characters into the parser's feeder
+   * @throws IOException if the input could not be read
+   */
+  private void fillChars() throws IOException {
+    if (charFeeder.buf.length < readSize) {
+      charFeeder.buf = new char[readSize];
+    }
+
+    int n = reader.read(charFeeder.buf, 0, readSize);
+    if (n < 0) {
+      charFeeder.done();
+      return;
+    }
+
+    adaptReadSize(n);
+    charFeeder.pos = 0;
+    charFeeder.limit = n;
+  }
+
+  /**
+   * Double the read size if the last read filled the buffer completely
+   * @param n the number of bytes or characters read
+   */
+  private void adaptReadSize(int n) {
+    if (n == readSize && readSize < MAX_READ_SIZE) {
+      readSize *= 2;
+    }
+  }
+
+  /**
+   * @return the number of bytes or characters that will be read next
+   */
+  int getReadSize() {
+    return readSize;
+  }
+
+  /**
+   * A feeder that provides characters read by a {@link Reader} to the
+   * parser. It does not accept bytes.
+   */
+  private static class CharFeeder implements JsonFeeder {
+    private char[] buf = new char[0];
+    private int pos;
+    private int limit;
+    private boolean done;
+
+    @Override
+    public void feed(byte b) {
+      throw new UnsupportedOperationException("Feeder does not accept bytes");
+    }
+
+    @Override
+    public int feed(byte[] buf) {
+      throw new UnsupportedOperationException("Feeder does not accept bytes");
+    }
+
+    @Override
+    public int feed(byte[] buf, int offset, int len) {
+      throw new UnsupportedOperationException("Feeder does not accept bytes");
+    }
+
+    @Override
+    public int feed(ByteBuffer buf) {
+      throw new UnsupportedOperationException("Feeder does not accept bytes");
+    }
+
+    @Override
+    public boolean isFull() {
+      return pos < limit;
+    }
+
+    @Override
+    public void done() {
+      done = true;
+    }
+
+    @Override
+    public boolean hasInput() {
+      return pos < limit;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done && pos == limit;
+    }
+
+    @Override
+    public char nextInput() {
+      if (pos == limit) {
+        throw new IllegalStateException("Not enough input data");
+      }
+      return buf[pos++];
+    }
+
+    @Override
+    public int nextInput(char[] dst, int offset, int len) {
+      int n = Math.min(len, limit - pos);
+      System.arraycopy(buf, pos, dst, offset, n);
+      pos += n;
+      return n;
+    }
+  }
+}
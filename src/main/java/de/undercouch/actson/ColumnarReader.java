@@ -0,0 +1,780 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Reads a JSON array of flat objects into columns. For example, the array
+ * <code>[{"ts":1,"v":0.5,"tag":"a"},{"ts":2,"v":0.7,"tag":"b"}]</code> can
+ * be read into a column of longs (<code>ts</code>), a column of doubles
+ * (<code>v</code>), and a column of strings (<code>tag</code>) in a single
+ * pass. The reader does not create any objects per row. Numbers are
+ * converted to primitive values without creating strings, and field names
+ * are looked up in a {@link FieldNameTable}.</p>
+ * <p>Add a column for each field you are interested in and then call
+ * {@link #read()} until it returns {@link JsonEvent#END_ARRAY}. Fields that
+ * do not have a column are skipped, even if they contain nested objects or
+ * arrays. Values that are <code>null</code> or missing in a row are marked
+ * in the column's null bitmap.</p>
+ * <p>When {@link #read()} is called for the first time, the reader installs
+ * a {@link FieldNameTable} containing the names of its columns in the
+ * parser. The parser must not have a field name table yet. Columns cannot
+ * be added afterwards.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class ColumnarReader {
+  /**
+   * The reader is waiting for the array
+   */
+  private static final int STATE_START = 0;
+
+  /**
+   * The reader is inside the array and waiting for the next row
+   */
+  private static final int STATE_ARRAY = 1;
+
+  /**
+   * The reader is inside a row and waiting for the next field name
+   */
+  private static final int STATE_ROW = 2;
+
+  /**
+   * The reader is inside a row and waiting for a field value
+   */
+  private static final int STATE_VALUE = 3;
+
+  /**
+   * The reader has read the whole array
+   */
+  private static final int STATE_DONE = 4;
+
+  /**
+   * The reader has encountered an error
+   */
+  private static final int STATE_ERROR = 5;
+
+  /**
+   * The parser to read from
+   */
+  private final JsonParser parser;
+
+  /**
+   * The columns in the order they have been added
+   */
+  private final List<Column> columns = new ArrayList<>();
+
+  /**
+   * The table containing the names of the columns. Created on the first
+   * call of {@link #read()}.
+   */
+  private FieldNameTable fieldNameTable;
+
+  /**
+   * The current state
+   */
+  private int state = STATE_START;
+
+  /**
+   * The column of the current field or <code>null</code> if the field
+   * should be skipped
+   */
+  private Column currentColumn;
+
+  /**
+   * The depth of the nested value that is currently being skipped
+   */
+  private int skipDepth = 0;
+
+  /**
+   * The number of rows read so far
+   */
+  private int rowCount = 0;
+
+  /**
+   * A message describing the last error (may be <code>null</code>)
+   */
+  private String errorMessage;
+
+  /**
+   * Constructs a new reader
+   * @param parser the parser to read from
+   */
+  public ColumnarReader(JsonParser parser) {
+    this.parser = parser;
+  }
+
+  /**
+   * Add a column of long integers
+   * @param name the field name
+   * @return the new column
+   * @throws IllegalArgumentException if there already is a column with
+   * the given name
+   */
+  public LongColumn addLongColumn(String name) {
+    return addColumn(new LongColumn(name));
+  }
+
+  /**
+   * Add a column of doubles. The column accepts integers and floating
+   * point numbers.
+   * @param name the field name
+   * @return the new column
+   * @throws IllegalArgumentException if there already is a column with
+   * the given name
+   */
+  public DoubleColumn addDoubleColumn(String name) {
+    return addColumn(new DoubleColumn(name));
+  }
+
+  /**
+   * Add a column of booleans
+   * @param name the field name
+   * @return the new column
+   * @throws IllegalArgumentException if there already is a column with
+   * the given name
+   */
+  public BooleanColumn addBooleanColumn(String name) {
+    return addColumn(new BooleanColumn(name));
+  }
+
+  /**
+   * Add a column of strings
+   * @param name the field name
+   * @return the new column
+   * @throws IllegalArgumentException if there already is a column with
+   * the given name
+   */
+  public StringColumn addStringColumn(String name) {
+    return addColumn(new StringColumn(name));
+  }
+
+  /**
+   * Add a column
+   * @param column the column to add
+   * @param <C> the column type
+   * @return the column
+   */
+  private <C extends Column> C addColumn(C column) {
+    if (fieldNameTable != null) {
+      throw new IllegalStateException("Columns cannot be added after " +
+          "reading has started");
+    }
+    for (Column c : columns) {
+      if (c.getName().equals(column.getName())) {
+        throw new IllegalArgumentException("Duplicate field name: " +
+            column.getName());
+      }
+    }
+    columns.add(column);
+    return column;
+  }
+
+  /**
+   * Create a field name table containing the names of all columns and
+   * install it in the parser
+   * @throws IllegalStateException if the parser already has a field name
+   * table
+   */
+  private void installFieldNameTable() {
+    if (parser.getFieldNameTable() != null) {
+      throw new IllegalStateException("The parser already has a field " +
+          "name table");
+    }
+    String[] names = new String[columns.size()];
+    for (int i = 0; i < names.length; ++i) {
+      names[i] = columns.get(i).getName();
+    }
+    fieldNameTable = new FieldNameTable(names);
+    parser.setFieldNameTable(fieldNameTable);
+  }
+
+  /**
+   * @return the columns in the order they have been added
+   */
+  public List<Column> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @return the number of rows read so far
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return a message describing why {@link #read()} has returned
+   * {@link JsonEvent#ERROR} or <code>null</code> if there was no error
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * <p>Read rows from the parser into the columns. The method returns one
+   * of the following events:</p>
+   * <ul>
+   * <li>{@link JsonEvent#END_ARRAY} if the whole array has been read</li>
+   * <li>{@link JsonEvent#NEED_MORE_INPUT} if the parser needs more input.
+   * Provide more input to the feeder and call this method again.</li>
+   * <li>{@link JsonEvent#ERROR} if the JSON text contains a syntax error,
+   * if it is not an array of objects, or if a value does not match the type
+   * of its column. Call {@link #getErrorMessage()} to get details.</li>
+   * </ul>
+   * @return the event
+   * @throws NumberFormatException if a value in a long column does not fit
+   * into a long
+   * @throws IllegalStateException if this method is called for the first
+   * time and the parser already has a field name table
+   */
+  public int read() {
+    if (state == STATE_DONE) {
+      return JsonEvent.END_ARRAY;
+    }
+    if (state == STATE_ERROR) {
+      return JsonEvent.ERROR;
+    }
+    if (fieldNameTable == null) {
+      installFieldNameTable();
+    }
+
+    boolean oldScanNumbers = parser.isScanNumbers();
+    parser.setScanNumbers(true);
+    try {
+      return readRows();
+    } finally {
+      parser.setScanNumbers(oldScanNumbers);
+    }
+  }
+
+  /**
+   * Read rows until the array ends, the parser needs more input, or an
+   * error occurs
+   * @return the event
+   */
+  private int readRows() {
+    while (true) {
+      int event = parser.nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        return event;
+      }
+      if (event == JsonEvent.ERROR) {
+        return fail("Syntax error at character " +
+            parser.getParsedCharacterCount());
+      }
+
+      switch (state) {
+        case STATE_START:
+          if (event != JsonEvent.START_ARRAY) {
+            return fail("Expected an array");
+          }
+          state = STATE_ARRAY;
+          break;
+
+        case STATE_ARRAY:
+          if (event == JsonEvent.END_ARRAY) {
+            state = STATE_DONE;
+            return event;
+          }
+          if (event != JsonEvent.START_OBJECT) {
+            return fail("Expected an object in row " + rowCount);
+          }
+          state = STATE_ROW;
+          break;
+
+        case STATE_ROW:
+          if (event == JsonEvent.END_OBJECT) {
+            endRow();
+            state = STATE_ARRAY;
+          } else {
+            int id = parser.getCurrentFieldId();
+            currentColumn = id < 0 ? null : columns.get(id);
+            state = STATE_VALUE;
+          }
+          break;
+
+        case STATE_VALUE:
+          if (!readValue(event)) {
+            return fail("Unexpected value for field \"" +
+                currentColumn.getName() + "\" in row " + rowCount);
+          }
+          break;
+
+        default:
+          throw new IllegalStateException("Unknown state: " + state);
+      }
+    }
+  }
+
+  /**
+   * Handle an event in the {@link #STATE_VALUE} state
+   * @param event the event
+   * @return false if the value does not match the type of the current column
+   */
+  private boolean readValue(int event) {
+    if (currentColumn == null) {
+      // skip value including all of its children
+      if (event == JsonEvent.START_OBJECT || event == JsonEvent.START_ARRAY) {
+        ++skipDepth;
+      } else if (event == JsonEvent.END_OBJECT || event == JsonEvent.END_ARRAY) {
+        --skipDepth;
+      }
+      if (skipDepth == 0) {
+        state = STATE_ROW;
+      }
+      return true;
+    }
+
+    boolean valid;
+    if (event == JsonEvent.VALUE_NULL) {
+      currentColumn.putNull(rowCount);
+      valid = true;
+    } else {
+      valid = currentColumn.put(rowCount, event, parser);
+    }
+    state = STATE_ROW;
+    return valid;
+  }
+
+  /**
+   * Finish the current row and mark missing values as null
+   */
+  private void endRow() {
+    for (Column c : columns) {
+      if (c.size() == rowCount) {
+        c.putNull(rowCount);
+      }
+    }
+    ++rowCount;
+  }
+
+  /**
+   * Put the reader into the error state
+   * @param message a message describing the error
+   * @return {@link JsonEvent#ERROR}
+   */
+  private int fail(String message) {
+    errorMessage = message;
+    state = STATE_ERROR;
+    return JsonEvent.ERROR;
+  }
+
+  /**
+   * A column containing the values of a field. Each column has a bitmap
+   * marking the rows in which the field is <code>null</code> or missing.
+   * @author Michel Kraemer
+   * @since 2.2.0
+   */
+  public abstract static class Column {
+    /**
+     * The field name
+     */
+    private final String name;
+
+    /**
+     * A bit for each row, set if the value is <code>null</code>
+     */
+    private long[] nulls = new long[1];
+
+    /**
+     * The number of null values
+     */
+    private int nullCount = 0;
+
+    /**
+     * Constructs a new column
+     * @param name the field name
+     */
+    Column(String name) {
+      this.name = name;
+    }
+
+    /**
+     * @return the field name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return the number of values in this column including null values
+     */
+    public abstract int size();
+
+    /**
+     * Check if the value in a given row is <code>null</code> or missing
+     * @param row the row
+     * @return true if the value is <code>null</code>
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public boolean isNull(int row) {
+      if (row >= size()) {
+        throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size());
+      }
+      int i = row >>> 6;
+      return i < nulls.length && (nulls[i] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return the number of rows in which the value is <code>null</code>
+     * or missing
+     */
+    public int getNullCount() {
+      return nullCount;
+    }
+
+    /**
+     * @return a copy of the null bitmap. Bit <code>n % 64</code> of element
+     * <code>n / 64</code> is set if the value in row <code>n</code> is
+     * <code>null</code> or missing.
+     */
+    public long[] getNullBitmap() {
+      return Arrays.copyOf(nulls, (size() + 63) >>> 6);
+    }
+
+    /**
+     * Set the value of a row to <code>null</code>
+     * @param row the row
+     */
+    void putNull(int row) {
+      int i = row >>> 6;
+      if (i >= nulls.length) {
+        nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, i + 1));
+      }
+      if ((nulls[i] & (1L << row)) == 0) {
+        nulls[i] |= 1L << row;
+        ++nullCount;
+      }
+      putDefault(row);
+    }
+
+    /**
+     * Clear the null bit of a row (e.g. if a field appears more than once
+     * in an object and its last value is not <code>null</code>)
+     * @param row the row
+     */
+    void clearNull(int row) {
+      int i = row >>> 6;
+      if (i < nulls.length && (nulls[i] & (1L << row)) != 0) {
+        nulls[i] &= ~(1L << row);
+        --nullCount;
+      }
+    }
+
+    /**
+     * Put a default value into a row that is <code>null</code>
+     * @param row the row
+     */
+    abstract void putDefault(int row);
+
+    /**
+     * Put the current value of the parser into a row. If the row already
+     * has a value, it will be replaced.
+     * @param row the row
+     * @param event the event returned by the parser
+     * @param parser the parser
+     * @return false if the value does not match the type of this column
+     */
+    abstract boolean put(int row, int event, JsonParser parser);
+  }
+
+  /**
+   * A column of long integers
+   * @author Michel Kraemer
+   * @since 2.2.0
+   */
+  public static class LongColumn extends Column {
+    /**
+     * The values
+     */
+    private final LongArrayBuilder values = new LongArrayBuilder();
+
+    LongColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    public int size() {
+      return values.size();
+    }
+
+    /**
+     * Get a value
+     * @param row the row
+     * @return the value (0 if the value is <code>null</code>)
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public long get(int row) {
+      return values.get(row);
+    }
+
+    /**
+     * @return a new array containing all values (nulls are 0)
+     */
+    public long[] toArray() {
+      return values.toArray();
+    }
+
+    @Override
+    void putDefault(int row) {
+      set(row, 0L);
+    }
+
+    @Override
+    boolean put(int row, int event, JsonParser parser) {
+      if (event != JsonEvent.VALUE_INT) {
+        return false;
+      }
+      clearNull(row);
+      set(row, parser.getCurrentLong());
+      return true;
+    }
+
+    private void set(int row, long value) {
+      if (row < values.size()) {
+        values.set(row, value);
+      } else {
+        values.accept(value);
+      }
+    }
+  }
+
+  /**
+   * A column of doubles
+   * @author Michel Kraemer
+   * @since 2.2.0
+   */
+  public static class DoubleColumn extends Column {
+    /**
+     * The values
+     */
+    private final DoubleArrayBuilder values = new DoubleArrayBuilder();
+
+    DoubleColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    public int size() {
+      return values.size();
+    }
+
+    /**
+     * Get a value
+     * @param row the row
+     * @return the value (<code>NaN</code> if the value is <code>null</code>)
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public double get(int row) {
+      return values.get(row);
+    }
+
+    /**
+     * @return a new array containing all values (nulls are <code>NaN</code>)
+     */
+    public double[] toArray() {
+      return values.toArray();
+    }
+
+    @Override
+    void putDefault(int row) {
+      set(row, Double.NaN);
+    }
+
+    @Override
+    boolean put(int row, int event, JsonParser parser) {
+      if (event != JsonEvent.VALUE_INT && event != JsonEvent.VALUE_DOUBLE) {
+        return false;
+      }
+      clearNull(row);
+      set(row, parser.getCurrentDouble());
+      return true;
+    }
+
+    private void set(int row, double value) {
+      if (row < values.size()) {
+        values.set(row, value);
+      } else {
+        values.accept(value);
+      }
+    }
+  }
+
+  /**
+   * A column of booleans
+   * @author Michel Kraemer
+   * @since 2.2.0
+   */
+  public static class BooleanColumn extends Column {
+    /**
+     * A bit for each row, set if the value is <code>true</code>
+     */
+    private long[] bits = new long[1];
+
+    /**
+     * The number of values
+     */
+    private int size = 0;
+
+    BooleanColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Get a value
+     * @param row the row
+     * @return the value (<code>false</code> if the value is <code>null</code>)
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public boolean get(int row) {
+      if (row >= size) {
+        throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+      }
+      return (bits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return a new array containing all values (nulls are <code>false</code>)
+     */
+    public boolean[] toArray() {
+      boolean[] result = new boolean[size];
+      for (int i = 0; i < size; ++i) {
+        result[i] = get(i);
+      }
+      return result;
+    }
+
+    @Override
+    void putDefault(int row) {
+      set(row, false);
+    }
+
+    @Override
+    boolean put(int row, int event, JsonParser parser) {
+      if (event != JsonEvent.VALUE_TRUE && event != JsonEvent.VALUE_FALSE) {
+        return false;
+      }
+      clearNull(row);
+      set(row, event == JsonEvent.VALUE_TRUE);
+      return true;
+    }
+
+    private void set(int row, boolean value) {
+      int i = row >>> 6;
+      if (i >= bits.length) {
+        bits = Arrays.copyOf(bits, bits.length * 2);
+      }
+      if (value) {
+        bits[i] |= 1L << row;
+      } else {
+        bits[i] &= ~(1L << row);
+      }
+      if (row == size) {
+        ++size;
+      }
+    }
+  }
+
+  /**
+   * A column of strings. Register a {@link StringCache} with the parser to
+   * share instances of repeated values.
+   * @author Michel Kraemer
+   * @since 2.2.0
+   */
+  public static class StringColumn extends Column {
+    /**
+     * The values
+     */
+    private String[] values = new String[16];
+
+    /**
+     * The number of values
+     */
+    private int size = 0;
+
+    StringColumn(String name) {
+      super(name);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Get a value
+     * @param row the row
+     * @return the value (may be <code>null</code>)
+     * @throws IndexOutOfBoundsException if the row is out of range
+     */
+    public String get(int row) {
+      if (row >= size) {
+        throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+      }
+      return values[row];
+    }
+
+    /**
+     * @return a new array containing all values
+     */
+    public String[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    void putDefault(int row) {
+      set(row, null);
+    }
+
+    @Override
+    boolean put(int row, int event, JsonParser parser) {
+      if (event != JsonEvent.VALUE_STRING) {
+        return false;
+      }
+      clearNull(row);
+      set(row, parser.getCurrentString());
+      return true;
+    }
+
+    private void set(int row, String value) {
+      if (row == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[row] = value;
+      if (row == size) {
+        ++size;
+      }
+    }
+  }
+}
@@ -23,6 +23,8 @@
 
 package de.undercouch.actson;
 
+import de.undercouch.actson.metrics.JsonMetrics;
+
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
@@ -43,6 +45,7 @@ public class DefaultJsonFeeder implements JsonFeeder {
   private final CharBuffer charBuf;
   private final CharsetDecoder decoder;
   private boolean done = false;
+  private JsonMetrics metrics;
 
   /**
    * Constructs a feeder
@@ -64,12 +67,39 @@ public class DefaultJsonFeeder implements JsonFeeder {
     decoder = charset.newDecoder();
   }
 
+  /**
+   * Register an object that receives information about the bytes fed into
+   * this feeder and the characters decoded
+   * @param metrics the metrics or <code>null</code> if no information
+   * should be collected (which is the default)
+   * @since 2.2.0
+   */
+  public void setMetrics(JsonMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return the metrics or <code>null</code> if no metrics have been
+   * registered
+   * @see #setMetrics(JsonMetrics)
+   * @since 2.2.0
+   */
+  public JsonMetrics getMetrics() {
+    return metrics;
+  }
+
   @Override
   public void feed(byte b) {
     if (isFull()) {
+      if (metrics != null) {
+        metrics.feedRejected();
+      }
       throw new IllegalStateException("JSON parser is full");
     }
     byteBuf.put(b);
+    if (metrics != null) {
+      metrics.bytesFed(1);
+    }
   }
 
   @Override
@@ -90,9 +120,30 @@ public class DefaultJsonFeeder implements JsonFeeder {
       ++position;
     }
     byteBuf.position(position);
+    if (metrics != null) {
+      metrics.bytesFed(i - offset);
+      if (i < j) {
+        metrics.feedRejected();
+      }
+    }
     return i - offset;
   }
 
+  @Override
+  public int feed(ByteBuffer buf) {
+    int n = Math.min(buf.remaining(), byteBuf.remaining());
+    int position = byteBuf.position();
+    buf.get(byteBuf.array(), byteBuf.arrayOffset() + position, n);
+    byteBuf.position(position + n);
+    if (metrics != null) {
+      metrics.bytesFed(n);
+      if (buf.hasRemaining()) {
+        metrics.feedRejected();
+      }
+    }
+    return n;
+  }
+
   @Override
   public void done() {
     done = true;
@@ -121,6 +172,17 @@ public class DefaultJsonFeeder implements JsonFeeder {
     return charBuf.get();
   }
 
+  @Override
+  public int nextInput(char[] dst, int offset, int len)
+      throws CharacterCodingException {
+    if (!hasInput()) {
+      return 0;
+    }
+    int n = Math.min(len, charBuf.remaining());
+    charBuf.get(dst, offset, n);
+    return n;
+  }
+
   /**
    * Decode bytes from {@link #byteBuf} and fill {@link #charBuf}. This method
    * is a no-op if {@link #charBuf} is not empty or if there are no bytes to
@@ -152,6 +214,10 @@ public class DefaultJsonFeeder implements JsonFeeder {
     charBuf.flip();
     byteBuf.compact();
 
+    if (metrics != null) {
+      metrics.charsDecoded(charBuf.remaining());
+    }
+
     return charBuf.hasRemaining();
   }
 }
@@ -0,0 +1,142 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import de.undercouch.actson.buffer.Buffer;
+
+/**
+ * <p>A table of known field names. Each field name is mapped to a small
+ * integer ID, which is the name's index in the array passed to the
+ * constructor.</p>
+ * <p>Register the table with {@link JsonParser#setFieldNameTable(FieldNameTable)}.
+ * The parser then calculates a hash code of each field name while parsing it.
+ * After a {@link JsonEvent#FIELD_NAME} event, call
+ * {@link JsonParser#getCurrentFieldId()} to get the ID of the field name
+ * without creating a string. This allows you to dispatch on field names with
+ * a <code>switch</code> statement over integers.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class FieldNameTable {
+  /**
+   * The field names (indexed by their ID)
+   */
+  private final String[] names;
+
+  /**
+   * Open addressing hash table containing field name IDs plus one (0 means
+   * the slot is empty)
+   */
+  private final int[] slots;
+
+  /**
+   * A mask to convert a hash code to a slot index
+   */
+  private final int mask;
+
+  /**
+   * Constructs a new table
+   * @param names the field names. The ID of each name will be its index in
+   * this array.
+   * @throws IllegalArgumentException if the array contains duplicates
+   */
+  public FieldNameTable(String... names) {
+    this.names = names.clone();
+
+    // make sure the table is at most half full
+    int size = Integer.highestOneBit(Math.max(names.length, 1) * 2) * 2;
+    slots = new int[size];
+    mask = size - 1;
+
+    for (int id = 0; id < names.length; ++id) {
+      String name = names[id];
+      int i = name.hashCode() & mask;
+      while (slots[i] != 0) {
+        if (this.names[slots[i] - 1].equals(name)) {
+          throw new IllegalArgumentException("Duplicate field name: " + name);
+        }
+        i = (i + 1) & mask;
+      }
+      slots[i] = id + 1;
+    }
+  }
+
+  /**
+   * @return the number of field names in this table
+   */
+  public int size() {
+    return names.length;
+  }
+
+  /**
+   * Get the field name with the given ID
+   * @param id the ID
+   * @return the field name
+   * @throws ArrayIndexOutOfBoundsException if there is no field name with
+   * this ID
+   */
+  public String getName(int id) {
+    return names[id];
+  }
+
+  /**
+   * Get the ID of a field name
+   * @param name the field name
+   * @return the ID or -1 if the name is not in this table
+   */
+  public int getId(String name) {
+    int i = name.hashCode() & mask;
+    int slot;
+    while ((slot = slots[i]) != 0) {
+      if (names[slot - 1].equals(name)) {
+        return slot - 1;
+      }
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Look up the field name currently in a buffer
+   * @param hash the hash code of the buffer's contents (calculated the
+   * same way as {@link String#hashCode()})
+   * @param length the number of characters in the buffer
+   * @param buffer the buffer
+   * @return the ID of the field name or -1 if it is not in this table
+   */
+  int find(int hash, int length, Buffer buffer) {
+    int i = hash & mask;
+    int slot;
+    while ((slot = slots[i]) != 0) {
+      String name = names[slot - 1];
+      if (name.length() == length && name.hashCode() == hash &&
+          buffer.contentEquals(name)) {
+        return slot - 1;
+      }
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+}
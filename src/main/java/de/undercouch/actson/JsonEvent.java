@@ -100,8 +100,37 @@ public interface JsonEvent {
    */
   int VALUE_NULL = 11;
 
+  /**
+   * A part of a large string value. This event is only returned if chunked
+   * delivery of string values has been enabled with
+   * {@link JsonParser#setStringChunkThreshold(int)}. Call
+   * {@link JsonParser#getCurrentString()} to get the part. The rest of the
+   * value follows in further {@link #VALUE_STRING_PART} events and a final
+   * {@link #VALUE_STRING} event, which may be empty.
+   * @since 2.2.0
+   */
+  int VALUE_STRING_PART = 12;
+
+  /**
+   * A base64 encoded string value that has been decoded into the sink given
+   * to {@link JsonParser#decodeBase64(java.io.OutputStream)}. This event
+   * replaces the {@link #VALUE_STRING} event for such a value.
+   * @since 2.2.0
+   */
+  int VALUE_BINARY = 13;
+
   /**
    * The end of the JSON text
    */
   int EOF = 99;
+
+  /**
+   * The parser has processed as many events or spent as much time as
+   * allowed by the budget given to
+   * {@link JsonParser#nextEvents(java.util.function.IntConsumer, int, long)}.
+   * Call the method again to continue parsing. This event is never returned
+   * by {@link JsonParser#nextEvent()}.
+   * @since 2.2.0
+   */
+  int BUDGET_EXHAUSTED = 100;
 }
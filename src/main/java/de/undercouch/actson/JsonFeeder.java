@@ -23,6 +23,7 @@
 
 package de.undercouch.actson;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 
 /**
@@ -74,6 +75,26 @@ public interface JsonFeeder {
    */
   int feed(byte[] buf, int offset, int len);
 
+  /**
+   * Provide more data to the {@link JsonParser}. The method will consume as
+   * many bytes from the given buffer as possible, either until the buffer
+   * has no bytes remaining or until the feeder is full (see
+   * {@link #isFull()}). The buffer's position will be advanced by the number
+   * of bytes consumed.
+   * @param buf the buffer containing the data to consume
+   * @return the number of bytes consumed (can be 0 if the parser does not accept
+   * more input at the moment, see {@link #isFull()})
+   * @since 2.2.0
+   */
+  default int feed(ByteBuffer buf) {
+    int n = 0;
+    while (buf.hasRemaining() && !isFull()) {
+      feed(buf.get());
+      ++n;
+    }
+    return n;
+  }
+
   /**
    * Checks if the parser accepts more input at the moment. If it doesn't,
    * you have to call {@link JsonParser#nextEvent()} until it returns
@@ -113,4 +134,31 @@ public interface JsonFeeder {
    * characters
    */
   char nextInput() throws CharacterCodingException;
+
+  /**
+   * Decode the next characters to be parsed and copy them into the given
+   * array. The method copies at most <code>len</code> characters but may
+   * copy less if not enough input is available at the moment. The default
+   * implementation calls {@link #nextInput()} until <code>len</code>
+   * characters have been copied or until {@link #hasInput()} returns
+   * <code>false</code>. Implementations should override it and copy the
+   * characters in bulk.
+   * @param dst the array to copy the characters into
+   * @param offset the index in the array of the first character to copy
+   * @param len the maximum number of characters to copy
+   * @return the number of characters copied (0 if there is no input
+   * available at the moment)
+   * @throws CharacterCodingException if the input data contains invalid
+   * characters
+   * @since 2.2.0
+   */
+  default int nextInput(char[] dst, int offset, int len)
+      throws CharacterCodingException {
+    int n = 0;
+    while (n < len && hasInput()) {
+      dst[offset + n] = nextInput();
+      ++n;
+    }
+    return n;
+  }
 }
@@ -27,11 +27,21 @@ package de.undercouch.actson;
 import de.undercouch.actson.buffer.Buffer;
 import de.undercouch.actson.buffer.BufferProvider;
 import de.undercouch.actson.buffer.DefaultBufferProvider;
+import de.undercouch.actson.metrics.JsonMetrics;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 /**
  * <p>A non-blocking, event-based JSON parser.</p>
@@ -42,50 +52,50 @@ import java.util.Arrays;
  * @since 1.0.0
  */
 public class JsonParser {
-  private static final byte __ = -1; // the universal error code
+  static final byte __ = -1; // the universal error code
 
   /**
    * Characters are mapped into these 31 character classes. This allows for
    * a significant reduction in the size of the state transition table.
    */
-  private static final byte C_SPACE =  0;  // space
-  private static final byte C_WHITE =  1;  // other whitespace
-  private static final byte C_LCURB =  2;  // {
-  private static final byte C_RCURB =  3;  // }
-  private static final byte C_LSQRB =  4;  // [
-  private static final byte C_RSQRB =  5;  // ]
-  private static final byte C_COLON =  6;  // :
-  private static final byte C_COMMA =  7;  // ,
-  private static final byte C_QUOTE =  8;  // "
-  private static final byte C_BACKS =  9;  // \
-  private static final byte C_SLASH = 10;  // /
-  private static final byte C_PLUS  = 11;  // +
-  private static final byte C_MINUS = 12;  // -
-  private static final byte C_POINT = 13;  // .
-  private static final byte C_ZERO  = 14;  // 0
-  private static final byte C_DIGIT = 15;  // 123456789
-  private static final byte C_LOW_A = 16;  // a
-  private static final byte C_LOW_B = 17;  // b
-  private static final byte C_LOW_C = 18;  // c
-  private static final byte C_LOW_D = 19;  // d
-  private static final byte C_LOW_E = 20;  // e
-  private static final byte C_LOW_F = 21;  // f
-  private static final byte C_LOW_L = 22;  // l
-  private static final byte C_LOW_N = 23;  // n
-  private static final byte C_LOW_R = 24;  // r
-  private static final byte C_LOW_S = 25;  // s
-  private static final byte C_LOW_T = 26;  // t
-  private static final byte C_LOW_U = 27;  // u
-  private static final byte C_ABCDF = 28;  // ABCDF
-  private static final byte C_E     = 29;  // E
-  private static final byte C_ETC   = 30;  // everything else
+  static final byte C_SPACE =  0;  // space
+  static final byte C_WHITE =  1;  // other whitespace
+  static final byte C_LCURB =  2;  // {
+  static final byte C_RCURB =  3;  // }
+  static final byte C_LSQRB =  4;  // [
+  static final byte C_RSQRB =  5;  // ]
+  static final byte C_COLON =  6;  // :
+  static final byte C_COMMA =  7;  // ,
+  static final byte C_QUOTE =  8;  // "
+  static final byte C_BACKS =  9;  // \
+  static final byte C_SLASH = 10;  // /
+  static final byte C_PLUS  = 11;  // +
+  static final byte C_MINUS = 12;  // -
+  static final byte C_POINT = 13;  // .
+  static final byte C_ZERO  = 14;  // 0
+  static final byte C_DIGIT = 15;  // 123456789
+  static final byte C_LOW_A = 16;  // a
+  static final byte C_LOW_B = 17;  // b
+  static final byte C_LOW_C = 18;  // c
+  static final byte C_LOW_D = 19;  // d
+  static final byte C_LOW_E = 20;  // e
+  static final byte C_LOW_F = 21;  // f
+  static final byte C_LOW_L = 22;  // l
+  static final byte C_LOW_N = 23;  // n
+  static final byte C_LOW_R = 24;  // r
+  static final byte C_LOW_S = 25;  // s
+  static final byte C_LOW_T = 26;  // t
+  static final byte C_LOW_U = 27;  // u
+  static final byte C_ABCDF = 28;  // ABCDF
+  static final byte C_E     = 29;  // E
+  static final byte C_ETC   = 30;  // everything else
 
   /**
    * This array maps the 128 ASCII characters into character classes.
    * The remaining Unicode characters should be mapped to C_ETC.
    * Non-whitespace control characters are errors.
    */
-  private final static byte[] ascii_class = {
+  static final byte[] ascii_class = {
     __,      __,      __,      __,      __,      __,      __,      __,
     __,      C_WHITE, C_WHITE, __,      __,      C_WHITE, __,      __,
     __,      __,      __,      __,      __,      __,      __,      __,
@@ -110,45 +120,46 @@ public class JsonParser {
   /**
    * The state codes.
    */
-  private static final byte GO =  0;  // start
-  private static final byte OK =  1;  // ok
-  private static final byte OB =  2;  // object
-  private static final byte KE =  3;  // key
-  private static final byte CO =  4;  // colon
-  private static final byte VA =  5;  // value
-  private static final byte AR =  6;  // array
-  private static final byte ST =  7;  // string
-  private static final byte ES =  8;  // escape
-  private static final byte U1 =  9;  // u1
-  private static final byte U2 = 10;  // u2
-  private static final byte U3 = 11;  // u3
-  private static final byte U4 = 12;  // u4
-  private static final byte MI = 13;  // minus
-  private static final byte ZE = 14;  // zero
-  private static final byte IN = 15;  // integer
-  private static final byte F0 = 16;  // frac0
-  private static final byte FR = 17;  // fraction
-  private static final byte E1 = 18;  // e
-  private static final byte E2 = 19;  // ex
-  private static final byte E3 = 20;  // exp
-  private static final byte T1 = 21;  // tr
-  private static final byte T2 = 22;  // tru
-  private static final byte T3 = 23;  // true
-  private static final byte F1 = 24;  // fa
-  private static final byte F2 = 25;  // fal
-  private static final byte F3 = 26;  // fals
-  private static final byte F4 = 27;  // false
-  private static final byte N1 = 28;  // nu
-  private static final byte N2 = 29;  // nul
-  private static final byte N3 = 30;  // null
+  static final byte GO =  0;  // start
+  static final byte OK =  1;  // ok
+  static final byte OB =  2;  // object
+  static final byte KE =  3;  // key
+  static final byte CO =  4;  // colon
+  static final byte VA =  5;  // value
+  static final byte AR =  6;  // array
+  static final byte ST =  7;  // string
+  static final byte ES =  8;  // escape
+  static final byte U1 =  9;  // u1
+  static final byte U2 = 10;  // u2
+  static final byte U3 = 11;  // u3
+  static final byte U4 = 12;  // u4
+  static final byte MI = 13;  // minus
+  static final byte ZE = 14;  // zero
+  static final byte IN = 15;  // integer
+  static final byte F0 = 16;  // frac0
+  static final byte FR = 17;  // fraction
+  static final byte E1 = 18;  // e
+  static final byte E2 = 19;  // ex
+  static final byte E3 = 20;  // exp
+  static final byte T1 = 21;  // tr
+  static final byte T2 = 22;  // tru
+  static final byte T3 = 23;  // true
+  static final byte F1 = 24;  // fa
+  static final byte F2 = 25;  // fal
+  static final byte F3 = 26;  // fals
+  static final byte F4 = 27;  // false
+  static final byte N1 = 28;  // nu
+  static final byte N2 = 29;  // nul
+  static final byte N3 = 30;  // null
 
   /**
    * The state transition table takes the current state and the current symbol,
    * and returns either a new state or an action. An action is represented as a
    * negative number. A JSON text is accepted if at the end of the text the
-   * state is OK and if the mode is MODE_DONE.
+   * state is OK and if the mode is MODE_DONE. The table is shared with
+   * {@link JsonValidator}.
    */
-  private static final byte[] state_transition_table = {
+  static final byte[] state_transition_table = {
   /*               white                                      1-9                                   ABCDF  etc
                space |  {  }  [  ]  :  ,  "  \  /  +  -  .  0  |  a  b  c  d  e  f  l  n  r  s  t  u  |  E  | pad */
   /*start  GO*/  GO,GO,-6,__,-5,__,__,__,ST,__,__,__,MI,__,ZE,IN,__,__,__,__,__,F1,__,N1,__,__,T1,__,__,__,__,__,
@@ -184,13 +195,27 @@ public class JsonParser {
   /*null   N3*/  __,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,__,OK,__,__,__,__,__,__,__,__,__,
   };
 
+  /**
+   * Powers of ten that can be represented exactly as doubles
+   */
+  private static final double[] POW10 = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+    1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * The number of events {@link #nextEvents(IntConsumer, int, long)}
+   * processes between two checks of the time budget (must be a power of two)
+   */
+  private static final int BUDGET_CHECK_INTERVAL = 16;
+
   /**
    * These modes can be pushed on the stack.
    */
-  private static final byte MODE_ARRAY  = 0;
-  private static final byte MODE_DONE   = 1;
-  private static final byte MODE_KEY    = 2;
-  private static final byte MODE_OBJECT = 3;
+  static final byte MODE_ARRAY  = 0;
+  static final byte MODE_DONE   = 1;
+  static final byte MODE_KEY    = 2;
+  static final byte MODE_OBJECT = 3;
 
   /**
    * The stack containing the current modes
@@ -223,17 +248,263 @@ public class JsonParser {
    */
   private Buffer currentBuffer;
 
+  /**
+   * The maximum number of characters of a string value the parser collects
+   * before it emits a {@link JsonEvent#VALUE_STRING_PART} event (0 if
+   * chunked delivery of string values is disabled)
+   * @since 2.2.0
+   */
+  private int stringChunkThreshold = 0;
+
+  /**
+   * True if the current string value should be delivered in chunks
+   * @since 2.2.0
+   */
+  private boolean chunkCurrentString = false;
+
+  /**
+   * The number of characters that can still be appended to the current
+   * chunk before the parser emits a {@link JsonEvent#VALUE_STRING_PART} event
+   * @since 2.2.0
+   */
+  private int chunkRemaining;
+
+  /**
+   * True if the parser has emitted a {@link JsonEvent#VALUE_STRING_PART}
+   * event and needs to start a new chunk before it continues parsing
+   * @since 2.2.0
+   */
+  private boolean startNextChunk = false;
+
+  /**
+   * True if escape sequences in strings should be decoded
+   * @since 2.2.0
+   */
+  private boolean unescapeStrings = false;
+
+  /**
+   * The code unit of the unicode escape sequence currently being decoded
+   * @since 2.2.0
+   */
+  private int unicodeEscape;
+
+  /**
+   * Known field names (may be <code>null</code>)
+   * @since 2.2.0
+   */
+  private FieldNameTable fieldNameTable;
+
+  /**
+   * A cache for short strings (may be <code>null</code>)
+   * @since 2.2.0
+   */
+  private StringCache stringCache;
+
+  /**
+   * Receives information about the work done by the parser (may be
+   * <code>null</code>)
+   * @since 2.2.0
+   */
+  private JsonMetrics metrics;
+
+  /**
+   * Reports growth of {@link #currentBuffer} to {@link #metrics} (may be
+   * <code>null</code>)
+   */
+  private IntConsumer bufferGrowthListener;
+
+  /**
+   * True if the current token is a field name
+   * @since 2.2.0
+   */
+  private boolean currentFieldName = false;
+
+  /**
+   * True if the parser calculates {@link #currentHash} and
+   * {@link #currentLength} for the current token
+   * @since 2.2.0
+   */
+  private boolean hashCurrentString = false;
+
+  /**
+   * The hash code of the current string (calculated the same way as
+   * {@link String#hashCode()})
+   * @since 2.2.0
+   */
+  private int currentHash;
+
+  /**
+   * The number of characters in the current string
+   * @since 2.2.0
+   */
+  private int currentLength;
+
+  /**
+   * Decodes the next string value if {@link #decodeBase64(OutputStream)}
+   * has been called
+   * @since 2.2.0
+   */
+  private Base64Decoder base64Decoder;
+
+  /**
+   * True if the current string value is being decoded by
+   * {@link #base64Decoder} instead of being collected in
+   * {@link #currentBuffer}
+   * @since 2.2.0
+   */
+  private boolean decodeCurrentString = false;
+
+  /**
+   * True if the parser should only record the position of each token in
+   * {@link #input} instead of copying its characters into
+   * {@link #currentBuffer}
+   * @since 2.2.0
+   */
+  private boolean lazyValues = false;
+
+  /**
+   * The index in {@link #input} of the first character of the current token
+   * that has not been copied into {@link #currentBuffer} yet, or -1 if all
+   * characters are in {@link #currentBuffer}
+   * @since 2.2.0
+   */
+  private int lazyStart = -1;
+
+  /**
+   * The index in {@link #input} after the last character of the current
+   * token (only valid if {@link #lazyStart} is not -1)
+   * @since 2.2.0
+   */
+  private int lazyEnd;
+
+  /**
+   * Receives the characters of the value currently being captured by
+   * {@link #captureRawValue(Appendable)} or <code>null</code> if no value
+   * is being captured
+   * @since 2.2.0
+   */
+  private Appendable captureSink;
+
+  /**
+   * The index in {@link #input} of the first character of the captured value
+   * that has not been passed to {@link #captureSink} yet
+   * @since 2.2.0
+   */
+  private int captureStart;
+
+  /**
+   * The top of the stack after the captured value has been closed
+   * @since 2.2.0
+   */
+  private int captureTop;
+
+  /**
+   * The value of {@link #lazyValues} before the capture started
+   * @since 2.2.0
+   */
+  private boolean captureLazyValues;
+
+  /**
+   * True if numbers should be scanned by {@link #scanNumber()}, which
+   * calculates their value while parsing them
+   * @since 2.2.0
+   */
+  private boolean scanNumbers = false;
+
+  /**
+   * True if the current token is a number whose value has been calculated
+   * by {@link #scanNumber()}
+   * @since 2.2.0
+   */
+  private boolean numberValid = false;
+
+  /**
+   * True if the current number is negative
+   * @since 2.2.0
+   */
+  private boolean numberNegative;
+
+  /**
+   * True if the current number has neither a fraction nor an exponent
+   * @since 2.2.0
+   */
+  private boolean numberInteger;
+
+  /**
+   * The significant digits of the current number (at most 18)
+   * @since 2.2.0
+   */
+  private long numberMantissa;
+
+  /**
+   * The number of significant digits in {@link #numberMantissa}
+   * @since 2.2.0
+   */
+  private int numberDigits;
+
+  /**
+   * True if the current number has more significant digits than
+   * {@link #numberMantissa} can hold
+   * @since 2.2.0
+   */
+  private boolean numberInexact;
+
+  /**
+   * The power of ten {@link #numberMantissa} has to be multiplied with,
+   * not including the exponent
+   * @since 2.2.0
+   */
+  private int numberScale;
+
+  /**
+   * The exponent of the current number (without sign)
+   * @since 2.2.0
+   */
+  private int numberExponent;
+
+  /**
+   * True if the exponent of the current number is negative
+   * @since 2.2.0
+   */
+  private boolean numberExponentNegative;
+
   /**
    * The number of characters processed by the JSON parser
    * @since 2.0.0
    */
   private long parsedCharacterCount = 0L;
 
+  /**
+   * The value of {@link #parsedCharacterCount} before the first character
+   * of the current token
+   * @since 2.2.0
+   */
+  private long tokenStart = 0L;
+
   /**
    * The feeder is used to get input to parse
    */
   private final JsonFeeder feeder;
 
+  /**
+   * Characters retrieved from the {@link #feeder} in bulk that have not been
+   * parsed yet
+   * @since 2.2.0
+   */
+  private final char[] input = new char[1024];
+
+  /**
+   * The position of the next character to parse in {@link #input}
+   * @since 2.2.0
+   */
+  private int inputPos = 0;
+
+  /**
+   * The number of valid characters in {@link #input}
+   * @since 2.2.0
+   */
+  private int inputLength = 0;
+
   /**
    * The first event returned by {@link #parse(char)}
    */
@@ -256,6 +527,9 @@ public class JsonParser {
         return false;
       }
       stack = Arrays.copyOf(stack, Math.min(stack.length * 2, depth));
+      if (metrics != null) {
+        metrics.bufferGrown(stack.length);
+      }
     }
     stack[top] = mode;
     return true;
@@ -330,6 +604,224 @@ public class JsonParser {
     return depth;
   }
 
+  /**
+   * <p>Enable chunked delivery of large string values. If a string value
+   * has more characters than the given threshold, the parser emits a
+   * {@link JsonEvent#VALUE_STRING_PART} event each time it has collected
+   * this number of characters and then starts collecting the next chunk.
+   * The last chunk is delivered with a {@link JsonEvent#VALUE_STRING} event.
+   * This allows you to process very large values with bounded memory.</p>
+   * <p>Field names are never delivered in chunks. Escape sequences are never
+   * split between chunks, so a chunk may be slightly larger than the
+   * threshold.</p>
+   * @param threshold the maximum number of characters per chunk or a value
+   * less than or equal to 0 if chunked delivery should be disabled (the
+   * default)
+   * @since 2.2.0
+   */
+  public void setStringChunkThreshold(int threshold) {
+    this.stringChunkThreshold = Math.max(threshold, 0);
+  }
+
+  /**
+   * @return the maximum number of characters per chunk of a string value
+   * or 0 if chunked delivery of string values is disabled
+   * @see #setStringChunkThreshold(int)
+   * @since 2.2.0
+   */
+  public int getStringChunkThreshold() {
+    return stringChunkThreshold;
+  }
+
+  /**
+   * <p>Specify whether the parser should decode escape sequences in field
+   * names and string values while it parses them. By default, the parser
+   * keeps escape sequences as they are and {@link #getCurrentString()}
+   * returns them unmodified (e.g. <code>\n</code> as a backslash followed by
+   * the letter <code>n</code>). If this option is enabled,
+   * {@link #getCurrentString()} returns the decoded string instead. Unicode
+   * escape sequences that represent a surrogate pair are decoded to the
+   * respective supplementary character.</p>
+   * <p>Strings without escape sequences are processed exactly the same way
+   * regardless of this option.</p>
+   * @param unescape true if escape sequences should be decoded
+   * @since 2.2.0
+   */
+  public void setUnescapeStrings(boolean unescape) {
+    this.unescapeStrings = unescape;
+  }
+
+  /**
+   * @return true if the parser decodes escape sequences in strings
+   * @see #setUnescapeStrings(boolean)
+   * @since 2.2.0
+   */
+  public boolean isUnescapeStrings() {
+    return unescapeStrings;
+  }
+
+  /**
+   * Register a table of known field names. The parser will calculate a hash
+   * code for each field name while parsing it, so that
+   * {@link #getCurrentFieldId()} can look up the name in the table without
+   * creating a string.
+   * @param table the table or <code>null</code> if field names should not
+   * be looked up
+   * @since 2.2.0
+   */
+  public void setFieldNameTable(FieldNameTable table) {
+    this.fieldNameTable = table;
+  }
+
+  /**
+   * @return the table of known field names or <code>null</code> if no table
+   * has been registered
+   * @see #setFieldNameTable(FieldNameTable)
+   * @since 2.2.0
+   */
+  public FieldNameTable getFieldNameTable() {
+    return fieldNameTable;
+  }
+
+  /**
+   * Register a cache for short strings. The parser will calculate a hash
+   * code for each field name and string value while parsing it, so that
+   * {@link #getCurrentString()} can return a cached instance for repeated
+   * strings instead of creating a new one.
+   * @param cache the cache or <code>null</code> if strings should not be
+   * cached
+   * @since 2.2.0
+   */
+  public void setStringCache(StringCache cache) {
+    this.stringCache = cache;
+  }
+
+  /**
+   * @return the cache for short strings or <code>null</code> if no cache
+   * has been registered
+   * @see #setStringCache(StringCache)
+   * @since 2.2.0
+   */
+  public StringCache getStringCache() {
+    return stringCache;
+  }
+
+  /**
+   * Register an object that receives information about the work done by
+   * the parser, such as the number of events by type, the maximum nesting
+   * depth, and the length of the largest token. Metrics about the parser's
+   * input have to be registered with the feeder (see
+   * {@link DefaultJsonFeeder#setMetrics(JsonMetrics)}).
+   * @param metrics the metrics or <code>null</code> if no information
+   * should be collected (which is the default)
+   * @since 2.2.0
+   */
+  public void setMetrics(JsonMetrics metrics) {
+    this.metrics = metrics;
+    bufferGrowthListener = metrics == null ? null : metrics::bufferGrown;
+    currentBuffer.setGrowthListener(bufferGrowthListener);
+  }
+
+  /**
+   * @return the metrics or <code>null</code> if no metrics have been
+   * registered
+   * @see #setMetrics(JsonMetrics)
+   * @since 2.2.0
+   */
+  public JsonMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * <p>Specify whether the parser should defer copying the characters of
+   * strings and numbers. In this mode, the parser only records where a
+   * token starts and ends in its input window. The characters are only
+   * copied when an accessor such as {@link #getCurrentString()} is called.
+   * This saves work for values the application is not interested in.</p>
+   * <p>If the input window has to be refilled while a token is still
+   * needed, the parser copies the token's characters before it overwrites
+   * the window. Tokens that have to be processed character by character
+   * are always copied (i.e. if strings are unescaped, decoded, split into
+   * chunks, or looked up in a {@link FieldNameTable} or
+   * {@link StringCache}).</p>
+   * <p>In this mode, the value of a string or number is only available until
+   * the next call to {@link #nextEvent()}.</p>
+   * @param lazy true if characters should only be copied on demand
+   * @since 2.2.0
+   */
+  public void setLazyValues(boolean lazy) {
+    this.lazyValues = lazy;
+  }
+
+  /**
+   * @return true if characters of strings and numbers are only copied on
+   * demand
+   * @see #setLazyValues(boolean)
+   * @since 2.2.0
+   */
+  public boolean isLazyValues() {
+    return lazyValues;
+  }
+
+  /**
+   * Specify whether the parser should calculate the values of numbers while
+   * parsing them. In this case, {@link #getCurrentInt()},
+   * {@link #getCurrentLong()}, and {@link #getCurrentDouble()} do not have to
+   * create a string to convert a number. The setting takes effect at the
+   * next number.
+   * @param scanNumbers true if the values of numbers should be calculated
+   * while parsing them
+   * @since 2.2.0
+   */
+  public void setScanNumbers(boolean scanNumbers) {
+    this.scanNumbers = scanNumbers;
+  }
+
+  /**
+   * @return true if the parser calculates the values of numbers while
+   * parsing them
+   * @see #setScanNumbers(boolean)
+   * @since 2.2.0
+   */
+  public boolean isScanNumbers() {
+    return scanNumbers;
+  }
+
+  /**
+   * <p>Declare that the next string value is base64 encoded and that the
+   * parser should decode it into the given stream. The parser decodes the
+   * value incrementally while it parses it. It neither keeps the encoded nor
+   * the decoded value in memory. When the value has been decoded completely,
+   * the parser emits a {@link JsonEvent#VALUE_BINARY} event instead of a
+   * {@link JsonEvent#VALUE_STRING} event.</p>
+   * <p>The declaration only applies to the next string value. Field names
+   * and other values in between are parsed as usual. The decoder accepts
+   * the standard and the URL-safe base64 alphabet. Padding is optional. The
+   * only escape sequence allowed in the value is <code>\/</code>. If the value
+   * is not valid base64, the parser returns {@link JsonEvent#ERROR}.</p>
+   * <p>If writing to the stream fails, {@link #nextEvent()} throws an
+   * {@link UncheckedIOException}.</p>
+   * @param sink the stream to write the decoded bytes to. The stream will
+   * not be flushed or closed by the parser.
+   * @since 2.2.0
+   */
+  public void decodeBase64(OutputStream sink) {
+    base64Decoder = new Base64Decoder(sink);
+  }
+
+  /**
+   * Declare that the next string value is base64 encoded and that the
+   * parser should decode it into the given channel. The channel must be in
+   * blocking mode. See {@link #decodeBase64(OutputStream)} for more
+   * information.
+   * @param sink the channel to write the decoded bytes to. The channel will
+   * not be closed by the parser.
+   * @since 2.2.0
+   */
+  public void decodeBase64(WritableByteChannel sink) {
+    decodeBase64(Channels.newOutputStream(sink));
+  }
+
   /**
    * Call this method to proceed parsing the JSON text and to get the next
    * event. The method returns {@link JsonEvent#NEED_MORE_INPUT} if it needs
@@ -338,25 +830,53 @@ public class JsonParser {
    * input is needed
    */
   public int nextEvent() {
+    if (startNextChunk) {
+      currentBuffer = newBuffer();
+      chunkRemaining = stringChunkThreshold;
+      currentHash = 0;
+      currentLength = 0;
+      tokenStart = parsedCharacterCount;
+      startNextChunk = false;
+    }
+
     try {
       while (event1 == JsonEvent.NEED_MORE_INPUT) {
-        if (!feeder.hasInput()) {
+        if (inputPos == inputLength && !fillInput()) {
           if (feeder.isDone()) {
             if (state != OK) {
               int r = stateToEvent();
               if (r != JsonEvent.NEED_MORE_INPUT) {
                 state = OK;
+                if (metrics != null) {
+                  // the number has not been ended by another character
+                  metrics.event(r);
+                  metrics.token((int)(parsedCharacterCount - tokenStart));
+                }
                 return r;
               }
             }
-            return (state == OK && pop(MODE_DONE) ? JsonEvent.EOF : JsonEvent.ERROR);
+            return event(state == OK && pop(MODE_DONE) ? JsonEvent.EOF : JsonEvent.ERROR);
+          }
+          return event(JsonEvent.NEED_MORE_INPUT);
+        }
+        if (state == ST) {
+          scanString();
+          if (event1 != JsonEvent.NEED_MORE_INPUT || inputPos == inputLength) {
+            continue;
+          }
+        } else if ((scanNumbers && (state == AR || state == VA)) ||
+            (state >= MI && state <= E3 && (scanNumbers || numberValid))) {
+          // a number that has been started by scanNumber() must be
+          // finished by it, even if scanNumbers has been reset in between
+          scanNumber();
+          if (inputPos == inputLength) {
+            continue;
           }
-          return JsonEvent.NEED_MORE_INPUT;
         }
-        parse(feeder.nextInput());
+        parse(input[inputPos++]);
       }
     } catch (CharacterCodingException e) {
-      return JsonEvent.ERROR;
+      return event(JsonEvent.ERROR);
     }
 
     int r = event1;
@@ -365,7 +885,336 @@ public class JsonParser {
       event2 = JsonEvent.NEED_MORE_INPUT;
     }
 
-    return r;
+    return event(r);
+  }
+
+  /**
+   * Pass an event about to be returned by {@link #nextEvent()} to the
+   * {@link #metrics} if there are any
+   * @param event the event
+   * @return the event
+   */
+  private int event(int event) {
+    if (metrics != null) {
+      metrics.event(event);
+      if (event == JsonEvent.VALUE_INT || event == JsonEvent.VALUE_DOUBLE) {
+        // don't count the character that has ended the number
+        metrics.token((int)(parsedCharacterCount - tokenStart - 1));
+      } else if ((event >= JsonEvent.FIELD_NAME && event <= JsonEvent.VALUE_STRING) ||
+          event == JsonEvent.VALUE_STRING_PART) {
+        metrics.token((int)(parsedCharacterCount - tokenStart));
+      }
+    }
+    return event;
+  }
+
+  /**
+   * Retrieve the next characters to parse from the {@link #feeder} and
+   * put them into {@link #input}
+   * @return true if {@link #input} contains characters now, false if there
+   * is no input available at the moment
+   * @throws CharacterCodingException if the input data contains invalid
+   * characters
+   */
+  private boolean fillInput() throws CharacterCodingException {
+    if (captureSink != null) {
+      // pass the captured characters on before they are overwritten
+      emitCapturedCharacters(inputLength);
+      captureStart = 0;
+    }
+    if (state >= ST && state <= E3) {
+      // the current token is not complete yet
+      materializeToken();
+    } else {
+      // the event of the current token has already been returned
+      lazyStart = -1;
+    }
+    inputPos = 0;
+    inputLength = feeder.nextInput(input, 0, input.length);
+    return inputLength > 0;
+  }
+
+  /**
+   * Process a run of characters from {@link #input} inside a string (i.e.
+   * while the current state is ST). The run ends before the first quote,
+   * backslash, or control character, which is left to {@link #parse(char)},
+   * or at the end of the input. All characters in the run are appended to
+   * the {@link #currentBuffer} at once.
+   */
+  private void scanString() {
+    char[] in = input;
+    int start = inputPos;
+    int end = inputLength;
+    if (chunkCurrentString && end - start > chunkRemaining) {
+      end = start + chunkRemaining;
+    }
+    int i = start;
+    while (i < end) {
+      char c = in[i];
+      if (c < 0x20 || c == '"' || c == '\\') {
+        break;
+      }
+      ++i;
+    }
+    if (i > start) {
+      parsedCharacterCount += i - start;
+      inputPos = i;
+      if (decodeCurrentString) {
+        try {
+          if (!base64Decoder.decode(in, start, i - start)) {
+            event1 = JsonEvent.ERROR;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return;
+      }
+      if (lazyStart >= 0) {
+        lazyEnd = i;
+      } else {
+        currentBuffer.append(in, start, i - start);
+      }
+      if (hashCurrentString) {
+        int h = currentHash;
+        for (int j = start; j < i; ++j) {
+          h = 31 * h + in[j];
+        }
+        currentHash = h;
+        currentLength += i - start;
+      }
+      if (chunkCurrentString) {
+        chunkRemaining -= i - start;
+        if (chunkRemaining <= 0 && !Character.isHighSurrogate(in[i - 1])) {
+          emitStringPart();
+        }
+      }
+    }
+  }
+
+  /**
+   * Append a character of the current token to {@link #currentBuffer} and
+   * emit a {@link JsonEvent#VALUE_STRING_PART} event if necessary
+   * @param c the character
+   * @param nextState the state the parser will be in after the character
+   */
+  private void appendChar(char c, byte nextState) {
+    if (lazyStart >= 0) {
+      // the character has just been read from the input window
+      lazyEnd = inputPos;
+    } else {
+      currentBuffer.append(c);
+    }
+    if (hashCurrentString) {
+      currentHash = 31 * currentHash + c;
+      currentLength++;
+    }
+    if (chunkCurrentString && --chunkRemaining <= 0 && nextState == ST &&
+        !Character.isHighSurrogate(c)) {
+      // only emit parts outside of escape sequences and surrogate pairs
+      emitStringPart();
+    }
+  }
+
+  /**
+   * Decode a character that belongs to an escape sequence in a string
+   * @param c the character
+   * @param nextState the state the parser will be in after the character
+   */
+  private void unescape(char c, byte nextState) {
+    switch (state) {
+    case ST:
+      // skip backslash
+      break;
+
+    case ES:
+      switch (c) {
+      case 'b':
+        appendChar('\b', nextState);
+        break;
+      case 'f':
+        appendChar('\f', nextState);
+        break;
+      case 'n':
+        appendChar('\n', nextState);
+        break;
+      case 'r':
+        appendChar('\r', nextState);
+        break;
+      case 't':
+        appendChar('\t', nextState);
+        break;
+      case 'u':
+        unicodeEscape = 0;
+        break;
+      default:
+        // quote, backslash, and slash
+        appendChar(c, nextState);
+        break;
+      }
+      break;
+
+    default:
+      // U1-U4: the state transition table guarantees that c is a hex digit
+      unicodeEscape = (unicodeEscape << 4) | Character.digit(c, 16);
+      if (state == U4) {
+        appendChar((char)unicodeEscape, nextState);
+      }
+      break;
+    }
+  }
+
+  /**
+   * Decode a character of a base64 encoded string value
+   * @param c the character
+   * @param nextState the state the parser will be in after the character
+   */
+  private void decodeBase64(char c, byte nextState) {
+    if (nextState == ES) {
+      // skip backslash
+      return;
+    }
+    if (state != ST && (state != ES || c != '/')) {
+      // the only escape sequence allowed in base64 is '\/'
+      event1 = JsonEvent.ERROR;
+      return;
+    }
+    try {
+      if (!base64Decoder.decode(c)) {
+        event1 = JsonEvent.ERROR;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Finish decoding a base64 encoded string value
+   * @return the event to emit
+   */
+  private int finishBase64() {
+    Base64Decoder decoder = base64Decoder;
+    base64Decoder = null;
+    decodeCurrentString = false;
+    try {
+      return decoder.finish() ? JsonEvent.VALUE_BINARY : JsonEvent.ERROR;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Process a run of characters from {@link #input} that belong to a number.
+   * If the current state is AR or VA, the method only processes characters
+   * if a new number starts. The run ends before the first character that
+   * does not belong to the number, which is left to {@link #parse(char)}, or
+   * at the end of the input. The method calculates the number's value while
+   * scanning it, so that it can later be converted without creating a
+   * string. All characters in the run are appended to the
+   * {@link #currentBuffer} at once.
+   */
+  private void scanNumber() {
+    char[] in = input;
+    int start = inputPos;
+    int end = inputLength;
+    int i = start;
+    byte s = state;
+
+    long mantissa = numberMantissa;
+    int digits = numberDigits;
+    int scale = numberScale;
+    int exponent = numberExponent;
+
+    while (i < end) {
+      char c = in[i];
+      if (c >= 128) {
+        break;
+      }
+      byte nextClass = ascii_class[c];
+      if (nextClass <= __) {
+        break;
+      }
+      byte nextState = state_transition_table[(s << 5) + nextClass];
+      if (nextState < MI || nextState > E3) {
+        // not part of a number
+        break;
+      }
+
+      if (s < MI) {
+        // start of a new number
+        startToken();
+        tokenStart = parsedCharacterCount + i - start;
+        if (lazyValues) {
+          lazyStart = i;
+        }
+        numberValid = true;
+        numberNegative = false;
+        numberInteger = true;
+        numberInexact = false;
+        numberExponentNegative = false;
+        mantissa = 0;
+        digits = 0;
+        scale = 0;
+        exponent = 0;
+      }
+
+      if (nextClass == C_ZERO || nextClass == C_DIGIT) {
+        int d = c - '0';
+        if (nextState == E3) {
+          if (exponent < 100000) {
+            exponent = exponent * 10 + d;
+          }
+        } else if (digits < 18) {
+          mantissa = mantissa * 10 + d;
+          if (mantissa != 0) {
+            digits++;
+          }
+          if (nextState == FR) {
+            scale--;
+          }
+        } else {
+          // drop digit
+          numberInexact = true;
+          if (nextState == IN) {
+            scale++;
+          }
+        }
+      } else if (nextState == F0 || nextState == E1) {
+        numberInteger = false;
+      } else if (nextClass == C_MINUS) {
+        if (nextState == MI) {
+          numberNegative = true;
+        } else {
+          numberExponentNegative = true;
+        }
+      }
+
+      s = nextState;
+      ++i;
+    }
+
+    if (i > start) {
+      if (lazyStart >= 0) {
+        lazyEnd = i;
+      } else {
+        currentBuffer.append(in, start, i - start);
+      }
+      parsedCharacterCount += i - start;
+      inputPos = i;
+      state = s;
+      numberMantissa = mantissa;
+      numberDigits = digits;
+      numberScale = scale;
+      numberExponent = exponent;
+    }
+  }
+
+  /**
+   * Emit a {@link JsonEvent#VALUE_STRING_PART} event for the chunk collected
+   * so far and start a new chunk afterwards
+   */
+  private void emitStringPart() {
+    event1 = JsonEvent.VALUE_STRING_PART;
+    startNextChunk = true;
   }
 
   /**
@@ -407,11 +1256,41 @@ public class JsonParser {
         // being less than or equal to E3.
         // if (state >= ST && state <= E3) {
         if (state >= ST) {
-          currentBuffer.append(nextChar);
+          if (decodeCurrentString) {
+            decodeBase64(nextChar, nextState);
+          } else if (unescapeStrings && (nextState == ES ||
+              (state >= ES && state <= U4))) {
+            unescape(nextChar, nextState);
+          } else {
+            appendChar(nextChar, nextState);
+          }
         } else {
-          currentBuffer = bufferProvider.newBuffer();
+          startToken();
           if (nextState != ST) {
-            currentBuffer.append(nextChar);
+            if (lazyValues) {
+              // the character has just been read from the input window
+              lazyStart = inputPos - 1;
+              lazyEnd = inputPos;
+            } else {
+              currentBuffer.append(nextChar);
+            }
+          } else if (stack[top] == MODE_KEY) {
+            currentFieldName = true;
+            hashCurrentString = fieldNameTable != null || stringCache != null;
+            if (lazyValues && !hashCurrentString && !unescapeStrings) {
+              lazyStart = inputPos;
+              lazyEnd = inputPos;
+            }
+          } else {
+            decodeCurrentString = base64Decoder != null;
+            chunkCurrentString = stringChunkThreshold > 0 && !decodeCurrentString;
+            chunkRemaining = stringChunkThreshold;
+            hashCurrentString = stringCache != null && !decodeCurrentString;
+            if (lazyValues && !hashCurrentString && !decodeCurrentString &&
+                !chunkCurrentString && !unescapeStrings) {
+              lazyStart = inputPos;
+              lazyEnd = inputPos;
+            }
           }
         }
       } else if (nextState == OK) {
@@ -427,6 +1306,56 @@ public class JsonParser {
     }
   }
 
+  /**
+   * Get a new buffer from the {@link #bufferProvider} and make sure it
+   * reports growth to the {@link #metrics}
+   * @return the new buffer
+   */
+  private Buffer newBuffer() {
+    Buffer result = bufferProvider.newBuffer();
+    if (metrics != null) {
+      result.setGrowthListener(bufferGrowthListener);
+    }
+    return result;
+  }
+
+  /**
+   * Start a new token (i.e. a string or a number) and reset all information
+   * about the previous one
+   */
+  private void startToken() {
+    currentBuffer = newBuffer();
+    tokenStart = parsedCharacterCount - 1;
+    chunkCurrentString = false;
+    currentFieldName = false;
+    hashCurrentString = false;
+    numberValid = false;
+    lazyStart = -1;
+    currentHash = 0;
+    currentLength = 0;
+  }
+
+  /**
+   * Copy the characters of the current token that are still in
+   * {@link #input} into {@link #currentBuffer}
+   */
+  private void materializeToken() {
+    if (lazyStart >= 0) {
+      currentBuffer.append(input, lazyStart, lazyEnd - lazyStart);
+      lazyStart = -1;
+    }
+  }
+
+  /**
+   * @return the characters of the current token as a string
+   */
+  private String currentText() {
+    if (lazyStart >= 0) {
+      return new String(input, lazyStart, lazyEnd - lazyStart);
+    }
+    return currentBuffer.toString();
+  }
+
   /**
    * Perform an action that changes the parser state
    * @param action the action to perform
@@ -479,6 +1408,9 @@ public class JsonParser {
         event1 = JsonEvent.ERROR;
         return;
       }
+      if (metrics != null) {
+        metrics.depth(top);
+      }
       state = OB;
       event1 = JsonEvent.START_OBJECT;
       break;
@@ -489,6 +1421,9 @@ public class JsonParser {
         event1 = JsonEvent.ERROR;
         return;
       }
+      if (metrics != null) {
+        metrics.depth(top);
+      }
       state = AR;
       event1 = JsonEvent.START_ARRAY;
       break;
@@ -500,7 +1435,7 @@ public class JsonParser {
         event1 = JsonEvent.FIELD_NAME;
       } else {
         state = OK;
-        event1 = JsonEvent.VALUE_STRING;
+        event1 = decodeCurrentString ? finishBase64() : JsonEvent.VALUE_STRING;
       }
       break;
 
@@ -569,7 +1504,35 @@ public class JsonParser {
    * @return the parsed string
    */
   public String getCurrentString() {
-    return currentBuffer.toString();
+    if (hashCurrentString) {
+      // return a shared instance if possible
+      if (currentFieldName && fieldNameTable != null) {
+        int id = fieldNameTable.find(currentHash, currentLength, currentBuffer);
+        if (id >= 0) {
+          return fieldNameTable.getName(id);
+        }
+      }
+      if (stringCache != null && currentLength <= stringCache.getMaxLength()) {
+        return stringCache.get(currentHash, currentLength, currentBuffer);
+      }
+    }
+    return currentText();
+  }
+
+  /**
+   * If the event returned by {@link #nextEvent()} was
+   * {@link JsonEvent#FIELD_NAME} and a table of known field names has been
+   * registered with {@link #setFieldNameTable(FieldNameTable)}, this method
+   * looks up the parsed field name in the table without creating a string.
+   * @return the ID of the field name in the table or -1 if the name is not
+   * in the table or if there is no table
+   * @since 2.2.0
+   */
+  public int getCurrentFieldId() {
+    if (!currentFieldName || !hashCurrentString || fieldNameTable == null) {
+      return -1;
+    }
+    return fieldNameTable.find(currentHash, currentLength, currentBuffer);
   }
 
   /**
@@ -578,7 +1541,13 @@ public class JsonParser {
    * @return the parsed integer
    */
   public int getCurrentInt() {
-    return Integer.parseInt(currentBuffer.toString());
+    if (numberValid && isCurrentNumberExactLong()) {
+      long l = currentNumberAsLong();
+      if (l == (int)l) {
+        return (int)l;
+      }
+    }
+    return Integer.parseInt(currentText());
   }
 
   /**
@@ -587,7 +1556,10 @@ public class JsonParser {
    * @return the parsed long integer
    */
   public long getCurrentLong() {
-    return Long.parseLong(currentBuffer.toString());
+    if (numberValid && isCurrentNumberExactLong()) {
+      return currentNumberAsLong();
+    }
+    return Long.parseLong(currentText());
   }
 
   /**
@@ -596,7 +1568,251 @@ public class JsonParser {
    * @return the parsed double
    */
   public double getCurrentDouble() {
-    return Double.parseDouble(currentBuffer.toString());
+    if (numberValid && !numberInexact) {
+      // Fast path: if the mantissa and the power of ten can both be
+      // represented exactly as doubles, a single multiplication or division
+      // yields the correctly rounded result.
+      int e = numberScale + (numberExponentNegative ? -numberExponent : numberExponent);
+      if (numberMantissa < (1L << 53) && e >= -22 && e <= 22) {
+        double d = (double)numberMantissa;
+        d = e < 0 ? d / POW10[-e] : d * POW10[e];
+        return numberNegative ? -d : d;
+      }
+    }
+    return Double.parseDouble(currentText());
+  }
+
+  /**
+   * @return true if the value calculated by {@link #scanNumber()} is an
+   * integer that fits into {@link #numberMantissa}
+   */
+  private boolean isCurrentNumberExactLong() {
+    return numberInteger && !numberInexact;
+  }
+
+  /**
+   * @return the value calculated by {@link #scanNumber()} as a long
+   */
+  private long currentNumberAsLong() {
+    return numberNegative ? -numberMantissa : numberMantissa;
+  }
+
+  /**
+   * <p>Capture the exact text of the current object or array. Call this
+   * method right after {@link #nextEvent()} has returned
+   * {@link JsonEvent#START_OBJECT} or {@link JsonEvent#START_ARRAY}. The
+   * parser skips the value, including all nested values, and passes its
+   * text (from the opening to the matching closing bracket) to the given
+   * sink. This is useful to forward an embedded object verbatim without
+   * re-serializing it from events.</p>
+   * <p>The characters are passed as {@link CharBuffer}s that wrap the
+   * parser's input window, so the parser does not copy them. A value
+   * spanning several input windows is passed in several slices. The slices
+   * are only valid during the call to the sink. The method returns one of
+   * the following events:</p>
+   * <ul>
+   * <li>{@link JsonEvent#END_OBJECT} or {@link JsonEvent#END_ARRAY} if the
+   * value has been captured completely</li>
+   * <li>{@link JsonEvent#NEED_MORE_INPUT} if the parser needs more input.
+   * Provide more input to the feeder and call this method again with the
+   * same sink.</li>
+   * <li>{@link JsonEvent#ERROR} if the JSON text contains a syntax error</li>
+   * </ul>
+   * <p>Note that the parser works on characters decoded by its feeder. The
+   * captured text is therefore exactly the text of the value, but the sink
+   * has to encode it again if it needs bytes.</p>
+   * @param sink the sink that receives the characters of the value
+   * @return the event
+   * @throws IllegalStateException if the current event is neither
+   * {@link JsonEvent#START_OBJECT} nor {@link JsonEvent#START_ARRAY}
+   * @throws UncheckedIOException if the sink throws an {@link IOException}
+   * @since 2.2.0
+   */
+  public int captureRawValue(Appendable sink) {
+    if (captureSink == null) {
+      if ((state != OB && state != AR) || inputPos == 0 ||
+          (input[inputPos - 1] != '{' && input[inputPos - 1] != '[')) {
+        throw new IllegalStateException("Raw values can only be captured " +
+            "right after the start of an object or an array");
+      }
+      captureSink = sink;
+      captureStart = inputPos - 1;
+      captureTop = top - 1;
+      captureLazyValues = lazyValues;
+      // the characters of strings and numbers are not needed
+      lazyValues = true;
+    }
+
+    while (true) {
+      int event = nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        return event;
+      }
+      if (event == JsonEvent.ERROR) {
+        endCapture();
+        return event;
+      }
+      if ((event == JsonEvent.END_OBJECT || event == JsonEvent.END_ARRAY) &&
+          top == captureTop) {
+        emitCapturedCharacters(inputPos);
+        endCapture();
+        return event;
+      }
+    }
+  }
+
+  /**
+   * Pass the characters of the captured value from {@link #captureStart}
+   * up to the given index in {@link #input} to the {@link #captureSink}
+   * @param end the index after the last character to pass
+   */
+  private void emitCapturedCharacters(int end) {
+    if (end > captureStart) {
+      try {
+        captureSink.append(CharBuffer.wrap(input, captureStart, end - captureStart));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Stop capturing a raw value
+   */
+  private void endCapture() {
+    captureSink = null;
+    lazyValues = captureLazyValues;
+  }
+
+  /**
+   * <p>Read the elements of an array of numbers and pass them to the given
+   * consumer. Call this method right after {@link #nextEvent()} has returned
+   * {@link JsonEvent#START_ARRAY}. The method processes the array's elements
+   * in a tight loop and converts them to doubles without creating strings.
+   * It returns one of the following events:</p>
+   * <ul>
+   * <li>{@link JsonEvent#END_ARRAY} if all elements have been read</li>
+   * <li>{@link JsonEvent#NEED_MORE_INPUT} if the parser needs more input.
+   * Provide more input to the feeder and call this method again to read the
+   * remaining elements.</li>
+   * <li>{@link JsonEvent#ERROR} if the JSON text contains a syntax error</li>
+   * <li>any other event if the array contains an element that is not a
+   * number. In this case, the event refers to this element (e.g.
+   * {@link JsonEvent#VALUE_STRING} or {@link JsonEvent#START_OBJECT}) and
+   * you can handle it as usual. Afterwards, continue with
+   * {@link #nextEvent()} or call this method again to read the next
+   * numeric elements.</li>
+   * </ul>
+   * @param sink the consumer that receives the elements
+   * @return the next event that does not represent a number
+   * @since 2.2.0
+   */
+  public int readDoubleArray(DoubleConsumer sink) {
+    // a number that is incomplete when the input runs out will be finished
+    // by scanNumber() even if scanNumbers is reset
+    boolean oldScanNumbers = scanNumbers;
+    scanNumbers = true;
+    try {
+      int event;
+      while ((event = nextEvent()) == JsonEvent.VALUE_INT ||
+          event == JsonEvent.VALUE_DOUBLE) {
+        sink.accept(getCurrentDouble());
+      }
+      return event;
+    } finally {
+      scanNumbers = oldScanNumbers;
+    }
+  }
+
+  /**
+   * Read the elements of an array of integers and pass them to the given
+   * consumer. This method works like {@link #readDoubleArray(DoubleConsumer)}
+   * but only accepts integer elements. It returns
+   * {@link JsonEvent#VALUE_DOUBLE} if it encounters a floating point number.
+   * @param sink the consumer that receives the elements
+   * @return the next event that does not represent an integer
+   * @throws NumberFormatException if an element does not fit into a long
+   * @since 2.2.0
+   */
+  public int readLongArray(LongConsumer sink) {
+    // a number that is incomplete when the input runs out will be finished
+    // by scanNumber() even if scanNumbers is reset
+    boolean oldScanNumbers = scanNumbers;
+    scanNumbers = true;
+    try {
+      int event;
+      while ((event = nextEvent()) == JsonEvent.VALUE_INT) {
+        sink.accept(getCurrentLong());
+      }
+      return event;
+    } finally {
+      scanNumbers = oldScanNumbers;
+    }
+  }
+
+  /**
+   * Call {@link #nextEvent()} repeatedly and pass each event to the given
+   * handler until the parser needs more input, reaches the end of the JSON
+   * text, encounters an error, or has processed the given maximum number of
+   * events. In the last case, the method returns
+   * {@link JsonEvent#BUDGET_EXHAUSTED} and the caller can continue parsing
+   * later, for example to let other tasks run on an event loop.
+   * @param handler the handler that receives the events
+   * @param maxEvents the maximum number of events to process
+   * @return {@link JsonEvent#NEED_MORE_INPUT}, {@link JsonEvent#EOF},
+   * {@link JsonEvent#ERROR}, or {@link JsonEvent#BUDGET_EXHAUSTED} (these
+   * events are not passed to the handler)
+   * @throws IllegalArgumentException if the maximum number of events is not
+   * greater than 0
+   * @since 2.2.0
+   */
+  public int nextEvents(IntConsumer handler, int maxEvents) {
+    return nextEvents(handler, maxEvents, Long.MAX_VALUE);
+  }
+
+  /**
+   * Call {@link #nextEvent()} repeatedly and pass each event to the given
+   * handler until the parser needs more input, reaches the end of the JSON
+   * text, encounters an error, has processed the given maximum number of
+   * events, or has spent the given amount of time. In the last two cases,
+   * the method returns {@link JsonEvent#BUDGET_EXHAUSTED} and the caller
+   * can continue parsing later, for example to let other tasks run on an
+   * event loop. The time includes the time spent in the handler. It is
+   * only checked every few events, so the budget may be exceeded slightly.
+   * @param handler the handler that receives the events
+   * @param maxEvents the maximum number of events to process
+   * @param budgetNanos the maximum time to spend in nanoseconds
+   * @return {@link JsonEvent#NEED_MORE_INPUT}, {@link JsonEvent#EOF},
+   * {@link JsonEvent#ERROR}, or {@link JsonEvent#BUDGET_EXHAUSTED} (these
+   * events are not passed to the handler)
+   * @throws IllegalArgumentException if the maximum number of events or the
+   * time budget is not greater than 0
+   * @since 2.2.0
+   */
+  public int nextEvents(IntConsumer handler, int maxEvents, long budgetNanos) {
+    if (maxEvents <= 0) {
+      throw new IllegalArgumentException("Maximum number of events must " +
+          "be greater than 0");
+    }
+    if (budgetNanos <= 0) {
+      throw new IllegalArgumentException("Time budget must be greater " +
+          "than 0");
+    }
+    long start = budgetNanos == Long.MAX_VALUE ? 0 : System.nanoTime();
+    for (int n = 0; n < maxEvents; ++n) {
+      int event = nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT || event == JsonEvent.EOF ||
+          event == JsonEvent.ERROR) {
+        return event;
+      }
+      handler.accept(event);
+      if ((n & (BUDGET_CHECK_INTERVAL - 1)) == BUDGET_CHECK_INTERVAL - 1 &&
+          budgetNanos != Long.MAX_VALUE &&
+          System.nanoTime() - start >= budgetNanos) {
+        return JsonEvent.BUDGET_EXHAUSTED;
+      }
+    }
+    return JsonEvent.BUDGET_EXHAUSTED;
   }
 
   /**
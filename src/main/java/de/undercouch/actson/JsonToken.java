@@ -0,0 +1,194 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.math.BigInteger;
+
+/**
+ * <p>An immutable JSON token consisting of an event and the value that
+ * belongs to it. Tokens can be used to pass the results of a
+ * {@link JsonParser} to other components (e.g. asynchronously).</p>
+ * <p>Tokens are cheap to create: events without values (such as
+ * {@link JsonEvent#START_OBJECT} or {@link JsonEvent#VALUE_NULL}) are
+ * represented by shared instances, and numbers are kept as primitive
+ * values. Strings are taken from {@link JsonParser#getCurrentString()}, so a
+ * {@link StringCache} registered with the parser avoids creating strings
+ * for repeated values.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public final class JsonToken {
+  /**
+   * Shared tokens for events without values, indexed by event
+   */
+  private static final JsonToken[] SHARED =
+      new JsonToken[JsonEvent.VALUE_BINARY + 1];
+
+  static {
+    for (int e : new int[] { JsonEvent.START_OBJECT, JsonEvent.END_OBJECT,
+        JsonEvent.START_ARRAY, JsonEvent.END_ARRAY, JsonEvent.VALUE_TRUE,
+        JsonEvent.VALUE_FALSE, JsonEvent.VALUE_NULL, JsonEvent.VALUE_BINARY }) {
+      SHARED[e] = new JsonToken(e, null, 0L, 0.0);
+    }
+  }
+
+  private final int event;
+  private final String string;
+  private final long longValue;
+  private final double doubleValue;
+
+  private JsonToken(int event, String string, long longValue,
+      double doubleValue) {
+    this.event = event;
+    this.string = string;
+    this.longValue = longValue;
+    this.doubleValue = doubleValue;
+  }
+
+  /**
+   * Create a token for the event the given parser has just returned
+   * @param parser the parser
+   * @param event the event returned by {@link JsonParser#nextEvent()}
+   * @return the token
+   * @throws IllegalArgumentException if the event does not represent a
+   * token (i.e. if it is {@link JsonEvent#NEED_MORE_INPUT},
+   * {@link JsonEvent#ERROR}, or {@link JsonEvent#EOF})
+   */
+  public static JsonToken of(JsonParser parser, int event) {
+    switch (event) {
+      case JsonEvent.FIELD_NAME:
+      case JsonEvent.VALUE_STRING:
+      case JsonEvent.VALUE_STRING_PART:
+        return new JsonToken(event, parser.getCurrentString(), 0L, 0.0);
+
+      case JsonEvent.VALUE_INT:
+        try {
+          long l = parser.getCurrentLong();
+          return new JsonToken(event, null, l, l);
+        } catch (NumberFormatException e) {
+          // keep the digits of integers that do not fit into a long
+          String s = parser.getCurrentString();
+          return new JsonToken(event, s, 0L, Double.parseDouble(s));
+        }
+
+      case JsonEvent.VALUE_DOUBLE:
+        return new JsonToken(event, null, 0L, parser.getCurrentDouble());
+
+      default:
+        if (event >= 0 && event < SHARED.length && SHARED[event] != null) {
+          return SHARED[event];
+        }
+        throw new IllegalArgumentException("Event does not represent a " +
+            "token: " + event);
+    }
+  }
+
+  /**
+   * @return the event (see {@link JsonEvent})
+   */
+  public int getEvent() {
+    return event;
+  }
+
+  /**
+   * @return the string value of a {@link JsonEvent#FIELD_NAME},
+   * {@link JsonEvent#VALUE_STRING}, or {@link JsonEvent#VALUE_STRING_PART}
+   * token, or <code>null</code> if the token does not have a string value
+   */
+  public String getString() {
+    return event == JsonEvent.VALUE_INT ? null : string;
+  }
+
+  /**
+   * @return the value of a {@link JsonEvent#VALUE_INT} token
+   * @throws NumberFormatException if the value does not fit into a long
+   * (use {@link #getBigInteger()} in this case)
+   */
+  public long getLong() {
+    if (string != null && event == JsonEvent.VALUE_INT) {
+      throw new NumberFormatException("Integer does not fit into a long: " +
+          string);
+    }
+    return longValue;
+  }
+
+  /**
+   * @return the value of a {@link JsonEvent#VALUE_INT} token of any size
+   */
+  public BigInteger getBigInteger() {
+    if (string != null && event == JsonEvent.VALUE_INT) {
+      return new BigInteger(string);
+    }
+    return BigInteger.valueOf(longValue);
+  }
+
+  /**
+   * @return the value of a {@link JsonEvent#VALUE_DOUBLE} or
+   * {@link JsonEvent#VALUE_INT} token as a double
+   */
+  public double getDouble() {
+    return doubleValue;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    JsonToken other = (JsonToken)o;
+    return event == other.event && longValue == other.longValue &&
+        Double.compare(doubleValue, other.doubleValue) == 0 &&
+        (string == null ? other.string == null : string.equals(other.string));
+  }
+
+  @Override
+  public int hashCode() {
+    int result = event;
+    result = 31 * result + (string == null ? 0 : string.hashCode());
+    result = 31 * result + Long.hashCode(longValue);
+    result = 31 * result + Double.hashCode(doubleValue);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    switch (event) {
+      case JsonEvent.FIELD_NAME:
+      case JsonEvent.VALUE_STRING:
+      case JsonEvent.VALUE_STRING_PART:
+        return "JsonToken(" + event + ", \"" + string + "\")";
+      case JsonEvent.VALUE_INT:
+        return "JsonToken(" + event + ", " + (string != null ? string :
+            String.valueOf(longValue)) + ")";
+      case JsonEvent.VALUE_DOUBLE:
+        return "JsonToken(" + event + ", " + doubleValue + ")";
+      default:
+        return "JsonToken(" + event + ")";
+    }
+  }
+}
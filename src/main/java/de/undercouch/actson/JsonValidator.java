@@ -0,0 +1,366 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.util.Arrays;
+
+import static de.undercouch.actson.JsonParser.AR;
+import static de.undercouch.actson.JsonParser.CO;
+import static de.undercouch.actson.JsonParser.E3;
+import static de.undercouch.actson.JsonParser.FR;
+import static de.undercouch.actson.JsonParser.GO;
+import static de.undercouch.actson.JsonParser.IN;
+import static de.undercouch.actson.JsonParser.KE;
+import static de.undercouch.actson.JsonParser.MODE_ARRAY;
+import static de.undercouch.actson.JsonParser.MODE_DONE;
+import static de.undercouch.actson.JsonParser.MODE_KEY;
+import static de.undercouch.actson.JsonParser.MODE_OBJECT;
+import static de.undercouch.actson.JsonParser.OB;
+import static de.undercouch.actson.JsonParser.OK;
+import static de.undercouch.actson.JsonParser.ST;
+import static de.undercouch.actson.JsonParser.VA;
+import static de.undercouch.actson.JsonParser.ZE;
+import static de.undercouch.actson.JsonParser.__;
+import static de.undercouch.actson.JsonParser.ascii_class;
+import static de.undercouch.actson.JsonParser.state_transition_table;
+
+/**
+ * <p>Checks if a UTF-8 encoded JSON text is well-formed without producing
+ * any events or collecting any values. The validator uses the same state
+ * transition table as {@link JsonParser} but processes whole chunks of
+ * bytes in a tight loop and validates UTF-8 sequences directly, without
+ * decoding them into characters.</p>
+ * <p>Feed the JSON text in one or more chunks and then call {@link #done()}
+ * to get the verdict. If the text is invalid, {@link #getErrorOffset()}
+ * returns the position of the first offending byte.</p>
+ * <pre>
+ * JsonValidator validator = new JsonValidator();
+ * boolean valid = validator.feed(bytes) &amp;&amp; validator.done();
+ * </pre>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JsonValidator {
+  /**
+   * The stack containing the current modes
+   */
+  private byte[] stack = new byte[32];
+
+  /**
+   * The top of the stack
+   */
+  private int top;
+
+  /**
+   * The maximum number of modes on the stack
+   */
+  private int depth = 2048;
+
+  /**
+   * The current state
+   */
+  private byte state;
+
+  /**
+   * The number of continuation bytes of the current UTF-8 sequence that
+   * have not been read yet
+   */
+  private int utf8Remaining;
+
+  /**
+   * The smallest value the next continuation byte may have
+   */
+  private int utf8Lower;
+
+  /**
+   * The largest value the next continuation byte may have
+   */
+  private int utf8Upper;
+
+  /**
+   * The number of bytes processed in previous calls to
+   * {@link #feed(byte[], int, int)}
+   */
+  private long position;
+
+  /**
+   * The offset of the first invalid byte or -1 if no error has been found
+   */
+  private long errorOffset;
+
+  /**
+   * Constructs a new validator
+   */
+  public JsonValidator() {
+    reset();
+  }
+
+  /**
+   * Set the maximum number of nested objects and arrays
+   * @param depth the maximum depth
+   */
+  public void setMaxDepth(int depth) {
+    this.depth = depth;
+  }
+
+  /**
+   * @return the maximum number of nested objects and arrays
+   */
+  public int getMaxDepth() {
+    return depth;
+  }
+
+  /**
+   * Reset the validator so it can check another JSON text
+   */
+  public void reset() {
+    top = 0;
+    stack[0] = MODE_DONE;
+    state = GO;
+    utf8Remaining = 0;
+    position = 0;
+    errorOffset = -1;
+  }
+
+  /**
+   * Validate the next chunk of the JSON text
+   * @param buf the chunk
+   * @return false if the JSON text is invalid
+   */
+  public boolean feed(byte[] buf) {
+    return feed(buf, 0, buf.length);
+  }
+
+  /**
+   * Validate the next chunk of the JSON text
+   * @param buf an array containing the chunk
+   * @param offset the position of the chunk in the array
+   * @param len the length of the chunk
+   * @return false if the JSON text is invalid
+   */
+  public boolean feed(byte[] buf, int offset, int len) {
+    if (errorOffset >= 0) {
+      return false;
+    }
+
+    byte[] classes = ascii_class;
+    byte[] table = state_transition_table;
+    byte s = state;
+    int remaining = utf8Remaining;
+    int lower = utf8Lower;
+    int upper = utf8Upper;
+
+    int end = offset + len;
+    int i = offset;
+    while (i < end) {
+      int b = buf[i] & 0xff;
+
+      if (remaining > 0) {
+        // continuation byte of a UTF-8 sequence
+        if (b < lower || b > upper) {
+          break;
+        }
+        lower = 0x80;
+        upper = 0xbf;
+        --remaining;
+        ++i;
+        continue;
+      }
+
+      if (s == ST && b >= 0x20 && b < 0x80 && b != '"' && b != '\\') {
+        // fast path for plain characters in strings
+        ++i;
+        continue;
+      }
+
+      if (b >= 0x80) {
+        // start of a UTF-8 sequence, only allowed in strings
+        if (s != ST) {
+          break;
+        }
+        lower = 0x80;
+        upper = 0xbf;
+        if (b >= 0xc2 && b <= 0xdf) {
+          remaining = 1;
+        } else if (b >= 0xe0 && b <= 0xef) {
+          remaining = 2;
+          if (b == 0xe0) {
+            // overlong encoding
+            lower = 0xa0;
+          } else if (b == 0xed) {
+            // surrogate
+            upper = 0x9f;
+          }
+        } else if (b >= 0xf0 && b <= 0xf4) {
+          remaining = 3;
+          if (b == 0xf0) {
+            // overlong encoding
+            lower = 0x90;
+          } else if (b == 0xf4) {
+            // larger than U+10FFFF
+            upper = 0x8f;
+          }
+        } else {
+          break;
+        }
+        ++i;
+        continue;
+      }
+
+      byte nextClass = classes[b];
+      if (nextClass <= __) {
+        break;
+      }
+      byte nextState = table[(s << 5) + nextClass];
+      if (nextState < 0) {
+        nextState = performAction(nextState);
+        if (nextState < 0) {
+          break;
+        }
+      }
+      s = nextState;
+      ++i;
+    }
+
+    state = s;
+    utf8Remaining = remaining;
+    utf8Lower = lower;
+    utf8Upper = upper;
+
+    if (i < end) {
+      errorOffset = position + (i - offset);
+      return false;
+    }
+    position += len;
+    return true;
+  }
+
+  /**
+   * Signal that the whole JSON text has been fed to the validator and
+   * get the verdict
+   * @return true if the JSON text is valid and complete
+   */
+  public boolean done() {
+    if (errorOffset >= 0) {
+      return false;
+    }
+    boolean complete = utf8Remaining == 0 && top == 0 &&
+        (state == OK || state == ZE || state == IN || state == FR || state == E3);
+    if (!complete) {
+      errorOffset = position;
+    }
+    return complete;
+  }
+
+  /**
+   * @return the offset of the first invalid byte (or the length of the
+   * JSON text if it is incomplete) or -1 if no error has been found so far
+   */
+  public long getErrorOffset() {
+    return errorOffset;
+  }
+
+  /**
+   * Perform an action of the state transition table
+   * @param action the action
+   * @return the next state or {@link JsonParser#__} if the action fails
+   */
+  private byte performAction(byte action) {
+    switch (action) {
+      // empty }
+      case -9:
+        return pop(MODE_KEY) ? OK : __;
+
+      // }
+      case -8:
+        return pop(MODE_OBJECT) ? OK : __;
+
+      // ]
+      case -7:
+        return pop(MODE_ARRAY) ? OK : __;
+
+      // {
+      case -6:
+        return push(MODE_KEY) ? OB : __;
+
+      // [
+      case -5:
+        return push(MODE_ARRAY) ? AR : __;
+
+      // "
+      case -4:
+        return stack[top] == MODE_KEY ? CO : OK;
+
+      // ,
+      case -3:
+        if (stack[top] == MODE_OBJECT) {
+          stack[top] = MODE_KEY;
+          return KE;
+        }
+        return stack[top] == MODE_ARRAY ? VA : __;
+
+      // :
+      case -2:
+        if (stack[top] != MODE_KEY) {
+          return __;
+        }
+        stack[top] = MODE_OBJECT;
+        return VA;
+
+      default:
+        return __;
+    }
+  }
+
+  /**
+   * Push a mode onto the stack
+   * @param mode the mode to push
+   * @return false if there is overflow
+   */
+  private boolean push(byte mode) {
+    if (top + 1 >= depth) {
+      return false;
+    }
+    ++top;
+    if (top >= stack.length) {
+      stack = Arrays.copyOf(stack, Math.min(stack.length * 2, depth));
+    }
+    stack[top] = mode;
+    return true;
+  }
+
+  /**
+   * Pop the stack, assuring that the current mode matches the expectation
+   * @param mode the expected mode
+   * @return false if there is underflow or if the modes mismatch
+   */
+  private boolean pop(byte mode) {
+    if (top <= 0 || stack[top] != mode) {
+      return false;
+    }
+    --top;
+    return true;
+  }
+}
@@ -0,0 +1,117 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A growable array of primitive <code>long</code> values. It can be passed
+ * to {@link JsonParser#readLongArray(LongConsumer)} to collect the elements
+ * of a JSON array without boxing them.
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class LongArrayBuilder implements LongConsumer {
+  /**
+   * The values
+   */
+  private long[] values;
+
+  /**
+   * The number of values in {@link #values}
+   */
+  private int size = 0;
+
+  /**
+   * Constructs a new builder with a default initial capacity
+   */
+  public LongArrayBuilder() {
+    this(16);
+  }
+
+  /**
+   * Constructs a new builder
+   * @param initialCapacity the initial capacity
+   */
+  public LongArrayBuilder(int initialCapacity) {
+    values = new long[initialCapacity];
+  }
+
+  @Override
+  public void accept(long value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, values.length * 2 + 2);
+    }
+    values[size++] = value;
+  }
+
+  /**
+   * @return the number of values in this array
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get a value from this array
+   * @param index the index of the value
+   * @return the value
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public long get(int index) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return values[index];
+  }
+
+  /**
+   * Replace a value in this array
+   * @param index the index of the value to replace
+   * @param value the new value
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public void set(int index, long value) {
+    if (index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    values[index] = value;
+  }
+
+  /**
+   * Remove all values from this array but keep its capacity
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @return a new array containing all values
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,162 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import de.undercouch.actson.buffer.Buffer;
+
+import java.util.Arrays;
+
+/**
+ * <p>A bounded cache for short strings. Register it with
+ * {@link JsonParser#setStringCache(StringCache)} to make the parser return
+ * shared instances for repeated field names and string values (e.g. status
+ * codes, country codes, or type names) instead of creating a new string
+ * each time.</p>
+ * <p>The cache is direct-mapped: each string can only be stored in one
+ * slot determined by its hash code, which the parser calculates while
+ * scanning the string. If another string is mapped to the same slot, it
+ * replaces the existing one. Lookups and evictions are therefore very
+ * cheap.</p>
+ * <p>Instances of this class are not thread-safe. Use one cache per
+ * parser, or at least per thread.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class StringCache {
+  /**
+   * The cached strings
+   */
+  private final String[] entries;
+
+  /**
+   * A mask to convert a hash code to a slot index
+   */
+  private final int mask;
+
+  /**
+   * The maximum length of strings to cache
+   */
+  private final int maxLength;
+
+  /**
+   * The number of lookups that returned a cached string
+   */
+  private long hits = 0L;
+
+  /**
+   * The number of lookups that did not find a cached string
+   */
+  private long misses = 0L;
+
+  /**
+   * Constructs a new cache with 1024 slots that caches strings with at most
+   * 32 characters
+   */
+  public StringCache() {
+    this(1024, 32);
+  }
+
+  /**
+   * Constructs a new cache
+   * @param size the number of slots (will be rounded up to the next power
+   * of two)
+   * @param maxLength the maximum length of strings to cache
+   * @throws IllegalArgumentException if the size is not positive or too large
+   */
+  public StringCache(int size, int maxLength) {
+    if (size <= 0 || size > (1 << 30)) {
+      throw new IllegalArgumentException("Invalid cache size: " + size);
+    }
+    int n = Integer.highestOneBit(size);
+    if (n < size) {
+      n <<= 1;
+    }
+    entries = new String[n];
+    mask = n - 1;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * @return the maximum length of strings to cache
+   */
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  /**
+   * @return the number of lookups that returned a cached string
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return the number of lookups that did not find a cached string
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the ratio of lookups that returned a cached string (between
+   * 0.0 and 1.0)
+   */
+  public double getHitRate() {
+    long total = hits + misses;
+    return total == 0 ? 0.0 : (double)hits / total;
+  }
+
+  /**
+   * Remove all strings from the cache and reset the hit and miss counters
+   */
+  public void clear() {
+    Arrays.fill(entries, null);
+    hits = 0L;
+    misses = 0L;
+  }
+
+  /**
+   * Get a cached string with the same contents as the given buffer or
+   * convert the buffer to a string and put it into the cache
+   * @param hash the hash code of the buffer's contents (calculated the
+   * same way as {@link String#hashCode()})
+   * @param length the number of characters in the buffer
+   * @param buffer the buffer
+   * @return the string
+   */
+  String get(int hash, int length, Buffer buffer) {
+    int i = (hash ^ (hash >>> 16)) & mask;
+    String s = entries[i];
+    if (s != null && s.length() == length && s.hashCode() == hash &&
+        buffer.contentEquals(s)) {
+      hits++;
+      return s;
+    }
+    misses++;
+    s = buffer.toString();
+    entries[i] = s;
+    return s;
+  }
+}
@@ -0,0 +1,139 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import de.undercouch.actson.FieldNameTable;
+import de.undercouch.actson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Binds JSON objects to instances of a Java class without creating an
+ * intermediate tree. The class can be a record or a class with a
+ * constructor without parameters and public setters or non-final fields.
+ * Properties can have primitive types, their wrappers, strings, enums,
+ * other bindable classes, or lists of these types.</p>
+ * <p>The binder inspects the class and all classes it refers to once when
+ * it is constructed. Objects are then created and populated through
+ * method handles, so there is no reflection on the hot path. Field names
+ * are resolved through a {@link FieldNameTable} containing the property
+ * names of all classes, so the parser does not have to create strings
+ * for them.</p>
+ * <p>A binder is immutable and can be shared between threads. Keep it in
+ * a static field and call {@link #newReader(JsonParser)} for every parser.</p>
+ * @param <T> the bound type
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class Binder<T> {
+  /**
+   * The bound type
+   */
+  private final Class<T> type;
+
+  /**
+   * The type descriptor of {@link #type}
+   */
+  private final ValueType valueType;
+
+  /**
+   * A table containing the property names of all mapped classes
+   */
+  private final FieldNameTable fieldNameTable;
+
+  /**
+   * Constructs a new binder
+   * @param type the class to bind JSON objects to
+   * @throws IllegalArgumentException if the class or one of the classes it
+   * refers to cannot be bound
+   */
+  public Binder(Class<T> type) {
+    this.type = type;
+
+    Map<Class<?>, ClassMapping> mappings = new LinkedHashMap<>();
+    valueType = ValueType.of(type, mappings);
+    if (valueType.kind != ValueType.OBJECT) {
+      throw new IllegalArgumentException("Not a bindable class: " + type.getName());
+    }
+
+    Map<String, Integer> ids = new HashMap<>();
+    List<String> names = new ArrayList<>();
+    for (ClassMapping m : mappings.values()) {
+      for (Property p : m.properties) {
+        if (!ids.containsKey(p.name)) {
+          ids.put(p.name, names.size());
+          names.add(p.name);
+        }
+      }
+    }
+    fieldNameTable = new FieldNameTable(names.toArray(new String[0]));
+
+    for (ClassMapping m : mappings.values()) {
+      m.propertiesByFieldId = new Property[names.size()];
+      for (Property p : m.properties) {
+        m.propertiesByFieldId[ids.get(p.name)] = p;
+      }
+    }
+  }
+
+  /**
+   * @return the bound type
+   */
+  public Class<T> getType() {
+    return type;
+  }
+
+  /**
+   * @return a table containing the property names of all bound classes
+   */
+  public FieldNameTable getFieldNameTable() {
+    return fieldNameTable;
+  }
+
+  /**
+   * Create a reader that binds objects from the given parser. The reader
+   * registers this binder's field name table with the parser and enables
+   * {@link JsonParser#setUnescapeStrings(boolean)}, so escaped field names
+   * are found in the table and bound strings are decoded.
+   * @param parser the parser
+   * @return the reader
+   * @throws IllegalStateException if the parser already has a different
+   * field name table
+   */
+  public BindingReader<T> newReader(JsonParser parser) {
+    FieldNameTable existing = parser.getFieldNameTable();
+    if (existing != null && existing != fieldNameTable) {
+      throw new IllegalStateException("The parser already has a field " +
+          "name table");
+    }
+    parser.setFieldNameTable(fieldNameTable);
+    parser.setUnescapeStrings(true);
+    return new BindingReader<>(parser, type, valueType);
+  }
+}
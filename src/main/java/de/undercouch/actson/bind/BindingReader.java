@@ -0,0 +1,509 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Reads JSON objects from a {@link JsonParser} and binds them to
+ * instances of a Java class. Create a reader with
+ * {@link Binder#newReader(JsonParser)}.</p>
+ * <p>Call {@link #read()} to bind the next object. The reader pulls events
+ * from the parser until the object is complete, so you can bind a single
+ * object or all elements of an array:</p>
+ * <pre>
+ * Binder&lt;Point&gt; binder = new Binder&lt;&gt;(Point.class);
+ * BindingReader&lt;Point&gt; reader = binder.newReader(parser);
+ * parser.nextEvent(); // START_ARRAY
+ * int event;
+ * while ((event = reader.read()) == JsonEvent.END_OBJECT) {
+ *   Point p = reader.getValue();
+ *   // ...
+ * }
+ * // event is now JsonEvent.END_ARRAY
+ * </pre>
+ * @param <T> the bound type
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class BindingReader<T> {
+  /**
+   * A marker for values that do not match their property type
+   */
+  private static final Object INVALID = new Object();
+
+  /**
+   * The parser to read from
+   */
+  private final JsonParser parser;
+
+  /**
+   * The bound type
+   */
+  private final Class<T> type;
+
+  /**
+   * The type descriptor of {@link #type}
+   */
+  private final ValueType valueType;
+
+  /**
+   * The objects and lists currently being populated
+   */
+  private Frame[] frames = new Frame[8];
+
+  /**
+   * The number of elements in {@link #frames}
+   */
+  private int depth = 0;
+
+  /**
+   * The depth of the nested value that is currently being skipped
+   */
+  private int skipDepth = 0;
+
+  /**
+   * The last object that has been bound
+   */
+  private T value;
+
+  /**
+   * A message describing the last error (may be <code>null</code>)
+   */
+  private String errorMessage;
+
+  BindingReader(JsonParser parser, Class<T> type, ValueType valueType) {
+    this.parser = parser;
+    this.type = type;
+    this.valueType = valueType;
+  }
+
+  /**
+   * <p>Bind the next object. The method returns one of the following
+   * events:</p>
+   * <ul>
+   * <li>{@link JsonEvent#END_OBJECT} if an object has been bound. Call
+   * {@link #getValue()} to get it.</li>
+   * <li>{@link JsonEvent#NEED_MORE_INPUT} if the parser needs more input.
+   * Provide more input to the feeder and call this method again.</li>
+   * <li>{@link JsonEvent#ERROR} if the JSON text contains a syntax error or
+   * if a value does not match the type of its property. Call
+   * {@link #getErrorMessage()} to get details.</li>
+   * <li>any other event if the next value is not an object (e.g.
+   * {@link JsonEvent#END_ARRAY} at the end of an array or
+   * {@link JsonEvent#EOF})</li>
+   * </ul>
+   * <p>Fields that do not belong to a property are skipped. Properties
+   * missing in the JSON object keep their default value.</p>
+   * @return the event
+   * @throws NumberFormatException if a number does not fit into its property
+   * @throws IllegalStateException if an object could not be created or if
+   * a setter has thrown a checked exception
+   */
+  public int read() {
+    if (errorMessage != null) {
+      return JsonEvent.ERROR;
+    }
+
+    while (true) {
+      int event = parser.nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        return event;
+      }
+      if (event == JsonEvent.ERROR) {
+        return fail("Syntax error at character " +
+            parser.getParsedCharacterCount());
+      }
+
+      if (skipDepth > 0) {
+        if (event == JsonEvent.START_OBJECT || event == JsonEvent.START_ARRAY) {
+          ++skipDepth;
+        } else if (event == JsonEvent.END_OBJECT || event == JsonEvent.END_ARRAY) {
+          --skipDepth;
+        }
+        continue;
+      }
+
+      if (depth == 0) {
+        if (event != JsonEvent.START_OBJECT) {
+          return event;
+        }
+        value = null;
+        push(valueType);
+        continue;
+      }
+
+      Frame f = frames[depth - 1];
+      if (f.type.kind == ValueType.OBJECT) {
+        if (event == JsonEvent.END_OBJECT) {
+          Object o = f.record ? construct(f) : f.instance;
+          if (pop(o)) {
+            value = type.cast(o);
+            return event;
+          }
+        } else if (event == JsonEvent.FIELD_NAME) {
+          int id = parser.getCurrentFieldId();
+          f.property = id < 0 ? null : f.type.mapping.propertiesByFieldId[id];
+        } else if (f.property == null) {
+          if (event == JsonEvent.START_OBJECT || event == JsonEvent.START_ARRAY) {
+            skipDepth = 1;
+          }
+        } else if (!readValue(f, f.property.type, event)) {
+          return fail("Unexpected value for property \"" + f.property.name +
+              "\" of " + f.type.rawType.getName());
+        }
+      } else {
+        if (event == JsonEvent.END_ARRAY) {
+          pop(f.list);
+        } else if (!readValue(f, f.type.elementType, event)) {
+          return fail("Unexpected list element");
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the last object that has been bound
+   */
+  public T getValue() {
+    return value;
+  }
+
+  /**
+   * @return a message describing why {@link #read()} has returned
+   * {@link JsonEvent#ERROR} or <code>null</code> if there was no error
+   */
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * Put the reader into the error state
+   * @param message a message describing the error
+   * @return {@link JsonEvent#ERROR}
+   */
+  private int fail(String message) {
+    errorMessage = message;
+    return JsonEvent.ERROR;
+  }
+
+  /**
+   * Handle an event that represents a value of a property or a list element
+   * @param f the current frame
+   * @param vt the expected type of the value
+   * @param event the event
+   * @return false if the value does not match the expected type
+   */
+  private boolean readValue(Frame f, ValueType vt, int event) {
+    if (event == JsonEvent.START_OBJECT) {
+      if (vt.kind != ValueType.OBJECT) {
+        return false;
+      }
+      push(vt);
+      return true;
+    }
+    if (event == JsonEvent.START_ARRAY) {
+      if (vt.kind != ValueType.LIST) {
+        return false;
+      }
+      push(vt);
+      return true;
+    }
+
+    if (vt.primitive && f.instance != null) {
+      // avoid boxing
+      try {
+        return setPrimitive(f.instance, f.property, event);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+
+    Object v = convert(vt, event);
+    if (v == INVALID) {
+      return false;
+    }
+    assign(f, v);
+    return true;
+  }
+
+  /**
+   * Convert the current value of the parser to the given type
+   * @param vt the type
+   * @param event the event that represents the value
+   * @return the converted value or {@link #INVALID} if the value does not
+   * match the type
+   */
+  private Object convert(ValueType vt, int event) {
+    if (event == JsonEvent.VALUE_NULL) {
+      return vt.primitive ? INVALID : null;
+    }
+
+    switch (vt.kind) {
+      case ValueType.BOOLEAN:
+        if (event == JsonEvent.VALUE_TRUE) {
+          return Boolean.TRUE;
+        } else if (event == JsonEvent.VALUE_FALSE) {
+          return Boolean.FALSE;
+        }
+        break;
+
+      case ValueType.INT:
+        if (event == JsonEvent.VALUE_INT) {
+          return parser.getCurrentInt();
+        }
+        break;
+
+      case ValueType.LONG:
+        if (event == JsonEvent.VALUE_INT) {
+          return parser.getCurrentLong();
+        }
+        break;
+
+      case ValueType.FLOAT:
+        if (event == JsonEvent.VALUE_INT || event == JsonEvent.VALUE_DOUBLE) {
+          return (float)parser.getCurrentDouble();
+        }
+        break;
+
+      case ValueType.DOUBLE:
+        if (event == JsonEvent.VALUE_INT || event == JsonEvent.VALUE_DOUBLE) {
+          return parser.getCurrentDouble();
+        }
+        break;
+
+      case ValueType.STRING:
+        if (event == JsonEvent.VALUE_STRING) {
+          return parser.getCurrentString();
+        }
+        break;
+
+      case ValueType.ENUM:
+        if (event == JsonEvent.VALUE_STRING) {
+          Object c = vt.enumConstants.get(parser.getCurrentString());
+          if (c != null) {
+            return c;
+          }
+        }
+        break;
+
+      default:
+        break;
+    }
+
+    return INVALID;
+  }
+
+  /**
+   * Set a property with a primitive type through its setter
+   * @param instance the object whose property should be set
+   * @param p the property
+   * @param event the event that represents the value
+   * @return false if the value does not match the property's type
+   * @throws Throwable if the setter throws
+   */
+  private boolean setPrimitive(Object instance, Property p, int event)
+      throws Throwable {
+    switch (p.type.kind) {
+      case ValueType.BOOLEAN:
+        if (event != JsonEvent.VALUE_TRUE && event != JsonEvent.VALUE_FALSE) {
+          return false;
+        }
+        p.setter.invokeExact(instance, event == JsonEvent.VALUE_TRUE);
+        return true;
+
+      case ValueType.INT:
+        if (event != JsonEvent.VALUE_INT) {
+          return false;
+        }
+        p.setter.invokeExact(instance, parser.getCurrentInt());
+        return true;
+
+      case ValueType.LONG:
+        if (event != JsonEvent.VALUE_INT) {
+          return false;
+        }
+        p.setter.invokeExact(instance, parser.getCurrentLong());
+        return true;
+
+      case ValueType.FLOAT:
+        if (event != JsonEvent.VALUE_INT && event != JsonEvent.VALUE_DOUBLE) {
+          return false;
+        }
+        p.setter.invokeExact(instance, (float)parser.getCurrentDouble());
+        return true;
+
+      case ValueType.DOUBLE:
+        if (event != JsonEvent.VALUE_INT && event != JsonEvent.VALUE_DOUBLE) {
+          return false;
+        }
+        p.setter.invokeExact(instance, parser.getCurrentDouble());
+        return true;
+
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Assign a value to the current property or add it to the current list
+   * @param f the current frame
+   * @param v the value
+   */
+  private void assign(Frame f, Object v) {
+    if (f.list != null) {
+      f.list.add(v);
+    } else if (f.record) {
+      f.args[f.property.index] = v;
+    } else {
+      try {
+        f.property.setter.invokeExact(f.instance, v);
+      } catch (Throwable t) {
+        throw rethrow(t);
+      }
+    }
+  }
+
+  /**
+   * Push a new object or list onto the stack
+   * @param vt the type of the object or list
+   */
+  private void push(ValueType vt) {
+    if (depth == frames.length) {
+      frames = Arrays.copyOf(frames, frames.length * 2);
+    }
+    Frame f = frames[depth];
+    if (f == null) {
+      f = new Frame();
+      frames[depth] = f;
+    }
+
+    f.type = vt;
+    f.property = null;
+    if (vt.kind == ValueType.LIST) {
+      f.list = new ArrayList<>();
+    } else {
+      ClassMapping m = vt.mapping;
+      f.record = m.record;
+      if (m.record) {
+        f.args = m.defaults.clone();
+      } else {
+        try {
+          f.instance = (Object)m.constructor.invokeExact();
+        } catch (Throwable t) {
+          throw rethrow(t);
+        }
+      }
+    }
+    ++depth;
+  }
+
+  /**
+   * Remove the top frame from the stack and assign its value to the
+   * frame below
+   * @param v the value of the top frame
+   * @return true if the stack is empty now
+   */
+  private boolean pop(Object v) {
+    Frame f = frames[--depth];
+    f.instance = null;
+    f.args = null;
+    f.list = null;
+    f.record = false;
+    if (depth == 0) {
+      return true;
+    }
+    assign(frames[depth - 1], v);
+    return false;
+  }
+
+  /**
+   * Create a record from the values collected in the given frame
+   * @param f the frame
+   * @return the record
+   */
+  private static Object construct(Frame f) {
+    try {
+      return (Object)f.type.mapping.constructor.invokeExact(f.args);
+    } catch (Throwable t) {
+      throw rethrow(t);
+    }
+  }
+
+  /**
+   * Rethrow an unchecked exception or wrap a checked one
+   * @param t the exception
+   * @return never returns
+   */
+  private static RuntimeException rethrow(Throwable t) {
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException)t;
+    }
+    if (t instanceof Error) {
+      throw (Error)t;
+    }
+    throw new IllegalStateException("Could not bind object", t);
+  }
+
+  /**
+   * An object or list currently being populated
+   */
+  private static class Frame {
+    /**
+     * The type of the object or list
+     */
+    ValueType type;
+
+    /**
+     * The property whose value is read next (only for objects)
+     */
+    Property property;
+
+    /**
+     * The object (only for classes that are not records)
+     */
+    Object instance;
+
+    /**
+     * True if the object is a record
+     */
+    boolean record;
+
+    /**
+     * The values of the record components (only for records)
+     */
+    Object[] args;
+
+    /**
+     * The list (only for lists)
+     */
+    List<Object> list;
+  }
+}
@@ -0,0 +1,216 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Describes how JSON objects are bound to a Java class. The mapping is
+ * created once per class through reflection. Afterwards, objects are
+ * created and populated through method handles.</p>
+ * <p>Records are created through their canonical constructor. Other
+ * classes need a constructor without parameters. Their properties are set
+ * through public setters or non-final instance fields.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+class ClassMapping {
+  /**
+   * The mapped class
+   */
+  final Class<?> type;
+
+  /**
+   * True if the class is a record
+   */
+  boolean record;
+
+  /**
+   * A handle that creates instances of the class. Its type is
+   * <code>(Object[])Object</code> for records (the array contains the
+   * values of the record components) and <code>()Object</code> otherwise.
+   */
+  MethodHandle constructor;
+
+  /**
+   * The class's properties
+   */
+  Property[] properties;
+
+  /**
+   * The default values of the record components
+   */
+  Object[] defaults;
+
+  /**
+   * Maps IDs from the binder's field name table to properties. The array
+   * contains <code>null</code> for IDs that do not refer to a property of
+   * this class.
+   */
+  Property[] propertiesByFieldId;
+
+  ClassMapping(Class<?> type) {
+    this.type = type;
+  }
+
+  /**
+   * Discover the class's properties
+   * @param mappings the class mappings created so far
+   * @throws IllegalArgumentException if the class cannot be bound
+   */
+  void init(Map<Class<?>, ClassMapping> mappings) {
+    try {
+      Class<?> superclass = type.getSuperclass();
+      if (superclass != null && superclass.getName().equals("java.lang.Record")) {
+        initRecord(mappings);
+      } else {
+        initBean(mappings);
+      }
+    } catch (ReflectiveOperationException | SecurityException e) {
+      throw new IllegalArgumentException("Could not bind class " +
+          type.getName(), e);
+    }
+  }
+
+  /**
+   * Discover the components of a record. Records are accessed through
+   * reflection so this library can still be compiled for Java 8.
+   * @param mappings the class mappings created so far
+   * @throws ReflectiveOperationException if the record could not be
+   * inspected
+   */
+  private void initRecord(Map<Class<?>, ClassMapping> mappings)
+      throws ReflectiveOperationException {
+    record = true;
+
+    Object[] components = (Object[])Class.class
+        .getMethod("getRecordComponents").invoke(type);
+    Class<?> componentClass = Class.forName("java.lang.reflect.RecordComponent");
+    Method getName = componentClass.getMethod("getName");
+    Method getType = componentClass.getMethod("getType");
+    Method getGenericType = componentClass.getMethod("getGenericType");
+
+    Class<?>[] parameterTypes = new Class<?>[components.length];
+    properties = new Property[components.length];
+    defaults = new Object[components.length];
+    for (int i = 0; i < components.length; ++i) {
+      parameterTypes[i] = (Class<?>)getType.invoke(components[i]);
+      ValueType vt = ValueType.of((Type)getGenericType.invoke(components[i]),
+          mappings);
+      properties[i] = new Property((String)getName.invoke(components[i]),
+          vt, null, i);
+      defaults[i] = vt.defaultValue();
+    }
+
+    Constructor<?> c = type.getDeclaredConstructor(parameterTypes);
+    c.setAccessible(true);
+    constructor = MethodHandles.lookup().unreflectConstructor(c)
+        .asSpreader(Object[].class, components.length)
+        .asType(MethodType.methodType(Object.class, Object[].class));
+  }
+
+  /**
+   * Discover the setters and fields of a class
+   * @param mappings the class mappings created so far
+   * @throws ReflectiveOperationException if the class could not be inspected
+   */
+  private void initBean(Map<Class<?>, ClassMapping> mappings)
+      throws ReflectiveOperationException {
+    if (Modifier.isAbstract(type.getModifiers())) {
+      throw new IllegalArgumentException("Cannot bind abstract class " +
+          type.getName());
+    }
+
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    Constructor<?> c = type.getDeclaredConstructor();
+    c.setAccessible(true);
+    constructor = lookup.unreflectConstructor(c)
+        .asType(MethodType.methodType(Object.class));
+
+    Map<String, Property> result = new LinkedHashMap<>();
+
+    // collect fields from superclasses first so they can be overridden
+    List<Class<?>> hierarchy = new ArrayList<>();
+    for (Class<?> t = type; t != null && t != Object.class; t = t.getSuperclass()) {
+      hierarchy.add(0, t);
+    }
+    for (Class<?> t : hierarchy) {
+      for (Field f : t.getDeclaredFields()) {
+        int m = f.getModifiers();
+        if (Modifier.isStatic(m) || Modifier.isFinal(m) ||
+            Modifier.isTransient(m) || f.isSynthetic()) {
+          continue;
+        }
+        f.setAccessible(true);
+        ValueType vt = ValueType.of(f.getGenericType(), mappings);
+        result.put(f.getName(), new Property(f.getName(), vt,
+            adaptSetter(lookup.unreflectSetter(f), vt), -1));
+      }
+    }
+
+    // setters take precedence over fields
+    for (Method m : type.getMethods()) {
+      String name = m.getName();
+      if (Modifier.isStatic(m.getModifiers()) || m.getParameterCount() != 1 ||
+          name.length() < 4 || !name.startsWith("set") ||
+          !Character.isUpperCase(name.charAt(3))) {
+        continue;
+      }
+      String propertyName = Character.toLowerCase(name.charAt(3)) +
+          name.substring(4);
+      m.setAccessible(true);
+      ValueType vt = ValueType.of(m.getGenericParameterTypes()[0], mappings);
+      result.put(propertyName, new Property(propertyName, vt,
+          adaptSetter(lookup.unreflect(m), vt), -1));
+    }
+
+    properties = result.values().toArray(new Property[0]);
+  }
+
+  /**
+   * Adapt the type of a setter handle to <code>(Object, T)void</code>, where
+   * <code>T</code> is the primitive type of the property or
+   * <code>Object</code>
+   * @param setter the setter handle
+   * @param vt the property's type
+   * @return the adapted handle
+   */
+  private static MethodHandle adaptSetter(MethodHandle setter, ValueType vt) {
+    Class<?> valueType = vt.primitive ? vt.rawType : Object.class;
+    return setter.asType(MethodType.methodType(void.class, Object.class,
+        valueType));
+  }
+}
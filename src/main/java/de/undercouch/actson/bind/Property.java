@@ -0,0 +1,64 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A property of a bound class
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+class Property {
+  /**
+   * The property name (i.e. the JSON field name)
+   */
+  final String name;
+
+  /**
+   * The property's type
+   */
+  final ValueType type;
+
+  /**
+   * A handle that sets the property of an object. The handle's type is
+   * <code>(Object, T)void</code>, where <code>T</code> is the primitive
+   * type of the property or <code>Object</code>. <code>null</code> if the
+   * property is a record component.
+   */
+  final MethodHandle setter;
+
+  /**
+   * The index of the record component or -1 if the property has a setter
+   */
+  final int index;
+
+  Property(String name, ValueType type, MethodHandle setter, int index) {
+    this.name = name;
+    this.type = type;
+    this.setter = setter;
+    this.index = index;
+  }
+}
@@ -0,0 +1,168 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the Java type of a bound value
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+class ValueType {
+  static final int BOOLEAN = 0;
+  static final int INT = 1;
+  static final int LONG = 2;
+  static final int FLOAT = 3;
+  static final int DOUBLE = 4;
+  static final int STRING = 5;
+  static final int ENUM = 6;
+  static final int OBJECT = 7;
+  static final int LIST = 8;
+
+  /**
+   * The kind of the type (one of the constants above)
+   */
+  final int kind;
+
+  /**
+   * The raw Java class
+   */
+  final Class<?> rawType;
+
+  /**
+   * True if the type is a primitive type that cannot be <code>null</code>
+   */
+  final boolean primitive;
+
+  /**
+   * The enum constants by name if the type is an enum
+   */
+  final Map<String, Object> enumConstants;
+
+  /**
+   * The element type if the type is a list
+   */
+  ValueType elementType;
+
+  /**
+   * The mapping of the class if the type is an object
+   */
+  ClassMapping mapping;
+
+  private ValueType(int kind, Class<?> rawType, Map<String, Object> enumConstants) {
+    this.kind = kind;
+    this.rawType = rawType;
+    this.primitive = rawType.isPrimitive();
+    this.enumConstants = enumConstants;
+  }
+
+  /**
+   * Create a type descriptor for a Java type
+   * @param type the Java type
+   * @param mappings the class mappings created so far (used to resolve
+   * recursive types)
+   * @return the type descriptor
+   * @throws IllegalArgumentException if the type is not supported
+   */
+  static ValueType of(Type type, Map<Class<?>, ClassMapping> mappings) {
+    if (type instanceof ParameterizedType) {
+      ParameterizedType pt = (ParameterizedType)type;
+      Type raw = pt.getRawType();
+      if (raw == List.class) {
+        ValueType result = new ValueType(LIST, List.class, null);
+        result.elementType = of(pt.getActualTypeArguments()[0], mappings);
+        return result;
+      }
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    if (!(type instanceof Class)) {
+      throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    Class<?> c = (Class<?>)type;
+    if (c == boolean.class || c == Boolean.class) {
+      return new ValueType(BOOLEAN, c, null);
+    } else if (c == int.class || c == Integer.class) {
+      return new ValueType(INT, c, null);
+    } else if (c == long.class || c == Long.class) {
+      return new ValueType(LONG, c, null);
+    } else if (c == float.class || c == Float.class) {
+      return new ValueType(FLOAT, c, null);
+    } else if (c == double.class || c == Double.class) {
+      return new ValueType(DOUBLE, c, null);
+    } else if (c == String.class) {
+      return new ValueType(STRING, c, null);
+    } else if (c.isEnum()) {
+      Map<String, Object> constants = new HashMap<>();
+      for (Object o : c.getEnumConstants()) {
+        constants.put(((Enum<?>)o).name(), o);
+      }
+      return new ValueType(ENUM, c, constants);
+    } else if (c == List.class) {
+      throw new IllegalArgumentException("Missing element type of list");
+    } else if (c.isPrimitive() || c.isArray() || c.isInterface() ||
+        c.getName().startsWith("java.")) {
+      throw new IllegalArgumentException("Unsupported type: " + c.getName());
+    }
+
+    ValueType result = new ValueType(OBJECT, c, null);
+    ClassMapping mapping = mappings.get(c);
+    if (mapping == null) {
+      mapping = new ClassMapping(c);
+      mappings.put(c, mapping);
+      mapping.init(mappings);
+    }
+    result.mapping = mapping;
+    return result;
+  }
+
+  /**
+   * @return the default value of this type (<code>null</code> for
+   * non-primitive types)
+   */
+  Object defaultValue() {
+    if (!primitive) {
+      return null;
+    }
+    switch (kind) {
+      case BOOLEAN:
+        return Boolean.FALSE;
+      case INT:
+        return 0;
+      case LONG:
+        return 0L;
+      case FLOAT:
+        return 0f;
+      default:
+        return 0.0;
+    }
+  }
+}
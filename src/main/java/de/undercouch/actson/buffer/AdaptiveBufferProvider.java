@@ -0,0 +1,180 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.buffer;
+
+/**
+ * <p>A buffer provider that, like {@link DefaultBufferProvider}, always
+ * reuses the same {@link DefaultBuffer} but releases its memory again if it
+ * has become oversized for the values parsed recently.</p>
+ * <p>The provider observes the length of each value in windows of a given
+ * number of values. At the end of each window, it compares the capacity of
+ * the buffer with the largest value of the window. If the capacity exceeds
+ * this value by more than a given factor, the buffer is replaced by a smaller
+ * one. This way, a single very large value does not permanently inflate the
+ * memory footprint of a long-lived parser.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class AdaptiveBufferProvider implements BufferProvider {
+  /**
+   * The capacity of new buffers. Buffers are never shrunk below this value.
+   */
+  private final int minCapacity;
+
+  /**
+   * The number of values after which the provider decides whether the
+   * buffer should be shrunk
+   */
+  private final int windowSize;
+
+  /**
+   * The buffer will be shrunk if its capacity is larger than the largest
+   * value in the current window multiplied by this factor
+   */
+  private final int shrinkFactor;
+
+  /**
+   * The buffer that is currently being reused
+   */
+  private DefaultBuffer currentValue;
+
+  /**
+   * The number of values observed in the current window
+   */
+  private int windowCount = 0;
+
+  /**
+   * The length of the largest value in the current window
+   */
+  private int windowMax = 0;
+
+  /**
+   * The length of the largest value ever observed
+   */
+  private int highWaterMark = 0;
+
+  /**
+   * The number of times {@link #newBuffer()} has been called
+   */
+  private long bufferCount = 0L;
+
+  /**
+   * The number of times the buffer has been shrunk
+   */
+  private long shrinkCount = 0L;
+
+  /**
+   * Constructs a new buffer provider with a minimum capacity of 128
+   * characters, a window size of 64 values, and a shrink factor of 4
+   */
+  public AdaptiveBufferProvider() {
+    this(128, 64, 4);
+  }
+
+  /**
+   * Constructs a new buffer provider
+   * @param minCapacity the initial capacity of the buffer. The buffer will
+   * never be shrunk below this value.
+   * @param windowSize the number of values after which the provider decides
+   * whether the buffer should be shrunk
+   * @param shrinkFactor the buffer will be shrunk if its capacity is larger
+   * than the largest value in the last window multiplied by this factor
+   * @throws IllegalArgumentException if one of the parameters is not positive
+   * or if the shrink factor is less than 2
+   */
+  public AdaptiveBufferProvider(int minCapacity, int windowSize,
+      int shrinkFactor) {
+    if (minCapacity <= 0) {
+      throw new IllegalArgumentException("Minimum capacity must be positive");
+    }
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("Window size must be positive");
+    }
+    if (shrinkFactor < 2) {
+      throw new IllegalArgumentException("Shrink factor must be at least 2");
+    }
+    this.minCapacity = minCapacity;
+    this.windowSize = windowSize;
+    this.shrinkFactor = shrinkFactor;
+    this.currentValue = new DefaultBuffer(minCapacity);
+  }
+
+  @Override
+  public Buffer newBuffer() {
+    if (bufferCount > 0) {
+      // record the length of the value that was previously collected
+      int length = currentValue.length();
+      if (length > windowMax) {
+        windowMax = length;
+        if (length > highWaterMark) {
+          highWaterMark = length;
+        }
+      }
+
+      if (++windowCount == windowSize) {
+        int target = Math.max(minCapacity, windowMax);
+        if (currentValue.capacity() > target &&
+            currentValue.capacity() / shrinkFactor > windowMax) {
+          currentValue = new DefaultBuffer(target);
+          shrinkCount++;
+        }
+        windowCount = 0;
+        windowMax = 0;
+      }
+    }
+
+    bufferCount++;
+    currentValue.setLength(0);
+    return currentValue;
+  }
+
+  /**
+   * @return the length of the largest value the provider has observed so far
+   */
+  public int getHighWaterMark() {
+    return highWaterMark;
+  }
+
+  /**
+   * @return the current capacity of the reused buffer
+   */
+  public int getCapacity() {
+    return currentValue.capacity();
+  }
+
+  /**
+   * @return the number of buffers requested from this provider so far
+   */
+  public long getBufferCount() {
+    return bufferCount;
+  }
+
+  /**
+   * @return the number of times the buffer has been shrunk
+   */
+  public long getShrinkCount() {
+    return shrinkCount;
+  }
+}
@@ -23,6 +23,8 @@
 
 package de.undercouch.actson.buffer;
 
+import java.util.function.IntConsumer;
+
 /**
  * A buffer that collects characters and converts them to a string
  * @author Michel Kraemer
@@ -36,6 +38,67 @@ public interface Buffer {
    */
   Buffer append(char c);
 
+  /**
+   * Append a range of characters from an array to the buffer. The default
+   * implementation calls {@link #append(char)} for each character.
+   * Implementations should override this method and copy the characters in
+   * bulk.
+   * @param src the array containing the characters to append
+   * @param offset the index of the first character to append
+   * @param len the number of characters to append
+   * @return this buffer
+   * @since 2.2.0
+   */
+  default Buffer append(char[] src, int offset, int len) {
+    for (int i = offset; i < offset + len; ++i) {
+      append(src[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Append all characters of a character sequence to the buffer. The default
+   * implementation calls {@link #append(char)} for each character.
+   * @param s the characters to append
+   * @return this buffer
+   * @since 2.2.0
+   */
+  default Buffer append(CharSequence s) {
+    for (int i = 0; i < s.length(); ++i) {
+      append(s.charAt(i));
+    }
+    return this;
+  }
+
+  /**
+   * Compare the buffer contents with a character sequence. The default
+   * implementation converts the buffer to a string. Implementations should
+   * override this method and compare the characters without creating a
+   * string.
+   * @param cs the character sequence to compare with
+   * @return true if the buffer contains exactly the same characters as the
+   * given sequence
+   * @since 2.2.0
+   */
+  default boolean contentEquals(CharSequence cs) {
+    return toString().contentEquals(cs);
+  }
+
+  /**
+   * Register a listener that will be called with the new capacity of the
+   * buffer whenever the buffer had to grow its internal storage. The parser
+   * uses this to report growth to its
+   * {@link de.undercouch.actson.metrics.JsonMetrics}. The default
+   * implementation ignores the listener, so buffers that do not override
+   * this method never report growth.
+   * @param listener the listener or <code>null</code> if growth should not
+   * be reported
+   * @since 2.2.0
+   */
+  default void setGrowthListener(IntConsumer listener) {
+    // do nothing by default
+  }
+
   /**
    * Convert the buffer contents to a string
    * @return a string representation of the buffer contents
@@ -23,6 +23,8 @@
 
 package de.undercouch.actson.buffer;
 
+import java.util.function.IntConsumer;
+
 /**
  * A default implementation of a buffer that uses a {@link StringBuilder}
  * internally to collect characters.
@@ -30,18 +32,111 @@ package de.undercouch.actson.buffer;
  * @since 2.1.0
  */
 public class DefaultBuffer implements Buffer {
-  private final StringBuilder value = new StringBuilder(128);
+  private final StringBuilder value;
+
+  /**
+   * Will be called when {@link #value} had to grow (may be
+   * <code>null</code>)
+   */
+  private IntConsumer growthListener;
+
+  /**
+   * Constructs a new buffer with a default initial capacity
+   */
+  public DefaultBuffer() {
+    this(128);
+  }
+
+  /**
+   * Constructs a new buffer
+   * @param initialCapacity the initial capacity of the buffer
+   * @since 2.2.0
+   */
+  public DefaultBuffer(int initialCapacity) {
+    value = new StringBuilder(initialCapacity);
+  }
 
   @Override
   public DefaultBuffer append(char c) {
+    boolean grows = willGrow(1);
     value.append(c);
+    if (grows) {
+      growthListener.accept(value.capacity());
+    }
+    return this;
+  }
+
+  @Override
+  public DefaultBuffer append(char[] src, int offset, int len) {
+    boolean grows = willGrow(len);
+    value.append(src, offset, len);
+    if (grows) {
+      growthListener.accept(value.capacity());
+    }
+    return this;
+  }
+
+  @Override
+  public DefaultBuffer append(CharSequence s) {
+    boolean grows = willGrow(s.length());
+    value.append(s);
+    if (grows) {
+      growthListener.accept(value.capacity());
+    }
     return this;
   }
 
+  /**
+   * Check if appending the given number of characters will make
+   * {@link #value} grow and if this should be reported
+   * @param len the number of characters to append
+   * @return true if the growth listener has to be called after appending
+   */
+  private boolean willGrow(int len) {
+    return growthListener != null &&
+        value.capacity() - value.length() < len;
+  }
+
+  @Override
+  public void setGrowthListener(IntConsumer listener) {
+    growthListener = listener;
+  }
+
   public void setLength(int newLength) {
     value.setLength(newLength);
   }
 
+  /**
+   * @return the number of characters currently in the buffer
+   * @since 2.2.0
+   */
+  public int length() {
+    return value.length();
+  }
+
+  /**
+   * @return the number of characters the buffer can hold without having to
+   * grow its internal storage
+   * @since 2.2.0
+   */
+  public int capacity() {
+    return value.capacity();
+  }
+
+  @Override
+  public boolean contentEquals(CharSequence cs) {
+    int len = value.length();
+    if (cs.length() != len) {
+      return false;
+    }
+    for (int i = 0; i < len; ++i) {
+      if (value.charAt(i) != cs.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   public String toString() {
     return value.toString();
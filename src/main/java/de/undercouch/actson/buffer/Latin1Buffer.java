@@ -0,0 +1,238 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>A buffer that stores characters as bytes as long as they are in the
+ * Latin-1 range (i.e. between <code>U+0000</code> and <code>U+00FF</code>)
+ * and only switches to a <code>char</code> array as soon as a character
+ * outside this range is appended.</p>
+ * <p>Most keys and values in typical JSON texts are pure ASCII. For them,
+ * this buffer requires only half the memory of a {@link DefaultBuffer}.
+ * It also creates strings through
+ * {@link String#String(byte[], int, int, java.nio.charset.Charset)} with the
+ * ISO-8859-1 charset, which the JVM can copy directly into a compact string
+ * without having to inspect and narrow every character.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class Latin1Buffer implements Buffer {
+  /**
+   * The characters in the buffer if all of them are in the Latin-1 range
+   */
+  private byte[] bytes;
+
+  /**
+   * The characters in the buffer if at least one of them is outside the
+   * Latin-1 range (may be non-null even if {@link #latin1} is true, so it
+   * can be reused)
+   */
+  private char[] chars;
+
+  /**
+   * True if all characters in the buffer are in the Latin-1 range
+   */
+  private boolean latin1 = true;
+
+  /**
+   * The number of characters in the buffer
+   */
+  private int length = 0;
+
+  /**
+   * Will be called when one of the internal arrays had to grow (may be
+   * <code>null</code>)
+   */
+  private IntConsumer growthListener;
+
+  /**
+   * Constructs a new buffer with a default initial capacity
+   */
+  public Latin1Buffer() {
+    this(128);
+  }
+
+  /**
+   * Constructs a new buffer
+   * @param initialCapacity the initial capacity of the buffer
+   */
+  public Latin1Buffer(int initialCapacity) {
+    bytes = new byte[initialCapacity];
+  }
+
+  @Override
+  public Latin1Buffer append(char c) {
+    if (latin1) {
+      if (c <= 0xFF) {
+        if (length == bytes.length) {
+          bytes = Arrays.copyOf(bytes, newCapacity(bytes.length));
+          grown(bytes.length);
+        }
+        bytes[length++] = (byte)c;
+        return this;
+      }
+      inflate();
+    }
+    if (length == chars.length) {
+      chars = Arrays.copyOf(chars, newCapacity(chars.length));
+      grown(chars.length);
+    }
+    chars[length++] = c;
+    return this;
+  }
+
+  @Override
+  public Latin1Buffer append(char[] src, int offset, int len) {
+    int i = offset;
+    int end = offset + len;
+    if (latin1) {
+      if (length + len > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(newCapacity(bytes.length),
+            length + len));
+        grown(bytes.length);
+      }
+      byte[] b = bytes;
+      int l = length;
+      while (i < end) {
+        char c = src[i];
+        if (c > 0xFF) {
+          break;
+        }
+        b[l++] = (byte)c;
+        ++i;
+      }
+      length = l;
+      if (i == end) {
+        return this;
+      }
+      inflate();
+    }
+    int remaining = end - i;
+    if (length + remaining > chars.length) {
+      chars = Arrays.copyOf(chars, Math.max(newCapacity(chars.length),
+          length + remaining));
+      grown(chars.length);
+    }
+    System.arraycopy(src, i, chars, length, remaining);
+    length += remaining;
+    return this;
+  }
+
+  /**
+   * Convert the bytes collected so far to characters and switch to the
+   * <code>char</code> array
+   */
+  private void inflate() {
+    if (chars == null || chars.length <= length) {
+      chars = new char[Math.max(bytes.length, length + 1)];
+      grown(chars.length);
+    }
+    for (int i = 0; i < length; ++i) {
+      chars[i] = (char)(bytes[i] & 0xFF);
+    }
+    latin1 = false;
+  }
+
+  /**
+   * Notify the {@link #growthListener} that an internal array has grown
+   * @param capacity the new capacity of the array
+   */
+  private void grown(int capacity) {
+    if (growthListener != null) {
+      growthListener.accept(capacity);
+    }
+  }
+
+  @Override
+  public void setGrowthListener(IntConsumer listener) {
+    growthListener = listener;
+  }
+
+  /**
+   * Calculate a new capacity for an array that is full
+   * @param capacity the current capacity
+   * @return the new capacity
+   */
+  private static int newCapacity(int capacity) {
+    return capacity * 2 + 2;
+  }
+
+  /**
+   * Clear the buffer and switch back to storing bytes. The internal arrays
+   * are kept for reuse.
+   */
+  public void clear() {
+    length = 0;
+    latin1 = true;
+  }
+
+  /**
+   * @return the number of characters currently in the buffer
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return true if all characters currently in the buffer are in the
+   * Latin-1 range and the buffer stores them as bytes
+   */
+  public boolean isLatin1() {
+    return latin1;
+  }
+
+  @Override
+  public boolean contentEquals(CharSequence cs) {
+    if (cs.length() != length) {
+      return false;
+    }
+    if (latin1) {
+      for (int i = 0; i < length; ++i) {
+        if ((bytes[i] & 0xFF) != cs.charAt(i)) {
+          return false;
+        }
+      }
+    } else {
+      for (int i = 0; i < length; ++i) {
+        if (chars[i] != cs.charAt(i)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    if (latin1) {
+      return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+    return new String(chars, 0, length);
+  }
+}
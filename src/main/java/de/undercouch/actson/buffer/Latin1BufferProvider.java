@@ -0,0 +1,43 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.buffer;
+
+/**
+ * A buffer provider that always uses the same instance of a
+ * {@link Latin1Buffer} but clears it when needed. Use this provider instead
+ * of {@link DefaultBufferProvider} if most of the strings and numbers in
+ * your JSON texts only consist of Latin-1 (or ASCII) characters.
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class Latin1BufferProvider implements BufferProvider {
+  private final Latin1Buffer currentValue = new Latin1Buffer();
+
+  @Override
+  public Buffer newBuffer() {
+    currentValue.clear();
+    return currentValue;
+  }
+}
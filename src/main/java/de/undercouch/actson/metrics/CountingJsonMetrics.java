@@ -0,0 +1,202 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import de.undercouch.actson.JsonEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An implementation of {@link JsonMetrics} that counts everything it is
+ * told. An instance may be shared by several parsers and feeders (e.g. all
+ * parsers handling the requests of a single tenant), even if they run on
+ * different threads.</p>
+ * <p>The counters can be exposed through JMX by registering the instance
+ * with an MBean server:</p>
+ * <pre>
+ * CountingJsonMetrics metrics = new CountingJsonMetrics();
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(metrics,
+ *     new ObjectName("de.undercouch.actson:type=JsonMetrics,name=tenant1"));
+ * </pre>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class CountingJsonMetrics implements JsonMetrics, JsonMetricsMXBean {
+  /**
+   * The names of all events, indexed by {@link #eventIndex(int)}
+   */
+  private static final String[] EVENT_NAMES = {
+    "ERROR", "NEED_MORE_INPUT", "START_OBJECT", "END_OBJECT", "START_ARRAY",
+    "END_ARRAY", "FIELD_NAME", "VALUE_STRING", "VALUE_INT", "VALUE_DOUBLE",
+    "VALUE_TRUE", "VALUE_FALSE", "VALUE_NULL", "VALUE_STRING_PART",
+    "VALUE_BINARY", "EOF"
+  };
+
+  private final LongAdder bytesFed = new LongAdder();
+  private final LongAdder feedRejections = new LongAdder();
+  private final LongAdder charsDecoded = new LongAdder();
+  private final LongAdder[] events = new LongAdder[EVENT_NAMES.length];
+  private final LongAdder bufferGrowths = new LongAdder();
+  private final AtomicInteger maxDepth = new AtomicInteger();
+  private final AtomicInteger largestToken = new AtomicInteger();
+
+  /**
+   * Constructs a new object with all counters set to zero
+   */
+  public CountingJsonMetrics() {
+    for (int i = 0; i < events.length; ++i) {
+      events[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Get the index of an event in {@link #events}
+   * @param event the event
+   * @return the index
+   */
+  private static int eventIndex(int event) {
+    return event == JsonEvent.EOF ? EVENT_NAMES.length - 1 : event + 1;
+  }
+
+  /**
+   * Atomically set a value to the maximum of its current value and the
+   * given one
+   */
+  private static void max(AtomicInteger value, int candidate) {
+    int current = value.get();
+    while (candidate > current && !value.compareAndSet(current, candidate)) {
+      current = value.get();
+    }
+  }
+
+  @Override
+  public void bytesFed(int count) {
+    bytesFed.add(count);
+  }
+
+  @Override
+  public void feedRejected() {
+    feedRejections.increment();
+  }
+
+  @Override
+  public void charsDecoded(int count) {
+    charsDecoded.add(count);
+  }
+
+  @Override
+  public void event(int event) {
+    events[eventIndex(event)].increment();
+  }
+
+  @Override
+  public void token(int length) {
+    if (length > largestToken.get()) {
+      max(largestToken, length);
+    }
+  }
+
+  @Override
+  public void depth(int depth) {
+    if (depth > maxDepth.get()) {
+      max(maxDepth, depth);
+    }
+  }
+
+  @Override
+  public void bufferGrown(int capacity) {
+    bufferGrowths.increment();
+  }
+
+  @Override
+  public long getBytesFed() {
+    return bytesFed.sum();
+  }
+
+  @Override
+  public long getFeedRejections() {
+    return feedRejections.sum();
+  }
+
+  @Override
+  public long getCharsDecoded() {
+    return charsDecoded.sum();
+  }
+
+  /**
+   * Get the number of times parsers have returned the given event
+   * @param event the event (see {@link JsonEvent})
+   * @return the number of times the event has been returned
+   */
+  public long getEventCount(int event) {
+    return events[eventIndex(event)].sum();
+  }
+
+  @Override
+  public Map<String, Long> getEventCounts() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int i = 0; i < events.length; ++i) {
+      result.put(EVENT_NAMES[i], events[i].sum());
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  @Override
+  public long getNeedMoreInputCount() {
+    return getEventCount(JsonEvent.NEED_MORE_INPUT);
+  }
+
+  @Override
+  public int getMaxDepth() {
+    return maxDepth.get();
+  }
+
+  @Override
+  public long getBufferGrowths() {
+    return bufferGrowths.sum();
+  }
+
+  @Override
+  public int getLargestToken() {
+    return largestToken.get();
+  }
+
+  @Override
+  public void reset() {
+    bytesFed.reset();
+    feedRejections.reset();
+    charsDecoded.reset();
+    for (LongAdder e : events) {
+      e.reset();
+    }
+    bufferGrowths.reset();
+    maxDepth.set(0);
+    largestToken.set(0);
+  }
+}
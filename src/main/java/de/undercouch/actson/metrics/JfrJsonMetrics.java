@@ -0,0 +1,65 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+/**
+ * <p>An implementation of {@link JsonMetrics} that emits JDK Flight
+ * Recorder events about parse sessions, large tokens, and feeder stalls.
+ * Flight Recorder events require Java 11 or later. The library contains a
+ * separate version of this class for Java 11 and later, so this version
+ * (which does nothing) will only be used on Java 8.</p>
+ * <p>Each instance keeps track of one parse session at a time, so it must
+ * not be shared by several parsers.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JfrJsonMetrics implements JsonMetrics {
+  private final int largeTokenThreshold;
+
+  /**
+   * Constructs a new object that reports tokens with at least 65536
+   * characters as large
+   */
+  public JfrJsonMetrics() {
+    this(65536);
+  }
+
+  /**
+   * Constructs a new object
+   * @param largeTokenThreshold the minimum number of characters a string or
+   * number must have to be reported as a large token
+   */
+  public JfrJsonMetrics(int largeTokenThreshold) {
+    this.largeTokenThreshold = largeTokenThreshold;
+  }
+
+  /**
+   * @return the minimum number of characters a string or number must have to
+   * be reported as a large token
+   */
+  public int getLargeTokenThreshold() {
+    return largeTokenThreshold;
+  }
+}
@@ -0,0 +1,109 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+
+/**
+ * <p>Receives information about the work done by a {@link JsonParser} and
+ * its {@link DefaultJsonFeeder}. Register an implementation with
+ * {@link JsonParser#setMetrics(JsonMetrics)} and
+ * {@link DefaultJsonFeeder#setMetrics(JsonMetrics)}. If no metrics are
+ * registered (which is the default), the parser and the feeder skip all
+ * calls.</p>
+ * <p>All methods do nothing by default, so implementations only need to
+ * override the ones they are interested in. The methods are called on the
+ * thread that uses the parser and should return quickly.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public interface JsonMetrics {
+  /**
+   * Will be called when bytes have been fed into the feeder
+   * @param count the number of bytes the feeder has accepted
+   */
+  default void bytesFed(int count) {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called when the feeder could not accept all bytes provided
+   * because it was full
+   */
+  default void feedRejected() {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called when the feeder has decoded bytes into characters
+   * @param count the number of characters decoded
+   */
+  default void charsDecoded(int count) {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called for every event returned by
+   * {@link JsonParser#nextEvent()}, including
+   * {@link JsonEvent#NEED_MORE_INPUT}
+   * @param event the event (see {@link JsonEvent})
+   */
+  default void event(int event) {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called for every string, field name, string part, or number
+   * the parser has completed
+   * @param length the number of characters the token occupies in the JSON
+   * text (including quotes for strings)
+   */
+  default void token(int length) {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called whenever the parser starts an object or an array
+   * @param depth the number of objects and arrays currently open
+   */
+  default void depth(int depth) {
+    // do nothing by default
+  }
+
+  /**
+   * Will be called when the parser had to grow one of its internal buffers.
+   * This includes the stack that keeps track of open objects and arrays
+   * and the buffer that collects the characters of the current token.
+   * Token buffers only report growth if they implement
+   * {@link de.undercouch.actson.buffer.Buffer#setGrowthListener}, which all
+   * buffers in this library do.
+   * @param capacity the new capacity of the buffer
+   */
+  default void bufferGrown(int capacity) {
+    // do nothing by default
+  }
+}
@@ -0,0 +1,81 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import java.util.Map;
+
+/**
+ * Exposes the counters of {@link CountingJsonMetrics} through JMX
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public interface JsonMetricsMXBean {
+  /**
+   * @return the number of bytes fed into feeders
+   */
+  long getBytesFed();
+
+  /**
+   * @return the number of times a feeder could not accept all bytes
+   * provided because it was full
+   */
+  long getFeedRejections();
+
+  /**
+   * @return the number of characters decoded by feeders
+   */
+  long getCharsDecoded();
+
+  /**
+   * @return the number of events returned by parsers, by event name
+   */
+  Map<String, Long> getEventCounts();
+
+  /**
+   * @return the number of times a parser needed more input
+   */
+  long getNeedMoreInputCount();
+
+  /**
+   * @return the deepest nesting level a parser has reached
+   */
+  int getMaxDepth();
+
+  /**
+   * @return the number of times a parser had to grow an internal buffer
+   */
+  long getBufferGrowths();
+
+  /**
+   * @return the length of the largest token (string, field name, string
+   * part, or number) in characters
+   */
+  int getLargestToken();
+
+  /**
+   * Reset all counters
+   */
+  void reset();
+}
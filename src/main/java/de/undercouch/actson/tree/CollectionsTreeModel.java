@@ -0,0 +1,101 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.tree;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>A {@link TreeModel} that represents objects as {@link Map}s, arrays as
+ * {@link List}s, integers as {@link Long}s or {@link BigInteger}s,
+ * floating point numbers as {@link Double}s, strings as {@link String}s,
+ * booleans as {@link Boolean}s, and <code>null</code> as
+ * <code>null</code>.</p>
+ * <p>Maps and lists are allocated with the exact number of elements, so
+ * they never have to grow. The order of fields is preserved.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class CollectionsTreeModel implements TreeModel<Object> {
+  /**
+   * A shared instance of this model
+   */
+  public static final CollectionsTreeModel INSTANCE = new CollectionsTreeModel();
+
+  @Override
+  public Object nullNode() {
+    return null;
+  }
+
+  @Override
+  public Object booleanNode(boolean value) {
+    return value;
+  }
+
+  @Override
+  public Object longNode(long value) {
+    return value;
+  }
+
+  @Override
+  public Object bigIntegerNode(BigInteger value) {
+    return value;
+  }
+
+  @Override
+  public Object doubleNode(double value) {
+    return value;
+  }
+
+  @Override
+  public Object stringNode(String value) {
+    return value;
+  }
+
+  @Override
+  public Object objectNode(String[] keys, Object[] values, int offset, int size) {
+    if (size == 0) {
+      return new LinkedHashMap<>(0);
+    }
+    // capacity that avoids rehashing with the default load factor of 0.75
+    Map<String, Object> result = new LinkedHashMap<>(size + size / 3 + 1);
+    for (int i = offset; i < offset + size; ++i) {
+      result.put(keys[i], values[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public Object arrayNode(Object[] values, int offset, int size) {
+    List<Object> result = new ArrayList<>(size);
+    for (int i = offset; i < offset + size; ++i) {
+      result.add(values[i]);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,493 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.tree;
+
+import java.math.BigInteger;
+import java.util.Locale;
+
+/**
+ * <p>A node in a compact, immutable JSON tree. Objects keep their keys and
+ * values in two arrays of exactly the right size, arrays keep their
+ * elements in one array, and numbers are stored as primitive values.</p>
+ * <p>Build a tree with a {@link TreeBuilder} and {@link #MODEL}. Calling
+ * {@link #toString()} on a node returns its JSON representation.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public abstract class Node {
+  /**
+   * The type of a node representing <code>null</code>
+   */
+  public static final int NULL = 0;
+
+  /**
+   * The type of a node representing a boolean
+   */
+  public static final int BOOLEAN = 1;
+
+  /**
+   * The type of a node representing an integer
+   */
+  public static final int INT = 2;
+
+  /**
+   * The type of a node representing a floating point number
+   */
+  public static final int DOUBLE = 3;
+
+  /**
+   * The type of a node representing a string
+   */
+  public static final int STRING = 4;
+
+  /**
+   * The type of a node representing an array
+   */
+  public static final int ARRAY = 5;
+
+  /**
+   * The type of a node representing an object
+   */
+  public static final int OBJECT = 6;
+
+  /**
+   * The node representing <code>null</code>
+   */
+  private static final Node NULL_NODE = new NullNode();
+
+  /**
+   * The node representing <code>true</code>
+   */
+  private static final Node TRUE_NODE = new BooleanNode(true);
+
+  /**
+   * The node representing <code>false</code>
+   */
+  private static final Node FALSE_NODE = new BooleanNode(false);
+
+  /**
+   * A model that creates compact nodes
+   */
+  public static final TreeModel<Node> MODEL = new TreeModel<Node>() {
+    @Override
+    public Node nullNode() {
+      return NULL_NODE;
+    }
+
+    @Override
+    public Node booleanNode(boolean value) {
+      return value ? TRUE_NODE : FALSE_NODE;
+    }
+
+    @Override
+    public Node longNode(long value) {
+      return new LongNode(value);
+    }
+
+    @Override
+    public Node bigIntegerNode(BigInteger value) {
+      return new BigIntegerNode(value);
+    }
+
+    @Override
+    public Node doubleNode(double value) {
+      return new DoubleNode(value);
+    }
+
+    @Override
+    public Node stringNode(String value) {
+      return new StringNode(value);
+    }
+
+    @Override
+    public Node objectNode(String[] keys, Object[] values, int offset, int size) {
+      String[] k = new String[size];
+      Node[] v = new Node[size];
+      System.arraycopy(keys, offset, k, 0, size);
+      System.arraycopy(values, offset, v, 0, size);
+      return new ObjectNode(k, v);
+    }
+
+    @Override
+    public Node arrayNode(Object[] values, int offset, int size) {
+      Node[] v = new Node[size];
+      System.arraycopy(values, offset, v, 0, size);
+      return new ArrayNode(v);
+    }
+  };
+
+  Node() {
+    // prevent subclasses outside this package
+  }
+
+  /**
+   * @return the node's type (one of the constants in this class)
+   */
+  public abstract int getType();
+
+  /**
+   * @return true if the node represents <code>null</code>
+   */
+  public boolean isNull() {
+    return getType() == NULL;
+  }
+
+  /**
+   * @return the number of elements of an array or the number of fields of
+   * an object (0 for all other nodes)
+   */
+  public int size() {
+    return 0;
+  }
+
+  /**
+   * Get an element of an array or the value of a field of an object
+   * @param index the index of the element or field
+   * @return the element or the value
+   * @throws IndexOutOfBoundsException if the index is out of range or if
+   * this node is neither an array nor an object
+   */
+  public Node get(int index) {
+    throw new IndexOutOfBoundsException("Index: " + index + ", size: 0");
+  }
+
+  /**
+   * Get the key of a field of an object
+   * @param index the index of the field
+   * @return the key
+   * @throws IndexOutOfBoundsException if the index is out of range or if
+   * this node is not an object
+   */
+  public String getKey(int index) {
+    throw new IndexOutOfBoundsException("Index: " + index + ", size: 0");
+  }
+
+  /**
+   * Get the value of a field of an object. If the object contains the key
+   * more than once, the last value is returned.
+   * @param key the field's key
+   * @return the value or <code>null</code> if this node is not an object or
+   * if there is no such field
+   */
+  public Node get(String key) {
+    return null;
+  }
+
+  /**
+   * @return the node's value as a boolean
+   * @throws IllegalStateException if the node does not represent a boolean
+   */
+  public boolean asBoolean() {
+    throw new IllegalStateException("Node does not represent a boolean");
+  }
+
+  /**
+   * @return the node's value as a long
+   * @throws IllegalStateException if the node does not represent a number
+   */
+  public long asLong() {
+    throw new IllegalStateException("Node does not represent a number");
+  }
+
+  /**
+   * @return the node's value as a double
+   * @throws IllegalStateException if the node does not represent a number
+   */
+  public double asDouble() {
+    throw new IllegalStateException("Node does not represent a number");
+  }
+
+  /**
+   * @return the node's value as a string
+   * @throws IllegalStateException if the node does not represent a string
+   */
+  public String asString() {
+    throw new IllegalStateException("Node does not represent a string");
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    write(sb);
+    return sb.toString();
+  }
+
+  /**
+   * Append the node's JSON representation to a string builder
+   * @param sb the string builder
+   */
+  abstract void write(StringBuilder sb);
+
+  /**
+   * Append a quoted and escaped string to a string builder
+   * @param s the string
+   * @param sb the string builder
+   */
+  static void writeString(String s, StringBuilder sb) {
+    sb.append('"');
+    for (int i = 0; i < s.length(); ++i) {
+      char c = s.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append(String.format(Locale.ROOT, "\\u%04x", (int)c));
+      } else {
+        sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+  private static final class NullNode extends Node {
+    @Override
+    public int getType() {
+      return NULL;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append("null");
+    }
+  }
+
+  private static final class BooleanNode extends Node {
+    private final boolean value;
+
+    BooleanNode(boolean value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getType() {
+      return BOOLEAN;
+    }
+
+    @Override
+    public boolean asBoolean() {
+      return value;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append(value);
+    }
+  }
+
+  private static final class LongNode extends Node {
+    private final long value;
+
+    LongNode(long value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getType() {
+      return INT;
+    }
+
+    @Override
+    public long asLong() {
+      return value;
+    }
+
+    @Override
+    public double asDouble() {
+      return value;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append(value);
+    }
+  }
+
+  private static final class BigIntegerNode extends Node {
+    private final BigInteger value;
+
+    BigIntegerNode(BigInteger value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getType() {
+      return INT;
+    }
+
+    @Override
+    public long asLong() {
+      return value.longValue();
+    }
+
+    @Override
+    public double asDouble() {
+      return value.doubleValue();
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append(value);
+    }
+  }
+
+  private static final class DoubleNode extends Node {
+    private final double value;
+
+    DoubleNode(double value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getType() {
+      return DOUBLE;
+    }
+
+    @Override
+    public long asLong() {
+      return (long)value;
+    }
+
+    @Override
+    public double asDouble() {
+      return value;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append(value);
+    }
+  }
+
+  private static final class StringNode extends Node {
+    private final String value;
+
+    StringNode(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getType() {
+      return STRING;
+    }
+
+    @Override
+    public String asString() {
+      return value;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      writeString(value, sb);
+    }
+  }
+
+  private static final class ArrayNode extends Node {
+    private final Node[] values;
+
+    ArrayNode(Node[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return ARRAY;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public Node get(int index) {
+      return values[index];
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append('[');
+      for (int i = 0; i < values.length; ++i) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        values[i].write(sb);
+      }
+      sb.append(']');
+    }
+  }
+
+  private static final class ObjectNode extends Node {
+    private final String[] keys;
+    private final Node[] values;
+
+    ObjectNode(String[] keys, Node[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    @Override
+    public int getType() {
+      return OBJECT;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public Node get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public String getKey(int index) {
+      return keys[index];
+    }
+
+    @Override
+    public Node get(String key) {
+      for (int i = keys.length - 1; i >= 0; --i) {
+        if (keys[i].equals(key)) {
+          return values[i];
+        }
+      }
+      return null;
+    }
+
+    @Override
+    void write(StringBuilder sb) {
+      sb.append('{');
+      for (int i = 0; i < values.length; ++i) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        writeString(keys[i], sb);
+        sb.append(':');
+        values[i].write(sb);
+      }
+      sb.append('}');
+    }
+  }
+}
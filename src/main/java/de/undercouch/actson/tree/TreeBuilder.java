@@ -0,0 +1,283 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.tree;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.StringCache;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * <p>Builds a tree from the events of a {@link JsonParser}. The tree can be
+ * built incrementally while input arrives. The node types are defined by a
+ * {@link TreeModel}. Use {@link Node#MODEL} for a compact tree or
+ * {@link CollectionsTreeModel} for maps and lists.</p>
+ * <p>The builder collects the children of all open objects and arrays on a
+ * single scratch stack. When an object or array is closed, the model
+ * creates a node of the exact size, so no container has to grow while the
+ * tree is built.</p>
+ * <p>If the parser does not have a {@link StringCache}, the builder
+ * registers one, so repeated keys share the same string instance. It also
+ * enables {@link JsonParser#setScanNumbers(boolean)}, so numbers are
+ * converted without creating strings, and
+ * {@link JsonParser#setUnescapeStrings(boolean)}, so the tree contains
+ * decoded strings.</p>
+ * @param <N> the node type
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class TreeBuilder<N> {
+  /**
+   * The parser to read from
+   */
+  private final JsonParser parser;
+
+  /**
+   * Creates the nodes
+   */
+  private final TreeModel<N> model;
+
+  /**
+   * Scratch stack containing the children of all open objects and arrays
+   */
+  private Object[] values = new Object[64];
+
+  /**
+   * Scratch stack containing the keys of the children in {@link #values}
+   * (<code>null</code> for array elements)
+   */
+  private String[] keys = new String[64];
+
+  /**
+   * The number of elements in {@link #values} and {@link #keys}
+   */
+  private int top = 0;
+
+  /**
+   * The index in {@link #values} at which the children of each open object
+   * or array start
+   */
+  private int[] starts = new int[16];
+
+  /**
+   * The key under which each open object or array will be stored in its
+   * parent
+   */
+  private String[] containerKeys = new String[16];
+
+  /**
+   * The number of open objects and arrays
+   */
+  private int depth = 0;
+
+  /**
+   * The key of the next field
+   */
+  private String currentKey;
+
+  /**
+   * The event with which the current value started
+   */
+  private int startEvent;
+
+  /**
+   * The last value that has been built
+   */
+  private N value;
+
+  /**
+   * Constructs a new builder
+   * @param parser the parser to read from
+   * @param model creates the nodes
+   */
+  public TreeBuilder(JsonParser parser, TreeModel<N> model) {
+    this.parser = parser;
+    this.model = model;
+    if (parser.getStringCache() == null) {
+      parser.setStringCache(new StringCache());
+    }
+    parser.setScanNumbers(true);
+    parser.setUnescapeStrings(true);
+  }
+
+  /**
+   * <p>Build the next value. The method returns one of the following
+   * events:</p>
+   * <ul>
+   * <li>the event with which the value started (e.g.
+   * {@link JsonEvent#START_OBJECT} or {@link JsonEvent#VALUE_INT}) if the
+   * value has been built completely. Call {@link #getValue()} to get
+   * it.</li>
+   * <li>{@link JsonEvent#NEED_MORE_INPUT} if the parser needs more input.
+   * Provide more input to the feeder and call this method again.</li>
+   * <li>{@link JsonEvent#ERROR} if the JSON text contains a syntax error</li>
+   * <li>any other event if there is no next value (e.g.
+   * {@link JsonEvent#END_ARRAY} at the end of an array or
+   * {@link JsonEvent#EOF})</li>
+   * </ul>
+   * @return the event
+   */
+  public int read() {
+    while (true) {
+      int event = parser.nextEvent();
+      N node;
+      switch (event) {
+        case JsonEvent.NEED_MORE_INPUT:
+        case JsonEvent.ERROR:
+        case JsonEvent.EOF:
+          return event;
+
+        case JsonEvent.START_OBJECT:
+        case JsonEvent.START_ARRAY:
+          if (depth == 0) {
+            startEvent = event;
+            value = null;
+          }
+          push();
+          continue;
+
+        case JsonEvent.END_OBJECT:
+        case JsonEvent.END_ARRAY:
+          if (depth == 0) {
+            return event;
+          }
+          node = pop(event == JsonEvent.END_OBJECT);
+          break;
+
+        case JsonEvent.FIELD_NAME:
+          currentKey = parser.getCurrentString();
+          continue;
+
+        case JsonEvent.VALUE_STRING:
+          node = model.stringNode(parser.getCurrentString());
+          break;
+
+        case JsonEvent.VALUE_INT:
+          node = intNode();
+          break;
+
+        case JsonEvent.VALUE_DOUBLE:
+          node = model.doubleNode(parser.getCurrentDouble());
+          break;
+
+        case JsonEvent.VALUE_TRUE:
+          node = model.booleanNode(true);
+          break;
+
+        case JsonEvent.VALUE_FALSE:
+          node = model.booleanNode(false);
+          break;
+
+        case JsonEvent.VALUE_NULL:
+          node = model.nullNode();
+          break;
+
+        default:
+          // events this builder does not handle (e.g. string parts)
+          return event;
+      }
+
+      if (depth == 0) {
+        if (event != JsonEvent.END_OBJECT && event != JsonEvent.END_ARRAY) {
+          startEvent = event;
+        }
+        value = node;
+        return startEvent;
+      }
+      add(node);
+    }
+  }
+
+  /**
+   * @return the last value that has been built completely
+   */
+  public N getValue() {
+    return value;
+  }
+
+  /**
+   * @return a node for the current integer
+   */
+  private N intNode() {
+    try {
+      return model.longNode(parser.getCurrentLong());
+    } catch (NumberFormatException e) {
+      return model.bigIntegerNode(new BigInteger(parser.getCurrentString()));
+    }
+  }
+
+  /**
+   * Add a node to the children of the innermost open object or array
+   * @param node the node
+   */
+  private void add(N node) {
+    if (top == values.length) {
+      values = Arrays.copyOf(values, values.length * 2);
+      keys = Arrays.copyOf(keys, keys.length * 2);
+    }
+    keys[top] = currentKey;
+    values[top] = node;
+    ++top;
+    currentKey = null;
+  }
+
+  /**
+   * Open an object or array
+   */
+  private void push() {
+    if (depth == starts.length) {
+      starts = Arrays.copyOf(starts, starts.length * 2);
+      containerKeys = Arrays.copyOf(containerKeys, containerKeys.length * 2);
+    }
+    starts[depth] = top;
+    containerKeys[depth] = currentKey;
+    currentKey = null;
+    ++depth;
+  }
+
+  /**
+   * Close the innermost object or array and create its node
+   * @param object true if the container is an object
+   * @return the node
+   */
+  private N pop(boolean object) {
+    --depth;
+    int start = starts[depth];
+    int size = top - start;
+    N node = object ? model.objectNode(keys, values, start, size) :
+        model.arrayNode(values, start, size);
+
+    // release references so the scratch stack does not keep nodes alive
+    Arrays.fill(values, start, top, null);
+    Arrays.fill(keys, start, top, null);
+    top = start;
+
+    currentKey = containerKeys[depth];
+    containerKeys[depth] = null;
+    return node;
+  }
+}
@@ -0,0 +1,98 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.tree;
+
+import java.math.BigInteger;
+
+/**
+ * <p>Creates the nodes of a tree built by a {@link TreeBuilder}. Implement
+ * this interface to build trees of your own node type (e.g. Jackson's
+ * <code>JsonNode</code>).</p>
+ * <p>Objects and arrays are created after all of their children have been
+ * parsed. The children are passed in a scratch array owned by the
+ * builder, so implementations know the exact number of children and can
+ * allocate containers of the right size. They must copy the children and
+ * must not keep a reference to the scratch arrays.</p>
+ * @param <N> the node type
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public interface TreeModel<N> {
+  /**
+   * @return a node representing <code>null</code>
+   */
+  N nullNode();
+
+  /**
+   * @param value the value
+   * @return a node representing a boolean
+   */
+  N booleanNode(boolean value);
+
+  /**
+   * @param value the value
+   * @return a node representing an integer that fits into a long
+   */
+  N longNode(long value);
+
+  /**
+   * @param value the value
+   * @return a node representing an integer that does not fit into a long
+   */
+  N bigIntegerNode(BigInteger value);
+
+  /**
+   * @param value the value
+   * @return a node representing a floating point number
+   */
+  N doubleNode(double value);
+
+  /**
+   * @param value the value
+   * @return a node representing a string
+   */
+  N stringNode(String value);
+
+  /**
+   * Create an object node
+   * @param keys a scratch array containing the keys of the object's fields
+   * @param values a scratch array containing the values of the object's
+   * fields (all elements are of type <code>N</code>)
+   * @param offset the index of the first field in the scratch arrays
+   * @param size the number of fields
+   * @return the object node
+   */
+  N objectNode(String[] keys, Object[] values, int offset, int size);
+
+  /**
+   * Create an array node
+   * @param values a scratch array containing the array's elements (all
+   * elements are of type <code>N</code>)
+   * @param offset the index of the first element in the scratch array
+   * @param size the number of elements
+   * @return the array node
+   */
+  N arrayNode(Object[] values, int offset, int size);
+}
@@ -0,0 +1,192 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import de.undercouch.actson.JsonEvent;
+import jdk.jfr.EventType;
+
+/**
+ * <p>An implementation of {@link JsonMetrics} that emits JDK Flight
+ * Recorder events about parse sessions, large tokens, and feeder stalls.
+ * The events can be enabled and configured like any other Flight Recorder
+ * event (e.g. in a <code>.jfc</code> file). If Flight Recorder is not
+ * running or the events are disabled, no events will be created.</p>
+ * <p>A parse session starts when the parser's feeder receives its first
+ * bytes or the parser returns its first event, and ends when the parser
+ * returns {@link JsonEvent#EOF} or {@link JsonEvent#ERROR}. Each instance
+ * keeps track of one parse session at a time, so it must not be shared by
+ * several parsers. Register it with the parser and with its feeder (see
+ * {@link de.undercouch.actson.JsonParser#setMetrics(JsonMetrics)} and
+ * {@link de.undercouch.actson.DefaultJsonFeeder#setMetrics(JsonMetrics)}),
+ * so it can measure how long the parser had to wait for input.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JfrJsonMetrics implements JsonMetrics {
+  private static final EventType SESSION =
+      EventType.getEventType(ParseSessionEvent.class);
+  private static final EventType LARGE_TOKEN =
+      EventType.getEventType(LargeTokenEvent.class);
+  private static final EventType FEEDER_STALL =
+      EventType.getEventType(FeederStallEvent.class);
+
+  private final int largeTokenThreshold;
+
+  /**
+   * The current session or <code>null</code> if there is no session or if
+   * the session event is disabled
+   */
+  private ParseSessionEvent session;
+
+  /**
+   * True if a session has started
+   */
+  private boolean inSession;
+
+  /**
+   * The number of bytes fed in the current session
+   */
+  private long bytes;
+
+  /**
+   * The number of tokens parsed in the current session
+   */
+  private long tokens;
+
+  /**
+   * The maximum depth reached in the current session
+   */
+  private int maxDepth;
+
+  /**
+   * The current stall or <code>null</code> if the parser is not waiting for
+   * input or if the stall event is disabled
+   */
+  private FeederStallEvent stall;
+
+  /**
+   * Constructs a new object that reports tokens with at least 65536
+   * characters as large
+   */
+  public JfrJsonMetrics() {
+    this(65536);
+  }
+
+  /**
+   * Constructs a new object
+   * @param largeTokenThreshold the minimum number of characters a string or
+   * number must have to be reported as a large token
+   */
+  public JfrJsonMetrics(int largeTokenThreshold) {
+    this.largeTokenThreshold = largeTokenThreshold;
+  }
+
+  /**
+   * @return the minimum number of characters a string or number must have to
+   * be reported as a large token
+   */
+  public int getLargeTokenThreshold() {
+    return largeTokenThreshold;
+  }
+
+  /**
+   * Start a new session if there is none
+   */
+  private void startSession() {
+    if (!inSession) {
+      inSession = true;
+      bytes = 0;
+      tokens = 0;
+      maxDepth = 0;
+      if (SESSION.isEnabled()) {
+        session = new ParseSessionEvent();
+        session.begin();
+      }
+    }
+  }
+
+  /**
+   * End the current session
+   * @param error true if the session has ended with an error
+   */
+  private void endSession(boolean error) {
+    if (session != null) {
+      session.end();
+      if (session.shouldCommit()) {
+        session.bytes = bytes;
+        session.tokens = tokens;
+        session.maxDepth = maxDepth;
+        session.error = error;
+        session.commit();
+      }
+      session = null;
+    }
+    stall = null;
+    inSession = false;
+  }
+
+  @Override
+  public void bytesFed(int count) {
+    startSession();
+    bytes += count;
+    if (count > 0 && stall != null) {
+      stall.end();
+      if (stall.shouldCommit()) {
+        stall.commit();
+      }
+      stall = null;
+    }
+  }
+
+  @Override
+  public void event(int event) {
+    startSession();
+    if (event == JsonEvent.NEED_MORE_INPUT) {
+      if (stall == null && FEEDER_STALL.isEnabled()) {
+        stall = new FeederStallEvent();
+        stall.begin();
+      }
+    } else if (event == JsonEvent.EOF || event == JsonEvent.ERROR) {
+      endSession(event == JsonEvent.ERROR);
+    }
+  }
+
+  @Override
+  public void token(int length) {
+    tokens++;
+    if (length >= largeTokenThreshold && LARGE_TOKEN.isEnabled()) {
+      LargeTokenEvent e = new LargeTokenEvent();
+      e.length = length;
+      e.commit();
+    }
+  }
+
+  @Override
+  public void depth(int depth) {
+    if (depth > maxDepth) {
+      maxDepth = depth;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering the parsing of a JSON text
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+@Name("de.undercouch.actson.ParseSession")
+@Label("JSON Parse Session")
+@Category("Actson")
+@Description("Parsing of a JSON text from the first input to the end")
+class ParseSessionEvent extends Event {
+  @Label("Bytes")
+  @DataAmount
+  long bytes;
+
+  @Label("Tokens")
+  @Description("Number of strings, field names, and numbers")
+  long tokens;
+
+  @Label("Max Depth")
+  @Description("Maximum number of nested objects and arrays")
+  int maxDepth;
+
+  @Label("Error")
+  @Description("True if the JSON text was invalid")
+  boolean error;
+}
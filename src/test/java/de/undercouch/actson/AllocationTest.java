@@ -0,0 +1,244 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import de.undercouch.actson.buffer.AdaptiveBufferProvider;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * <p>Makes sure that parsing does not create garbage on paths that are
+ * supposed to be allocation-free. Each test parses a large document,
+ * ignores the allocations made while warming up (e.g. growing buffers or
+ * filling caches), and then measures the bytes allocated by the current
+ * thread per parsed token.</p>
+ * <p>The tests are skipped on JVMs that do not support
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.</p>
+ * @author Michel Kraemer
+ */
+public class AllocationTest {
+  /**
+   * The number of records in the test document
+   */
+  private static final int RECORDS = 20000;
+
+  /**
+   * The number of tokens to parse before the measurement starts
+   */
+  private static final int WARMUP_TOKENS = 10000;
+
+  /**
+   * The maximum number of bytes that may be allocated per token on
+   * allocation-free paths. This leaves room for a few hundred bytes the JVM
+   * might allocate on its own during the measurement.
+   */
+  private static final double MAX_BYTES_PER_TOKEN = 0.01;
+
+  private static final String[] NAMES = { "alpha", "beta", "gamma", "delta" };
+
+  private static final FieldNameTable FIELDS = new FieldNameTable(
+      "id", "name", "value", "active", "tags", "parent");
+
+  /**
+   * A large array of records containing all kinds of values
+   */
+  private static final byte[] JSON = makeDocument();
+
+  /**
+   * Prevents the JIT compiler from removing the code under test
+   */
+  private long sink;
+
+  private static byte[] makeDocument() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < RECORDS; ++i) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"id\":").append(i)
+          .append(",\"name\":\"").append(NAMES[i % NAMES.length])
+          .append("\",\"value\":").append(i % 1000).append('.').append(i % 7)
+          .append(",\"active\":").append(i % 2 == 0)
+          .append(",\"tags\":[\"").append(NAMES[i % 3]).append("\",-").append(i)
+          .append("e2],\"parent\":null}");
+    }
+    sb.append(']');
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Get the thread MX bean or skip the current test if it cannot measure
+   * allocations
+   * @return the bean
+   */
+  private static com.sun.management.ThreadMXBean getThreadMXBean() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean,
+        "JVM does not provide com.sun.management.ThreadMXBean");
+    com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+    assumeTrue(sunBean.isThreadAllocatedMemorySupported(),
+        "JVM cannot measure allocated memory");
+    if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+      sunBean.setThreadAllocatedMemoryEnabled(true);
+    }
+    return sunBean;
+  }
+
+  /**
+   * Parse {@link #JSON}, pass every event to the given handler, and measure
+   * the bytes allocated per token after the warm-up phase
+   * @param parser the parser to use
+   * @param handler handles each event
+   * @return the number of bytes allocated per token
+   */
+  private static double bytesPerToken(JsonParser parser, IntConsumer handler) {
+    com.sun.management.ThreadMXBean bean = getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    int pos = 0;
+    long tokens = 0;
+    long start = 0;
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        if (pos < JSON.length) {
+          pos += parser.getFeeder().feed(JSON, pos, JSON.length - pos);
+        } else {
+          parser.getFeeder().done();
+        }
+        continue;
+      }
+      if (event == JsonEvent.ERROR) {
+        // don't use assertThat() here since it allocates memory
+        fail("Could not parse test document");
+      }
+      handler.accept(event);
+      if (++tokens == WARMUP_TOKENS) {
+        start = bean.getThreadAllocatedBytes(threadId);
+      }
+    }
+    long allocated = bean.getThreadAllocatedBytes(threadId) - start;
+
+    assertThat(tokens).isGreaterThan((long)WARMUP_TOKENS * 10);
+    return (double)allocated / (tokens - WARMUP_TOKENS);
+  }
+
+  /**
+   * Make sure the measurement actually detects allocations
+   */
+  @Test
+  public void detectsAllocations() {
+    JsonParser parser = new JsonParser();
+    double result = bytesPerToken(parser, event -> {
+      if (event == JsonEvent.VALUE_STRING || event == JsonEvent.FIELD_NAME) {
+        sink += parser.getCurrentString().length();
+      }
+    });
+    assertThat(result).isGreaterThan(1.0);
+  }
+
+  /**
+   * Parse a document without looking at the values
+   */
+  @Test
+  public void structureOnly() {
+    JsonParser parser = new JsonParser();
+    double result = bytesPerToken(parser, event -> sink += event);
+    assertThat(result).isLessThan(MAX_BYTES_PER_TOKEN);
+  }
+
+  /**
+   * Parse a document in lazy mode without looking at the values
+   */
+  @Test
+  public void structureOnlyLazy() {
+    JsonParser parser = new JsonParser();
+    parser.setLazyValues(true);
+    double result = bytesPerToken(parser, event -> sink += event);
+    assertThat(result).isLessThan(MAX_BYTES_PER_TOKEN);
+  }
+
+  /**
+   * Read integers and floating point numbers. Only numbers calculated while
+   * scanning them can be read without creating a string.
+   */
+  @Test
+  public void numbers() {
+    JsonParser parser = new JsonParser();
+    parser.setScanNumbers(true);
+    double result = bytesPerToken(parser, event -> {
+      if (event == JsonEvent.VALUE_INT) {
+        sink += parser.getCurrentInt();
+      } else if (event == JsonEvent.VALUE_DOUBLE) {
+        sink += (long)parser.getCurrentDouble();
+      }
+    });
+    assertThat(result).isLessThan(MAX_BYTES_PER_TOKEN);
+  }
+
+  /**
+   * Look up field names in a {@link FieldNameTable}
+   */
+  @Test
+  public void fieldNames() {
+    JsonParser parser = new JsonParser();
+    parser.setFieldNameTable(FIELDS);
+    double result = bytesPerToken(parser, event -> {
+      if (event == JsonEvent.FIELD_NAME) {
+        int id = parser.getCurrentFieldId();
+        if (id < 0) {
+          fail("Unknown field name");
+        }
+        sink += id + parser.getCurrentString().length();
+      }
+    });
+    assertThat(result).isLessThan(MAX_BYTES_PER_TOKEN);
+  }
+
+  /**
+   * Read strings through a {@link StringCache} while the parser recycles its
+   * buffer through an {@link AdaptiveBufferProvider}
+   */
+  @Test
+  public void pooled() {
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(
+        StandardCharsets.UTF_8), new AdaptiveBufferProvider());
+    parser.setFieldNameTable(FIELDS);
+    parser.setStringCache(new StringCache());
+    double result = bytesPerToken(parser, event -> {
+      if (event == JsonEvent.VALUE_STRING || event == JsonEvent.FIELD_NAME) {
+        sink += parser.getCurrentString().length();
+      }
+    });
+    assertThat(result).isLessThan(MAX_BYTES_PER_TOKEN);
+  }
+}
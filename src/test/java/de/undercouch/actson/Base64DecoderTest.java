@@ -0,0 +1,103 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link Base64Decoder}
+ * @author Michel Kraemer
+ */
+public class Base64DecoderTest {
+  /**
+   * Decode a string
+   * @param s the string to decode
+   * @return the decoded bytes or <code>null</code> if the string is invalid
+   * @throws IOException if something goes wrong
+   */
+  private static byte[] decode(String s) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Base64Decoder decoder = new Base64Decoder(out);
+    char[] chars = s.toCharArray();
+    if (!decoder.decode(chars, 0, chars.length) || !decoder.finish()) {
+      return null;
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Test if padded and unpadded input can be decoded
+   * @throws IOException if something goes wrong
+   */
+  @Test
+  public void padding() throws IOException {
+    assertThat(decode("")).isEqualTo(new byte[0]);
+    assertThat(decode("QQ==")).isEqualTo("A".getBytes(StandardCharsets.UTF_8));
+    assertThat(decode("QUI=")).isEqualTo("AB".getBytes(StandardCharsets.UTF_8));
+    assertThat(decode("QUJD")).isEqualTo("ABC".getBytes(StandardCharsets.UTF_8));
+    assertThat(decode("QQ")).isEqualTo("A".getBytes(StandardCharsets.UTF_8));
+    assertThat(decode("QUI")).isEqualTo("AB".getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Test if invalid input is rejected
+   * @throws IOException if something goes wrong
+   */
+  @Test
+  public void invalid() throws IOException {
+    assertThat(decode("Q")).isNull();
+    assertThat(decode("Q===")).isNull();
+    assertThat(decode("QQ=")).isNull();
+    assertThat(decode("QQ===")).isNull();
+    assertThat(decode("QQ==QQ==")).isNull();
+    assertThat(decode("QU I=")).isNull();
+    assertThat(decode("QUJä")).isNull();
+  }
+
+  /**
+   * Test if random data of different lengths can be decoded with both
+   * alphabets
+   * @throws IOException if something goes wrong
+   */
+  @Test
+  public void random() throws IOException {
+    Random rnd = new Random(1234);
+    for (int len = 0; len < 3000; len += 37) {
+      byte[] data = new byte[len];
+      rnd.nextBytes(data);
+      assertThat(decode(Base64.getEncoder().encodeToString(data))).isEqualTo(data);
+      assertThat(decode(Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(data))).isEqualTo(data);
+    }
+  }
+}
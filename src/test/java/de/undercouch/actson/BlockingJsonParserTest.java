@@ -0,0 +1,238 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link BlockingJsonParser}
+ * @author Michel Kraemer
+ */
+public class BlockingJsonParserTest {
+  private static final String JSON =
+      "{\"name\":\"Elvis ä€😀\",\"age\":42,\"pi\":3.14}";
+
+  /**
+   * An input stream that returns at most the given number of bytes per
+   * read, like a network connection
+   */
+  private static class ChunkedInputStream extends ByteArrayInputStream {
+    private final int chunkSize;
+    private boolean closed;
+
+    ChunkedInputStream(byte[] buf, int chunkSize) {
+      super(buf);
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+      return super.read(b, off, Math.min(len, chunkSize));
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+
+  /**
+   * Read all events and values from the given parser
+   * @param parser the parser
+   * @return the events and values
+   */
+  private static List<Object> readAll(BlockingJsonParser parser)
+      throws IOException {
+    List<Object> result = new ArrayList<>();
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.NEED_MORE_INPUT);
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      result.add(event);
+      if (event == JsonEvent.FIELD_NAME || event == JsonEvent.VALUE_STRING) {
+        result.add(parser.getCurrentString());
+      } else if (event == JsonEvent.VALUE_INT) {
+        result.add(parser.getCurrentLong());
+      } else if (event == JsonEvent.VALUE_DOUBLE) {
+        result.add(parser.getCurrentDouble());
+      }
+    }
+    return result;
+  }
+
+  private static List<Object> expected() {
+    List<Object> result = new ArrayList<>();
+    result.add(JsonEvent.START_OBJECT);
+    result.add(JsonEvent.FIELD_NAME);
+    result.add("name");
+    result.add(JsonEvent.VALUE_STRING);
+    result.add("Elvis ä€😀");
+    result.add(JsonEvent.FIELD_NAME);
+    result.add("age");
+    result.add(JsonEvent.VALUE_INT);
+    result.add(42L);
+    result.add(JsonEvent.FIELD_NAME);
+    result.add("pi");
+    result.add(JsonEvent.VALUE_DOUBLE);
+    result.add(3.14);
+    result.add(JsonEvent.END_OBJECT);
+    return result;
+  }
+
+  /**
+   * Parse from an input stream that returns one byte per read
+   */
+  @Test
+  public void inputStream() throws IOException {
+    ChunkedInputStream in = new ChunkedInputStream(
+        JSON.getBytes(StandardCharsets.UTF_8), 1);
+    try (BlockingJsonParser parser = new BlockingJsonParser(in)) {
+      assertThat(readAll(parser)).isEqualTo(expected());
+    }
+    assertThat(in.closed).isTrue();
+  }
+
+  /**
+   * Parse from a channel
+   */
+  @Test
+  public void channel() throws IOException {
+    InputStream in = new ByteArrayInputStream(
+        JSON.getBytes(StandardCharsets.UTF_8));
+    try (BlockingJsonParser parser = new BlockingJsonParser(
+        Channels.newChannel(in))) {
+      assertThat(readAll(parser)).isEqualTo(expected());
+    }
+  }
+
+  /**
+   * Parse from a reader
+   */
+  @Test
+  public void reader() throws IOException {
+    try (BlockingJsonParser parser = new BlockingJsonParser(
+        new StringReader(JSON))) {
+      assertThat(readAll(parser)).isEqualTo(expected());
+    }
+  }
+
+  /**
+   * Make sure the read size grows if reads fill the buffer and that large
+   * documents are parsed completely
+   */
+  @Test
+  public void growReadSize() throws IOException {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 100000; ++i) {
+      if (i > 0) {
+        sb.append(",");
+      }
+      sb.append(i);
+    }
+    sb.append("]");
+    byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    BlockingJsonParser parser = new BlockingJsonParser(
+        new ByteArrayInputStream(json));
+    assertThat(parser.getReadSize()).isEqualTo(
+        BlockingJsonParser.MIN_READ_SIZE);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    long i = 0;
+    int event;
+    while ((event = parser.nextEvent()) == JsonEvent.VALUE_INT) {
+      if (parser.getCurrentLong() != i) {
+        assertThat(parser.getCurrentLong()).isEqualTo(i);
+      }
+      ++i;
+    }
+    assertThat(i).isEqualTo(100000L);
+    assertThat(event).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+    assertThat(parser.getReadSize()).isEqualTo(
+        BlockingJsonParser.MAX_READ_SIZE);
+  }
+
+  /**
+   * Make sure the read size does not grow if reads return less data than
+   * requested
+   */
+  @Test
+  public void keepReadSize() throws IOException {
+    BlockingJsonParser parser = new BlockingJsonParser(new ChunkedInputStream(
+        JSON.getBytes(StandardCharsets.UTF_8), 7));
+    readAll(parser);
+    assertThat(parser.getReadSize()).isEqualTo(
+        BlockingJsonParser.MIN_READ_SIZE);
+  }
+
+  /**
+   * Make sure syntax errors and incomplete input are reported
+   */
+  @Test
+  public void errors() throws IOException {
+    BlockingJsonParser parser = new BlockingJsonParser(
+        new StringReader("[1,}"));
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.ERROR);
+
+    parser = new BlockingJsonParser(new ByteArrayInputStream(
+        "{\"a\":".getBytes(StandardCharsets.UTF_8)));
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.ERROR);
+  }
+
+  /**
+   * Make sure channels in non-blocking mode are rejected
+   */
+  @Test
+  public void nonBlockingChannel() throws IOException {
+    Pipe pipe = Pipe.open();
+    try {
+      pipe.source().configureBlocking(false);
+      assertThatThrownBy(() -> new BlockingJsonParser(pipe.source()))
+          .isInstanceOf(IllegalBlockingModeException.class);
+    } finally {
+      pipe.source().close();
+      pipe.sink().close();
+    }
+  }
+}
@@ -0,0 +1,257 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link ColumnarReader}
+ * @author Michel Kraemer
+ */
+public class ColumnarReaderTest {
+  private static final String JSON = "[" +
+      "{\"ts\":1,\"v\":0.5,\"tag\":\"a\",\"ok\":true}," +
+      "{\"extra\":{\"x\":[1,{\"y\":2}]},\"ts\":2,\"v\":3,\"ok\":false,\"tag\":null}," +
+      "{\"v\":null,\"tag\":\"c\",\"ts\":-3,\"ts\":4}," +
+      "{}" +
+      "]";
+
+  /**
+   * Check the columns read from {@link #JSON}
+   */
+  private static void assertColumns(ColumnarReader reader,
+      ColumnarReader.LongColumn ts, ColumnarReader.DoubleColumn v,
+      ColumnarReader.StringColumn tag, ColumnarReader.BooleanColumn ok) {
+    assertThat(reader.getRowCount()).isEqualTo(4);
+
+    assertThat(ts.toArray()).isEqualTo(new long[] { 1, 2, 4, 0 });
+    assertThat(ts.isNull(2)).isFalse();
+    assertThat(ts.isNull(3)).isTrue();
+    assertThat(ts.getNullCount()).isEqualTo(1);
+
+    assertThat(v.get(0)).isEqualTo(0.5);
+    assertThat(v.get(1)).isEqualTo(3.0);
+    assertThat(Double.isNaN(v.get(2))).isTrue();
+    assertThat(v.getNullBitmap()).isEqualTo(new long[] { 0b1100 });
+
+    assertThat(tag.toArray()).isEqualTo(new String[] { "a", null, "c", null });
+    assertThat(tag.getNullCount()).isEqualTo(2);
+
+    assertThat(ok.toArray()).isEqualTo(new boolean[] { true, false, false, false });
+    assertThat(ok.isNull(1)).isFalse();
+    assertThat(ok.isNull(2)).isTrue();
+  }
+
+  /**
+   * Read a complete array
+   */
+  @Test
+  public void read() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed(JSON.getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    ColumnarReader reader = new ColumnarReader(parser);
+    ColumnarReader.LongColumn ts = reader.addLongColumn("ts");
+    ColumnarReader.DoubleColumn v = reader.addDoubleColumn("v");
+    ColumnarReader.StringColumn tag = reader.addStringColumn("tag");
+    ColumnarReader.BooleanColumn ok = reader.addBooleanColumn("ok");
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+    assertColumns(reader, ts, v, tag, ok);
+  }
+
+  /**
+   * Read an array that is fed byte by byte
+   */
+  @Test
+  public void readIncrementally() {
+    JsonParser parser = new JsonParser();
+    ColumnarReader reader = new ColumnarReader(parser);
+    ColumnarReader.LongColumn ts = reader.addLongColumn("ts");
+    ColumnarReader.DoubleColumn v = reader.addDoubleColumn("v");
+    ColumnarReader.StringColumn tag = reader.addStringColumn("tag");
+    ColumnarReader.BooleanColumn ok = reader.addBooleanColumn("ok");
+
+    byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+    int i = 0;
+    int event;
+    while ((event = reader.read()) == JsonEvent.NEED_MORE_INPUT) {
+      if (i < bytes.length) {
+        parser.getFeeder().feed(bytes[i++]);
+      } else {
+        parser.getFeeder().done();
+      }
+    }
+    assertThat(event).isEqualTo(JsonEvent.END_ARRAY);
+    assertColumns(reader, ts, v, tag, ok);
+  }
+
+  /**
+   * Read many rows so the columns have to grow
+   */
+  @Test
+  public void manyRows() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; ++i) {
+      if (i > 0) {
+        sb.append(",");
+      }
+      if (i % 3 == 0) {
+        sb.append("{\"n\":null}");
+      } else {
+        sb.append("{\"n\":").append(i).append("}");
+      }
+    }
+    sb.append("]");
+
+    JsonParser parser = new JsonParser();
+    ColumnarReader reader = new ColumnarReader(parser);
+    ColumnarReader.LongColumn n = reader.addLongColumn("n");
+    ColumnarReader.BooleanColumn b = reader.addBooleanColumn("b");
+
+    byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+    int i = 0;
+    int event;
+    while ((event = reader.read()) == JsonEvent.NEED_MORE_INPUT) {
+      if (i < bytes.length) {
+        i += parser.getFeeder().feed(bytes, i, bytes.length - i);
+      } else {
+        parser.getFeeder().done();
+      }
+    }
+    assertThat(event).isEqualTo(JsonEvent.END_ARRAY);
+
+    assertThat(n.size()).isEqualTo(1000);
+    assertThat(n.getNullCount()).isEqualTo(334);
+    for (i = 0; i < 1000; ++i) {
+      assertThat(n.isNull(i)).isEqualTo(i % 3 == 0);
+      assertThat(n.get(i)).isEqualTo(i % 3 == 0 ? 0L : i);
+    }
+    assertThat(b.size()).isEqualTo(1000);
+    assertThat(b.getNullCount()).isEqualTo(1000);
+  }
+
+  /**
+   * Make sure a value that does not match its column is reported
+   */
+  @Test
+  public void typeMismatch() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("[{\"a\":1},{\"a\":1.5}]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    ColumnarReader reader = new ColumnarReader(parser);
+    reader.addLongColumn("a");
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+    assertThat(reader.getErrorMessage()).isEqualTo(
+        "Unexpected value for field \"a\" in row 1");
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+  }
+
+  /**
+   * Make sure input that is not an array of objects is rejected
+   */
+  @Test
+  public void notAnArrayOfObjects() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("[{},1]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    ColumnarReader reader = new ColumnarReader(parser);
+    reader.addLongColumn("a");
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+    assertThat(reader.getErrorMessage()).isEqualTo("Expected an object in row 1");
+    assertThat(reader.getRowCount()).isEqualTo(1);
+  }
+
+  /**
+   * Make sure the reader does not change the setting made with
+   * {@link JsonParser#setScanNumbers(boolean)}
+   */
+  @Test
+  public void keepScanNumbers() {
+    for (boolean scanNumbers : new boolean[] { true, false }) {
+      JsonParser parser = new JsonParser();
+      parser.setScanNumbers(scanNumbers);
+      ColumnarReader reader = new ColumnarReader(parser);
+      ColumnarReader.LongColumn a = reader.addLongColumn("a");
+
+      parser.getFeeder().feed("[{\"a\":1},{\"a\":2".getBytes(
+          StandardCharsets.UTF_8));
+      assertThat(reader.read()).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+
+      parser.getFeeder().feed("3}]".getBytes(StandardCharsets.UTF_8));
+      parser.getFeeder().done();
+      assertThat(reader.read()).isEqualTo(JsonEvent.END_ARRAY);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+      assertThat(a.toArray()).isEqualTo(new long[] { 1, 23 });
+    }
+  }
+
+  /**
+   * Make sure the field name table is installed on the first read and that
+   * columns cannot be added afterwards
+   */
+  @Test
+  public void fieldNameTable() {
+    JsonParser parser = new JsonParser();
+    ColumnarReader reader = new ColumnarReader(parser);
+    reader.addLongColumn("a");
+    reader.addLongColumn("b");
+    assertThatThrownBy(() -> reader.addLongColumn("a"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(parser.getFieldNameTable()).isNull();
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+    assertThat(parser.getFieldNameTable().size()).isEqualTo(2);
+    assertThat(parser.getFieldNameTable().getId("b")).isEqualTo(1);
+    assertThatThrownBy(() -> reader.addLongColumn("c"))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Make sure a field name table registered by the caller is not
+   * overwritten
+   */
+  @Test
+  public void existingFieldNameTable() {
+    JsonParser parser = new JsonParser();
+    FieldNameTable table = new FieldNameTable("x");
+    parser.setFieldNameTable(table);
+    ColumnarReader reader = new ColumnarReader(parser);
+    reader.addLongColumn("a");
+    assertThatThrownBy(reader::read)
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(parser.getFieldNameTable()).isSameAs(table);
+  }
+}
@@ -25,6 +25,7 @@ package de.undercouch.actson;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.MalformedInputException;
@@ -128,6 +129,38 @@ public class DefaultJsonFeederTest {
     assertThat(feeder.hasInput()).isFalse();
   }
 
+  /**
+   * Test if the feeder accepts heap and direct byte buffers
+   * @throws CharacterCodingException if something goes wrong
+   */
+  @Test
+  public void feedByteBuffer() throws CharacterCodingException {
+    byte[] bytes = "--abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes);
+    direct.flip();
+
+    for (ByteBuffer buf : new ByteBuffer[] { ByteBuffer.wrap(bytes), direct }) {
+      DefaultJsonFeeder f = new DefaultJsonFeeder(StandardCharsets.UTF_8, 16);
+      buf.position(2);
+      assertThat(f.feed(buf)).isEqualTo(16);
+      assertThat(buf.position()).isEqualTo(18);
+      assertThat(f.isFull()).isTrue();
+      assertThat(f.feed(buf)).isEqualTo(0);
+
+      StringBuilder sb = new StringBuilder();
+      while (f.hasInput()) {
+        sb.append(f.nextInput());
+      }
+      assertThat(f.feed(buf)).isEqualTo(10);
+      assertThat(buf.hasRemaining()).isFalse();
+      while (f.hasInput()) {
+        sb.append(f.nextInput());
+      }
+      assertThat(sb.toString()).isEqualTo("abcdefghijklmnopqrstuvwxyz");
+    }
+  }
+
   /**
    * Test if the {@link DefaultJsonFeeder#isDone()} method works correctly
    * @throws CharacterCodingException if something goes wrong
@@ -322,4 +355,24 @@ public class DefaultJsonFeederTest {
       }
     }).isInstanceOf(UnmappableCharacterException.class);
   }
+
+  /**
+   * Test if characters can be retrieved in bulk
+   * @throws CharacterCodingException if something goes wrong
+   */
+  @Test
+  public void nextInputBulk() throws CharacterCodingException {
+    char[] dst = new char[8];
+    assertThat(feeder.nextInput(dst, 0, dst.length)).isEqualTo(0);
+
+    feeder.feed("abcd".getBytes(StandardCharsets.UTF_8));
+    assertThat(feeder.nextInput(dst, 1, 2)).isEqualTo(2);
+    assertThat(dst[1]).isEqualTo('a');
+    assertThat(dst[2]).isEqualTo('b');
+    assertThat(feeder.nextInput(dst, 0, dst.length)).isEqualTo(2);
+    assertThat(dst[0]).isEqualTo('c');
+    assertThat(dst[1]).isEqualTo('d');
+    assertThat(feeder.hasInput()).isFalse();
+    assertThat(feeder.nextInput(dst, 0, dst.length)).isEqualTo(0);
+  }
 }
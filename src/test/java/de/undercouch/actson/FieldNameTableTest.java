@@ -0,0 +1,133 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import de.undercouch.actson.buffer.DefaultBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link FieldNameTable}
+ * @author Michel Kraemer
+ */
+public class FieldNameTableTest {
+  /**
+   * Test if names can be looked up
+   */
+  @Test
+  public void lookup() {
+    FieldNameTable table = new FieldNameTable("id", "name", "", "Aa", "BB");
+    assertThat(table.size()).isEqualTo(5);
+    assertThat(table.getId("id")).isEqualTo(0);
+    assertThat(table.getId("name")).isEqualTo(1);
+    assertThat(table.getId("")).isEqualTo(2);
+    assertThat(table.getId("unknown")).isEqualTo(-1);
+    assertThat(table.getName(1)).isEqualTo("name");
+
+    // "Aa" and "BB" have the same hash code
+    DefaultBuffer buf = new DefaultBuffer();
+    buf.append("BB");
+    assertThat(table.find("BB".hashCode(), 2, buf)).isEqualTo(4);
+    assertThat(table.find("Aa".hashCode(), 2, buf)).isEqualTo(4);
+    buf.setLength(0);
+    buf.append("Aa");
+    assertThat(table.find("Aa".hashCode(), 2, buf)).isEqualTo(3);
+  }
+
+  /**
+   * Test that duplicate names are rejected
+   */
+  @Test
+  public void duplicate() {
+    assertThatThrownBy(() -> new FieldNameTable("a", "b", "a"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Test that the parser can look up field names in the table
+   */
+  @Test
+  public void parse() {
+    FieldNameTable table = new FieldNameTable("id", "name", "tags");
+    JsonParser parser = new JsonParser();
+    parser.setFieldNameTable(table);
+    assertThat(parser.getFieldNameTable()).isSameAs(table);
+
+    byte[] json = ("{\"id\":1,\"name\":\"id\",\"other\":{\"tags\":[]}," +
+        "\"na\\u006de\":null}").getBytes(StandardCharsets.UTF_8);
+    parser.getFeeder().feed(json);
+    parser.getFeeder().done();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(0);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(1);
+    assertThat(parser.getCurrentString()).isSameAs(table.getName(1));
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(-1);
+    assertThat(parser.getCurrentString()).isEqualTo("id");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(-1);
+    assertThat(parser.getCurrentString()).isEqualTo("other");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(2);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_OBJECT);
+
+    // escape sequences are only decoded if unescaping is enabled
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(-1);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_NULL);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+  }
+
+  /**
+   * Test that field names with escape sequences can be looked up if
+   * unescaping is enabled
+   */
+  @Test
+  public void parseUnescaped() {
+    JsonParser parser = new JsonParser();
+    parser.setFieldNameTable(new FieldNameTable("id", "name"));
+    parser.setUnescapeStrings(true);
+
+    byte[] json = "{\"na\\u006de\":null}".getBytes(StandardCharsets.UTF_8);
+    parser.getFeeder().feed(json);
+    parser.getFeeder().done();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentFieldId()).isEqualTo(1);
+  }
+}
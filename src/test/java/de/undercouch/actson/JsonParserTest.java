@@ -31,14 +31,23 @@ import de.undercouch.actson.buffer.DefaultBufferProvider;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests {@link JsonParser}
@@ -478,4 +487,777 @@ public class JsonParserTest {
     String json = "{\"name\":\"A very long name\"}";
     assertJsonObjectEquals(expected, parse(json, parser));
   }
+
+  /**
+   * Test that strings are appended to the buffer in runs and not
+   * character by character
+   */
+  @Test
+  public void bulkAppend() {
+    AtomicInteger singleAppends = new AtomicInteger();
+    AtomicInteger bulkAppends = new AtomicInteger();
+    class CountingBuffer implements Buffer {
+      private final StringBuilder value = new StringBuilder();
+
+      @Override
+      public Buffer append(char c) {
+        singleAppends.incrementAndGet();
+        value.append(c);
+        return this;
+      }
+
+      @Override
+      public Buffer append(char[] src, int offset, int len) {
+        bulkAppends.incrementAndGet();
+        value.append(src, offset, len);
+        return this;
+      }
+
+      @Override
+      public String toString() {
+        return value.toString();
+      }
+    }
+
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8),
+        CountingBuffer::new);
+    String json = "{\"name\":\"Elvis \\\"The King\\\" Presley\"}";
+    assertJsonObjectEquals(json, parse(json, parser));
+
+    // 'name' and 'Elvis ' and 'The King' and ' Presley'
+    assertThat(bulkAppends).hasValue(4);
+    // two backslashes and two escaped quotes
+    assertThat(singleAppends).hasValue(4);
+  }
+
+  /**
+   * Test that strings spanning multiple chunks of input are parsed correctly
+   */
+  @Test
+  public void longString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10000; ++i) {
+      sb.append((char)('a' + i % 26));
+      if (i % 1000 == 0) {
+        sb.append("\\n\u0153");
+      }
+    }
+    String json = "[\"" + sb + "\",\"" + sb + "\"]";
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8, 7));
+    assertJsonArrayEquals(json, parse(json, parser));
+  }
+
+  /**
+   * Test that the parser works with a feeder that does not provide
+   * characters in bulk
+   */
+  @Test
+  public void feederWithoutBulkInput() {
+    DefaultJsonFeeder delegate = new DefaultJsonFeeder(StandardCharsets.UTF_8);
+    JsonFeeder feeder = new JsonFeeder() {
+      @Override
+      public void feed(byte b) {
+        delegate.feed(b);
+      }
+
+      @Override
+      public int feed(byte[] buf) {
+        return delegate.feed(buf);
+      }
+
+      @Override
+      public int feed(byte[] buf, int offset, int len) {
+        return delegate.feed(buf, offset, len);
+      }
+
+      @Override
+      public boolean isFull() {
+        return delegate.isFull();
+      }
+
+      @Override
+      public void done() {
+        delegate.done();
+      }
+
+      @Override
+      public boolean hasInput() throws CharacterCodingException {
+        return delegate.hasInput();
+      }
+
+      @Override
+      public boolean isDone() throws CharacterCodingException {
+        return delegate.isDone();
+      }
+
+      @Override
+      public char nextInput() throws CharacterCodingException {
+        return delegate.nextInput();
+      }
+    };
+
+    String json = "{\"name\":\"Elvis\",\"age\":42,\"list\":[1,2.5,true,null]}";
+    assertJsonObjectEquals(json, parse(json, new JsonParser(feeder)));
+  }
+
+  /**
+   * Parse a JSON text with chunked delivery of string values and collect
+   * all string values and parts
+   * @param json the JSON text
+   * @param threshold the chunk threshold
+   * @param parts a list that will receive all parts and values
+   * @return the values reassembled from their parts
+   */
+  private static List<String> parseChunked(String json, int threshold,
+      List<String> parts) {
+    JsonParser parser = new JsonParser();
+    parser.setStringChunkThreshold(threshold);
+    assertThat(parser.getStringChunkThreshold()).isEqualTo(threshold);
+
+    byte[] buf = json.getBytes(StandardCharsets.UTF_8);
+    List<String> values = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    int i = 0;
+    int event;
+    do {
+      while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+        // feed byte by byte to check that parts are split correctly
+        if (i < buf.length) {
+          parser.getFeeder().feed(buf[i++]);
+        } else {
+          parser.getFeeder().done();
+        }
+      }
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.VALUE_STRING_PART) {
+        parts.add(parser.getCurrentString());
+        current.append(parser.getCurrentString());
+      } else if (event == JsonEvent.VALUE_STRING) {
+        parts.add(parser.getCurrentString());
+        current.append(parser.getCurrentString());
+        values.add(current.toString());
+        current.setLength(0);
+      } else if (event == JsonEvent.FIELD_NAME) {
+        values.add(parser.getCurrentString());
+      }
+    } while (event != JsonEvent.EOF);
+    return values;
+  }
+
+  /**
+   * Test that large string values can be delivered in chunks
+   */
+  @Test
+  public void chunkedStrings() {
+    List<String> parts = new ArrayList<>();
+    List<String> values = parseChunked(
+        "[\"abcdefghij\",\"xy\",{\"a long key\":\"0123\"}]", 4, parts);
+    assertThat(values).containsExactly("abcdefghij", "xy", "a long key", "0123");
+    assertThat(parts).containsExactly("abcd", "efgh", "ij", "xy", "0123", "");
+  }
+
+  /**
+   * Test that escape sequences are not split between chunks
+   */
+  @Test
+  public void chunkedStringsWithEscapes() {
+    List<String> parts = new ArrayList<>();
+    List<String> values = parseChunked(
+        "[\"ab\\ncd\\u0153ef\\\\\"]", 3, parts);
+    assertThat(values).containsExactly("ab\\ncd\\u0153ef\\\\");
+    // a part may exceed the threshold by the length of an escape sequence
+    assertThat(parts).containsExactly("ab\\n", "cd\\u0153", "ef\\\\", "");
+  }
+
+  /**
+   * Test that chunked delivery works with large values and large chunks
+   */
+  @Test
+  public void chunkedLongString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; ++i) {
+      sb.append((char)('a' + i % 26));
+    }
+    List<String> parts = new ArrayList<>();
+    List<String> values = parseChunked("{\"k\":\"" + sb + "\"}", 1000, parts);
+    assertThat(values).containsExactly("k", sb.toString());
+    assertThat(parts).hasSize(6);
+  }
+
+  /**
+   * Test that base64 encoded string values can be decoded into a sink
+   */
+  @Test
+  public void decodeBase64() {
+    byte[] data = new byte[10000];
+    new Random(1234).nextBytes(data);
+    String encoded = Base64.getEncoder().encodeToString(data)
+        .replace("/", "\\/");
+    byte[] json = ("{\"name\":\"Elvis\",\"data\":\"" + encoded + "\",\"n\":\"x\"}")
+        .getBytes(StandardCharsets.UTF_8);
+
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8, 16));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    List<Integer> events = new ArrayList<>();
+    List<String> strings = new ArrayList<>();
+    int i = 0;
+    int event;
+    do {
+      while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+        i += parser.getFeeder().feed(json, i, json.length - i);
+        if (i == json.length) {
+          parser.getFeeder().done();
+        }
+      }
+      events.add(event);
+      if (event == JsonEvent.FIELD_NAME) {
+        strings.add(parser.getCurrentString());
+        if (parser.getCurrentString().equals("data")) {
+          parser.decodeBase64(Channels.newChannel(out));
+        }
+      } else if (event == JsonEvent.VALUE_STRING) {
+        strings.add(parser.getCurrentString());
+      }
+    } while (event != JsonEvent.EOF && event != JsonEvent.ERROR);
+
+    assertThat(events).containsExactly(JsonEvent.START_OBJECT,
+        JsonEvent.FIELD_NAME, JsonEvent.VALUE_STRING,
+        JsonEvent.FIELD_NAME, JsonEvent.VALUE_BINARY,
+        JsonEvent.FIELD_NAME, JsonEvent.VALUE_STRING,
+        JsonEvent.END_OBJECT, JsonEvent.EOF);
+    assertThat(strings).containsExactly("name", "Elvis", "data", "n", "x");
+    assertThat(out.toByteArray()).isEqualTo(data);
+  }
+
+  /**
+   * Test that invalid base64 values lead to an error
+   */
+  @Test
+  public void decodeBase64Invalid() {
+    for (String value : new String[] { "QQ=Q", "QQ\\n", "QQ\\u0041", "Q" }) {
+      JsonParser parser = new JsonParser();
+      parser.decodeBase64(new ByteArrayOutputStream());
+      byte[] json = ("[\"" + value + "\"]").getBytes(StandardCharsets.UTF_8);
+      parseFail(json, parser);
+    }
+  }
+
+  /**
+   * Parse a JSON text with a parser that decodes escape sequences and
+   * collect all field names and string values
+   * @param json the JSON text
+   * @param parser the parser
+   * @return the field names and string values
+   */
+  private static List<String> parseStrings(String json, JsonParser parser) {
+    byte[] buf = json.getBytes(StandardCharsets.UTF_8);
+    List<String> result = new ArrayList<>();
+    int i = 0;
+    int event;
+    do {
+      while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+        if (i < buf.length) {
+          parser.getFeeder().feed(buf[i++]);
+        } else {
+          parser.getFeeder().done();
+        }
+      }
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.FIELD_NAME || event == JsonEvent.VALUE_STRING ||
+          event == JsonEvent.VALUE_STRING_PART) {
+        result.add(parser.getCurrentString());
+      }
+    } while (event != JsonEvent.EOF);
+    return result;
+  }
+
+  /**
+   * Test that escape sequences can be decoded
+   */
+  @Test
+  public void unescape() {
+    JsonParser parser = new JsonParser();
+    assertThat(parser.isUnescapeStrings()).isFalse();
+    parser.setUnescapeStrings(true);
+    assertThat(parser.isUnescapeStrings()).isTrue();
+
+    String json = "{\"a\\tb\":\"\\\"\\\\\\/\\b\\f\\n\\r\\t\",\"plain\":" +
+        "\"caf\\u00e9 \\u0152\\uD83D\\ude00!\",\"n\":42}";
+    assertThat(parseStrings(json, parser)).containsExactly("a\tb",
+        "\"\\/\b\f\n\r\t", "plain", "caf\u00e9 \u0152\ud83d\ude00!", "n");
+  }
+
+  /**
+   * Test that decoded escape sequences and surrogate pairs are not split
+   * between chunks
+   */
+  @Test
+  public void unescapeChunked() {
+    JsonParser parser = new JsonParser();
+    parser.setUnescapeStrings(true);
+    parser.setStringChunkThreshold(2);
+    String json = "[\"a\\ud83d\\ude00\\n\ud83d\ude00b\"]";
+    assertThat(parseStrings(json, parser)).containsExactly(
+        "a\ud83d\ude00", "\n\ud83d\ude00", "b");
+  }
+
+  /**
+   * Test that {@link JsonParser#nextEvents(java.util.function.IntConsumer, int)}
+   * stops after the given number of events
+   */
+  @Test
+  public void nextEventsMaxEvents() {
+    JsonParser parser = new JsonParser();
+    byte[] json = "{\"a\":[1,2,3],\"b\":true}".getBytes(StandardCharsets.UTF_8);
+    List<Integer> events = new ArrayList<>();
+
+    assertThat(parser.nextEvents(events::add, 3)).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+    assertThat(events).isEmpty();
+    parser.getFeeder().feed(json);
+
+    assertThat(parser.nextEvents(events::add, 3)).isEqualTo(JsonEvent.BUDGET_EXHAUSTED);
+    assertThat(events).containsExactly(JsonEvent.START_OBJECT,
+        JsonEvent.FIELD_NAME, JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvents(events::add, 4)).isEqualTo(JsonEvent.BUDGET_EXHAUSTED);
+    assertThat(parser.nextEvents(events::add, 100)).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+    parser.getFeeder().done();
+    assertThat(parser.nextEvents(events::add, 100)).isEqualTo(JsonEvent.EOF);
+
+    assertThat(events).containsExactly(JsonEvent.START_OBJECT,
+        JsonEvent.FIELD_NAME, JsonEvent.START_ARRAY, JsonEvent.VALUE_INT,
+        JsonEvent.VALUE_INT, JsonEvent.VALUE_INT, JsonEvent.END_ARRAY,
+        JsonEvent.FIELD_NAME, JsonEvent.VALUE_TRUE, JsonEvent.END_OBJECT);
+  }
+
+  /**
+   * Test that {@link JsonParser#nextEvents(java.util.function.IntConsumer, int, long)}
+   * stops when the time budget has been spent and reports errors
+   */
+  @Test
+  public void nextEventsTimeBudget() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 200; ++i) {
+      sb.append(i).append(',');
+    }
+    sb.append("200]");
+
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed(sb.toString().getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    AtomicInteger count = new AtomicInteger();
+    int event = parser.nextEvents(e -> {
+      count.incrementAndGet();
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException ex) {
+        throw new RuntimeException(ex);
+      }
+    }, Integer.MAX_VALUE, 1);
+    assertThat(event).isEqualTo(JsonEvent.BUDGET_EXHAUSTED);
+    assertThat(count.get()).isLessThan(200);
+
+    while ((event = parser.nextEvents(e -> count.incrementAndGet(),
+        Integer.MAX_VALUE, 1_000_000_000L)) == JsonEvent.BUDGET_EXHAUSTED) {
+      // continue parsing
+    }
+    assertThat(event).isEqualTo(JsonEvent.EOF);
+    assertThat(count.get()).isEqualTo(203);
+
+    parser = new JsonParser();
+    parser.getFeeder().feed("[1,}".getBytes(StandardCharsets.UTF_8));
+    assertThat(parser.nextEvents(e -> { }, 100)).isEqualTo(JsonEvent.ERROR);
+  }
+
+  /**
+   * Test that {@link JsonParser#nextEvents(java.util.function.IntConsumer, int, long)}
+   * rejects invalid limits
+   */
+  @Test
+  public void nextEventsInvalidLimits() {
+    JsonParser parser = new JsonParser();
+    assertThatThrownBy(() -> parser.nextEvents(e -> { }, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> parser.nextEvents(e -> { }, -1, 1000L))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> parser.nextEvents(e -> { }, 10, 0L))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> parser.nextEvents(e -> { }, 10, -1L))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Test that an array of numbers can be read into a primitive array
+   */
+  @Test
+  public void readDoubleArray() {
+    Random rnd = new Random(1234);
+    List<String> numbers = new ArrayList<>();
+    for (int i = 0; i < 2000; ++i) {
+      switch (i % 5) {
+        case 0:
+          numbers.add(String.valueOf(rnd.nextInt()));
+          break;
+        case 1:
+          numbers.add(String.valueOf(rnd.nextDouble() * 360 - 180));
+          break;
+        case 2:
+          numbers.add(String.valueOf(rnd.nextGaussian() * 1e-10));
+          break;
+        case 3:
+          numbers.add(String.valueOf(rnd.nextLong()) + "123456");
+          break;
+        default:
+          numbers.add(String.format(Locale.ROOT, "%.6f", rnd.nextDouble() * 1000));
+          break;
+      }
+    }
+    numbers.addAll(Arrays.asList("0", "-0", "-0.0", "0.5", "1e5", "1E+5",
+        "-2.5e-3", "1e400", "-1e-400", "123456789012345678901234567890",
+        "0.000000000000000000000000001", "9007199254740993", "1e22", "1e23"));
+    String json = "[" + String.join(" , ", numbers) + "]";
+    byte[] buf = json.getBytes(StandardCharsets.UTF_8);
+
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8, 13));
+    DoubleArrayBuilder values = new DoubleArrayBuilder(4);
+    int i = 0;
+    int event;
+    while ((event = parser.nextEvent()) == JsonEvent.NEED_MORE_INPUT) {
+      i += parser.getFeeder().feed(buf, i, buf.length - i);
+    }
+    assertThat(event).isEqualTo(JsonEvent.START_ARRAY);
+    while ((event = parser.readDoubleArray(values)) == JsonEvent.NEED_MORE_INPUT) {
+      i += parser.getFeeder().feed(buf, i, buf.length - i);
+      if (i == buf.length) {
+        parser.getFeeder().done();
+      }
+    }
+    assertThat(event).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+
+    assertThat(values.size()).isEqualTo(numbers.size());
+    double[] arr = values.toArray();
+    for (int j = 0; j < numbers.size(); ++j) {
+      assertThat(Double.doubleToLongBits(arr[j])).isEqualTo(
+          Double.doubleToLongBits(Double.parseDouble(numbers.get(j))));
+    }
+  }
+
+  /**
+   * Test that reading an array of numbers stops at non-numeric elements
+   */
+  @Test
+  public void readDoubleArrayFallback() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("{\"a\":[1, 2.5,\"x\",3,[4],null,5]}"
+        .getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    DoubleArrayBuilder values = new DoubleArrayBuilder();
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.readDoubleArray(values)).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo("x");
+    assertThat(parser.readDoubleArray(values)).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.getCurrentInt()).isEqualTo(4);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.readDoubleArray(values)).isEqualTo(JsonEvent.VALUE_NULL);
+    assertThat(parser.readDoubleArray(values)).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+    assertThat(values.toArray()).isEqualTo(new double[] { 1, 2.5, 3, 5 });
+  }
+
+  /**
+   * Test that an array of integers can be read into a primitive array
+   */
+  @Test
+  public void readLongArray() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed(("[0,-1,42,9223372036854775807,-9223372036854775808," +
+        "123456789012345678,1e0,7]").getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    LongArrayBuilder values = new LongArrayBuilder();
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.readLongArray(values)).isEqualTo(JsonEvent.VALUE_DOUBLE);
+    assertThat(parser.getCurrentDouble()).isEqualTo(1.0);
+    assertThat(parser.readLongArray(values)).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+    assertThat(values.toArray()).isEqualTo(new long[] { 0, -1, 42,
+        Long.MAX_VALUE, Long.MIN_VALUE, 123456789012345678L, 7 });
+    assertThat(values.get(2)).isEqualTo(42L);
+  }
+
+  /**
+   * Test that reading arrays of numbers does not change the setting made
+   * with {@link JsonParser#setScanNumbers(boolean)}
+   */
+  @Test
+  public void readArrayKeepsScanNumbers() {
+    for (boolean scanNumbers : new boolean[] { true, false }) {
+      JsonParser parser = new JsonParser();
+      parser.setScanNumbers(scanNumbers);
+      parser.getFeeder().feed("[[1,2],[3,\"a\"],[4.5,5".getBytes(
+          StandardCharsets.UTF_8));
+
+      assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+      assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+      assertThat(parser.readLongArray(new LongArrayBuilder()))
+          .isEqualTo(JsonEvent.END_ARRAY);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+
+      // early return on a non-numeric element
+      assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+      assertThat(parser.readLongArray(new LongArrayBuilder()))
+          .isEqualTo(JsonEvent.VALUE_STRING);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+      assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+
+      // return because the parser needs more input
+      assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+      DoubleArrayBuilder values = new DoubleArrayBuilder();
+      assertThat(parser.readDoubleArray(values))
+          .isEqualTo(JsonEvent.NEED_MORE_INPUT);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+      parser.getFeeder().feed("6]]".getBytes(StandardCharsets.UTF_8));
+      parser.getFeeder().done();
+      assertThat(parser.readDoubleArray(values)).isEqualTo(JsonEvent.END_ARRAY);
+      assertThat(parser.isScanNumbers()).isEqualTo(scanNumbers);
+      assertThat(values.toArray()).isEqualTo(new double[] { 4.5, 56 });
+    }
+  }
+
+  /**
+   * Test that reading arrays of numbers restores the setting made with
+   * {@link JsonParser#setScanNumbers(boolean)} if the consumer throws
+   */
+  @Test
+  public void readArrayRestoresScanNumbersOnException() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("[[1],[2]]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThatThrownBy(() -> parser.readLongArray(v -> {
+      throw new IllegalStateException();
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(parser.isScanNumbers()).isFalse();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThatThrownBy(() -> parser.readDoubleArray(v -> {
+      throw new IllegalStateException();
+    })).isInstanceOf(IllegalStateException.class);
+    assertThat(parser.isScanNumbers()).isFalse();
+  }
+
+  /**
+   * Test that number accessors behave the same with and without the fast
+   * path for numbers
+   */
+  @Test
+  public void numberAccessors() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("[2147483648,1e0]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    parser.setScanNumbers(true);
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.getCurrentLong()).isEqualTo(2147483648L);
+    assertThatThrownBy(parser::getCurrentInt).isInstanceOf(NumberFormatException.class);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_DOUBLE);
+    assertThat(parser.getCurrentDouble()).isEqualTo(1.0);
+    assertThatThrownBy(parser::getCurrentLong).isInstanceOf(NumberFormatException.class);
+  }
+
+  /**
+   * Test if valid files can be parsed correctly if characters are only
+   * copied on demand. Feed the parser byte by byte so tokens span several
+   * input windows.
+   * @throws IOException if one of the test files could not be read
+   */
+  @Test
+  public void lazyValues() throws IOException {
+    for (int i = 1; i <= 3; ++i) {
+      URL u = getClass().getResource("pass" + i + ".txt");
+      assert u != null;
+      String json = IOUtils.toString(u, StandardCharsets.UTF_8);
+
+      JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8, 1));
+      parser.setLazyValues(true);
+      assertThat(parser.isLazyValues()).isTrue();
+      if (json.startsWith("{")) {
+        assertJsonObjectEquals(json, parse(json, parser));
+      } else {
+        assertJsonArrayEquals(json, parse(json, parser));
+      }
+
+      parser = new JsonParser();
+      parser.setLazyValues(true);
+      parser.setScanNumbers(true);
+      assertThat(parse(json, parser)).isEqualTo(parse(json));
+    }
+  }
+
+  /**
+   * Make sure no characters are copied into buffers if the values are
+   * not accessed and the input fits into the input window
+   */
+  @Test
+  public void lazyValuesNotCopied() {
+    AtomicInteger appends = new AtomicInteger();
+    class CountingBuffer implements Buffer {
+      @Override
+      public Buffer append(char c) {
+        appends.incrementAndGet();
+        return this;
+      }
+    }
+
+    JsonParser parser = new JsonParser(new DefaultJsonFeeder(StandardCharsets.UTF_8),
+        CountingBuffer::new);
+    parser.setLazyValues(true);
+    parser.getFeeder().feed(("{\"a\":[\"b\\n\",1.5,-2e3,true],\"c\":\"d\"}")
+        .getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+
+    int event;
+    int count = 0;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.VALUE_STRING && count++ == 0) {
+        assertThat(parser.getCurrentString()).isEqualTo("b\\n");
+      } else if (event == JsonEvent.VALUE_DOUBLE) {
+        assertThat(parser.getCurrentDouble()).isIn(1.5, -2000.0);
+      }
+    }
+    assertThat(appends).hasValue(0);
+  }
+
+  /**
+   * Capture an embedded object and continue parsing afterwards
+   */
+  @Test
+  public void captureRawValue() {
+    String payload = "{ \"a\" : [1, 2.5e3, {\"b\":\"x\\\"}\"}], \"c\":null }";
+    String json = "{\"type\":\"msg\",\"payload\":" + payload +
+        ",\"list\":[[1],[2]],\"end\":true}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+    // feed the parser in one chunk and then byte by byte
+    for (int chunkSize : new int[] { bytes.length, 1 }) {
+      JsonParser parser = new JsonParser(new DefaultJsonFeeder(
+          StandardCharsets.UTF_8, chunkSize));
+      StringBuilder raw = new StringBuilder();
+      AtomicInteger slices = new AtomicInteger();
+      Appendable sink = new Appendable() {
+        @Override
+        public Appendable append(CharSequence csq) {
+          slices.incrementAndGet();
+          raw.append(csq);
+          return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+          return append(csq.subSequence(start, end));
+        }
+
+        @Override
+        public Appendable append(char c) {
+          return append(String.valueOf(c));
+        }
+      };
+
+      int i = 0;
+      int event;
+      Appendable target = null;
+      boolean inList = false;
+      String field = null;
+      List<String> fields = new ArrayList<>();
+      StringBuilder list = new StringBuilder();
+      while (true) {
+        event = target != null ? parser.captureRawValue(target) : parser.nextEvent();
+        if (event == JsonEvent.NEED_MORE_INPUT) {
+          if (i < bytes.length) {
+            i += parser.getFeeder().feed(bytes, i, Math.min(chunkSize, bytes.length - i));
+          } else {
+            parser.getFeeder().done();
+          }
+          continue;
+        }
+        assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+        if (event == JsonEvent.EOF) {
+          break;
+        }
+        if (target != null) {
+          assertThat(event).isEqualTo(target == sink ? JsonEvent.END_OBJECT :
+              JsonEvent.END_ARRAY);
+          target = null;
+        } else if (event == JsonEvent.FIELD_NAME) {
+          field = parser.getCurrentString();
+          fields.add(field);
+        } else if (event == JsonEvent.START_OBJECT && "payload".equals(field)) {
+          target = sink;
+        } else if (event == JsonEvent.START_ARRAY && "list".equals(field)) {
+          if (inList && list.length() == 0) {
+            // capture the first element of the list
+            target = list;
+          }
+          inList = true;
+        }
+      }
+
+      assertThat(raw.toString()).isEqualTo(payload);
+      assertThat(list.toString()).isEqualTo("[1]");
+      assertThat(fields).containsExactly("type", "payload", "list", "end");
+      if (chunkSize == 1) {
+        assertThat(slices.get()).isEqualTo(payload.length());
+      } else {
+        assertThat(slices).hasValue(1);
+      }
+    }
+  }
+
+  /**
+   * Make sure raw values can only be captured at the start of an object
+   * or array
+   */
+  @Test
+  public void captureRawValueWrongEvent() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThatThrownBy(() -> parser.captureRawValue(new StringBuilder()))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  /**
+   * Make sure a number is parsed correctly if number scanning is disabled
+   * while the parser is in the middle of it
+   */
+  @Test
+  public void disableScanNumbersInNumber() {
+    JsonParser parser = new JsonParser();
+    parser.setScanNumbers(true);
+    parser.getFeeder().feed("[12".getBytes(StandardCharsets.UTF_8));
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.NEED_MORE_INPUT);
+
+    parser.setScanNumbers(false);
+    assertThat(parser.isScanNumbers()).isFalse();
+    parser.getFeeder().feed("34,56]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.getCurrentLong()).isEqualTo(1234L);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.getCurrentLong()).isEqualTo(56L);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+  }
 }
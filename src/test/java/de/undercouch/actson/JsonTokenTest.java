@@ -0,0 +1,129 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link JsonToken}
+ * @author Michel Kraemer
+ */
+public class JsonTokenTest {
+  /**
+   * Parse a JSON text into tokens
+   * @param json the JSON text
+   * @return the tokens
+   */
+  private static List<JsonToken> tokens(String json) {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed(json.getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    List<JsonToken> result = new ArrayList<>();
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      result.add(JsonToken.of(parser, event));
+    }
+    return result;
+  }
+
+  /**
+   * Create tokens for all kinds of values
+   */
+  @Test
+  public void values() {
+    List<JsonToken> tokens = tokens("{\"a\":[\"b\",1,-2.5,true,false,null," +
+        "123456789012345678901234567890]}");
+    assertThat(tokens).hasSize(12);
+
+    assertThat(tokens.get(0)).isSameAs(tokens("{}").get(0));
+    assertThat(tokens.get(0).getEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(tokens.get(1).getEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(tokens.get(1).getString()).isEqualTo("a");
+    assertThat(tokens.get(2).getEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(tokens.get(3).getEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(tokens.get(3).getString()).isEqualTo("b");
+    assertThat(tokens.get(4).getEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(tokens.get(4).getLong()).isEqualTo(1L);
+    assertThat(tokens.get(4).getDouble()).isEqualTo(1.0);
+    assertThat(tokens.get(4).getBigInteger()).isEqualTo(BigInteger.ONE);
+    assertThat(tokens.get(4).getString()).isNull();
+    assertThat(tokens.get(5).getEvent()).isEqualTo(JsonEvent.VALUE_DOUBLE);
+    assertThat(tokens.get(5).getDouble()).isEqualTo(-2.5);
+    assertThat(tokens.get(6).getEvent()).isEqualTo(JsonEvent.VALUE_TRUE);
+    assertThat(tokens.get(7).getEvent()).isEqualTo(JsonEvent.VALUE_FALSE);
+    assertThat(tokens.get(8).getEvent()).isEqualTo(JsonEvent.VALUE_NULL);
+
+    JsonToken big = tokens.get(9);
+    assertThat(big.getEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(big.getBigInteger()).isEqualTo(
+        new BigInteger("123456789012345678901234567890"));
+    assertThat(big.getDouble()).isEqualTo(1.2345678901234568E29);
+    assertThat(big.getString()).isNull();
+    assertThatThrownBy(big::getLong).isInstanceOf(NumberFormatException.class);
+
+    assertThat(tokens.get(10).getEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(tokens.get(11).getEvent()).isEqualTo(JsonEvent.END_OBJECT);
+  }
+
+  /**
+   * Compare tokens
+   */
+  @Test
+  public void equalsAndHashCode() {
+    List<JsonToken> a = tokens("[\"x\",1,2.5,null]");
+    List<JsonToken> b = tokens("[\"x\",1,2.5,null]");
+    List<JsonToken> c = tokens("[\"y\",2,3.5,true]");
+    for (int i = 0; i < a.size(); ++i) {
+      assertThat(a.get(i)).isEqualTo(b.get(i));
+      assertThat(a.get(i).hashCode()).isEqualTo(b.get(i).hashCode());
+      assertThat(a.get(i).toString()).isEqualTo(b.get(i).toString());
+    }
+    for (int i = 1; i < a.size() - 1; ++i) {
+      assertThat(a.get(i)).isNotEqualTo(c.get(i));
+    }
+    assertThat(a.get(1).toString()).isEqualTo("JsonToken(6, \"x\")");
+  }
+
+  /**
+   * Make sure events without tokens are rejected
+   */
+  @Test
+  public void noToken() {
+    JsonParser parser = new JsonParser();
+    assertThatThrownBy(() -> JsonToken.of(parser, JsonEvent.EOF))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> JsonToken.of(parser, JsonEvent.NEED_MORE_INPUT))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
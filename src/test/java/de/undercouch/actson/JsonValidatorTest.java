@@ -0,0 +1,174 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link JsonValidator}
+ * @author Michel Kraemer
+ */
+public class JsonValidatorTest {
+  /**
+   * Validate the given bytes in one chunk and byte by byte and make sure
+   * both verdicts are the same
+   * @param json the bytes to validate
+   * @param validator the validator to use
+   * @return the verdict
+   */
+  private static boolean validate(byte[] json, JsonValidator validator) {
+    validator.reset();
+    boolean result = validator.feed(json) && validator.done();
+    long errorOffset = validator.getErrorOffset();
+
+    validator.reset();
+    boolean ok = true;
+    for (int i = 0; i < json.length && ok; ++i) {
+      ok = validator.feed(json, i, 1);
+    }
+    assertThat(ok && validator.done()).isEqualTo(result);
+    assertThat(validator.getErrorOffset()).isEqualTo(errorOffset);
+    return result;
+  }
+
+  private static boolean validate(String json) {
+    return validate(json.getBytes(StandardCharsets.UTF_8), new JsonValidator());
+  }
+
+  /**
+   * Test if valid files are accepted
+   * @throws IOException if one of the test files could not be read
+   */
+  @Test
+  public void testPass() throws IOException {
+    for (int i = 1; i <= 3; ++i) {
+      URL u = getClass().getResource("pass" + i + ".txt");
+      assert u != null;
+      assertThat(validate(IOUtils.toByteArray(u), new JsonValidator())).isTrue();
+    }
+  }
+
+  /**
+   * Test if invalid files are rejected
+   * @throws IOException if one of the test files could not be read
+   */
+  @Test
+  public void testFail() throws IOException {
+    JsonValidator validator = new JsonValidator();
+    validator.setMaxDepth(16);
+    assertThat(validator.getMaxDepth()).isEqualTo(16);
+    for (int i = 2; i <= 34; ++i) {
+      URL u = getClass().getResource("fail" + i + ".txt");
+      assert u != null;
+      assertThat(validate(IOUtils.toByteArray(u), validator)).isFalse();
+    }
+  }
+
+  /**
+   * Test top-level values and incomplete texts
+   */
+  @Test
+  public void topLevel() {
+    assertThat(validate("0")).isTrue();
+    assertThat(validate("-12.5e+3 ")).isTrue();
+    assertThat(validate("\"\"")).isTrue();
+    assertThat(validate(" null")).isTrue();
+    assertThat(validate("")).isFalse();
+    assertThat(validate(" ")).isFalse();
+    assertThat(validate("1e")).isFalse();
+    assertThat(validate("1.")).isFalse();
+    assertThat(validate("[1,2")).isFalse();
+    assertThat(validate("{\"a\":1}}")).isFalse();
+    assertThat(validate("1 2")).isFalse();
+  }
+
+  /**
+   * Test if the offset of the first invalid byte is reported
+   */
+  @Test
+  public void errorOffset() {
+    JsonValidator validator = new JsonValidator();
+    assertThat(validator.feed("{\"a\":".getBytes(StandardCharsets.UTF_8))).isTrue();
+    assertThat(validator.getErrorOffset()).isEqualTo(-1L);
+    assertThat(validator.feed("[1,]}".getBytes(StandardCharsets.UTF_8))).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(8L);
+    assertThat(validator.done()).isFalse();
+
+    validator.reset();
+    assertThat(validator.feed("[[]".getBytes(StandardCharsets.UTF_8))).isTrue();
+    assertThat(validator.done()).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(3L);
+  }
+
+  /**
+   * Test if UTF-8 sequences are validated
+   */
+  @Test
+  public void utf8() {
+    assertThat(validate("[\"ä€😀\"]")).isTrue();
+
+    JsonValidator validator = new JsonValidator();
+    // overlong encoding of '/'
+    assertThat(validate(new byte[] { '"', (byte)0xc0, (byte)0xaf, '"' }, validator)).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(1L);
+    // overlong three-byte sequence
+    assertThat(validate(new byte[] { '"', (byte)0xe0, (byte)0x80, (byte)0xaf, '"' },
+        validator)).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(2L);
+    // surrogate
+    assertThat(validate(new byte[] { '"', (byte)0xed, (byte)0xa0, (byte)0x80, '"' },
+        validator)).isFalse();
+    // larger than U+10FFFF
+    assertThat(validate(new byte[] { '"', (byte)0xf4, (byte)0x90, (byte)0x80,
+        (byte)0x80, '"' }, validator)).isFalse();
+    // truncated sequence
+    assertThat(validate(new byte[] { '"', (byte)0xe2, (byte)0x82, '"' }, validator)).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(3L);
+    // non-ASCII character outside a string
+    assertThat(validate(new byte[] { '[', (byte)0xc3, (byte)0xa4, ']' }, validator)).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(1L);
+  }
+
+  /**
+   * Test if the maximum depth is enforced
+   */
+  @Test
+  public void maxDepth() {
+    JsonValidator validator = new JsonValidator();
+    validator.setMaxDepth(4);
+    byte[] ok = "[[[1]]]".getBytes(StandardCharsets.UTF_8);
+    byte[] tooDeep = "[[[[1]]]]".getBytes(StandardCharsets.UTF_8);
+    assertThat(validate(ok, validator)).isTrue();
+    assertThat(validate(tooDeep, validator)).isFalse();
+    assertThat(validator.getErrorOffset()).isEqualTo(3L);
+  }
+}
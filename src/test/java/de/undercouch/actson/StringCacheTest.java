@@ -0,0 +1,135 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link StringCache}
+ * @author Michel Kraemer
+ */
+public class StringCacheTest {
+  /**
+   * Parse a JSON text and collect all field names and string values
+   * @param json the JSON text
+   * @param parser the parser
+   * @return the field names and string values
+   */
+  private static List<String> parse(String json, JsonParser parser) {
+    parser.getFeeder().feed(json.getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    List<String> result = new ArrayList<>();
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.FIELD_NAME || event == JsonEvent.VALUE_STRING) {
+        result.add(parser.getCurrentString());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Test that repeated values resolve to the same instance
+   */
+  @Test
+  public void deduplicate() {
+    StringCache cache = new StringCache(16, 8);
+    JsonParser parser = new JsonParser();
+    parser.setStringCache(cache);
+    assertThat(parser.getStringCache()).isSameAs(cache);
+
+    List<String> r = parse("[{\"status\":\"OK\"},{\"status\":\"FAILED\"}," +
+        "{\"status\":\"OK\"},{\"status\":\"a long value\"}," +
+        "{\"status\":\"a long value\"}]", parser);
+    assertThat(r).containsExactly("status", "OK", "status", "FAILED",
+        "status", "OK", "status", "a long value", "status", "a long value");
+
+    assertThat(r.get(0)).isSameAs(r.get(2));
+    assertThat(r.get(0)).isSameAs(r.get(8));
+    assertThat(r.get(1)).isSameAs(r.get(5));
+
+    // long values are not cached
+    assertThat(r.get(7)).isNotSameAs(r.get(9));
+
+    // all short strings have been looked up, and at least the second "OK"
+    // and the last three "status" names must have been hits
+    assertThat(cache.getHits() + cache.getMisses()).isEqualTo(8L);
+    assertThat(cache.getHits()).isGreaterThanOrEqualTo(4L);
+    assertThat(cache.getHitRate()).isEqualTo(
+        (double)cache.getHits() / (cache.getHits() + cache.getMisses()));
+
+    cache.clear();
+    assertThat(cache.getHits()).isEqualTo(0L);
+    assertThat(cache.getMisses()).isEqualTo(0L);
+    assertThat(cache.getHitRate()).isEqualTo(0.0);
+  }
+
+  /**
+   * Test that strings mapped to the same slot replace each other
+   */
+  @Test
+  public void collision() {
+    // "Aa" and "BB" have the same hash code
+    StringCache cache = new StringCache(1, 8);
+    JsonParser parser = new JsonParser();
+    parser.setStringCache(cache);
+    List<String> r = parse("[\"Aa\",\"BB\",\"Aa\",\"Aa\"]", parser);
+    assertThat(r).containsExactly("Aa", "BB", "Aa", "Aa");
+    assertThat(r.get(0)).isNotSameAs(r.get(2));
+    assertThat(r.get(2)).isSameAs(r.get(3));
+    assertThat(cache.getHits()).isEqualTo(1L);
+    assertThat(cache.getMisses()).isEqualTo(3L);
+  }
+
+  /**
+   * Test that the cache works with escape sequences
+   */
+  @Test
+  public void unescape() {
+    JsonParser parser = new JsonParser();
+    parser.setStringCache(new StringCache());
+    parser.setUnescapeStrings(true);
+    List<String> r = parse("[\"a\\nb\",\"a\\u000ab\"]", parser);
+    assertThat(r).containsExactly("a\nb", "a\nb");
+    assertThat(r.get(0)).isSameAs(r.get(1));
+  }
+
+  /**
+   * Test that invalid sizes are rejected
+   */
+  @Test
+  public void invalidSize() {
+    assertThatThrownBy(() -> new StringCache(0, 8))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,257 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.bind;
+
+import de.undercouch.actson.FieldNameTable;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link Binder} and {@link BindingReader}
+ * @author Michel Kraemer
+ */
+public class BinderTest {
+  public enum Color {
+    RED, GREEN
+  }
+
+  public static class Point {
+    public long x;
+    public double y;
+    private Color color;
+    private int setterCalls;
+
+    public Color getColor() {
+      return color;
+    }
+
+    public void setColor(Color color) {
+      this.color = color;
+      ++setterCalls;
+    }
+  }
+
+  public static class Shape {
+    public String name;
+    public boolean closed;
+    public Integer layer;
+    public float weight;
+    public Point origin;
+    public List<Point> points;
+    public List<List<Long>> matrix;
+    public transient String ignored;
+  }
+
+  public static class Unsupported {
+    public Object value;
+  }
+
+  /**
+   * Create a parser and feed it the given JSON text completely
+   */
+  private static JsonParser parser(String json) {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed(json.getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    return parser;
+  }
+
+  /**
+   * Bind a simple object
+   */
+  @Test
+  public void simple() {
+    JsonParser parser = parser("{\"x\":1,\"y\":2,\"color\":\"GREEN\"}");
+    BindingReader<Point> reader = new Binder<>(Point.class).newReader(parser);
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_OBJECT);
+    Point p = reader.getValue();
+    assertThat(p.x).isEqualTo(1L);
+    assertThat(p.y).isEqualTo(2.0);
+    assertThat(p.getColor()).isEqualTo(Color.GREEN);
+    assertThat(p.setterCalls).isEqualTo(1);
+    assertThat(reader.read()).isEqualTo(JsonEvent.EOF);
+  }
+
+  /**
+   * Make sure escaped strings and enum constants are decoded
+   */
+  @Test
+  public void escapedValues() {
+    JsonParser parser = parser("{\"name\":\"n\\u00e4\\n\"," +
+        "\"origin\":{\"color\":\"\\u0052ED\"}}");
+    BindingReader<Shape> reader = new Binder<>(Shape.class).newReader(parser);
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_OBJECT);
+    Shape s = reader.getValue();
+    assertThat(s.name).isEqualTo("n\u00e4\n");
+    assertThat(s.origin.getColor()).isEqualTo(Color.RED);
+  }
+
+  /**
+   * Make sure escaped field names are found
+   */
+  @Test
+  public void escapedKeys() {
+    JsonParser parser = parser("{\"\\u0078\":1,\"\\u0079\":2.5}");
+    BindingReader<Point> reader = new Binder<>(Point.class).newReader(parser);
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_OBJECT);
+    Point p = reader.getValue();
+    assertThat(p.x).isEqualTo(1L);
+    assertThat(p.y).isEqualTo(2.5);
+  }
+
+  /**
+   * Make sure a field name table registered by the caller is not
+   * overwritten
+   */
+  @Test
+  public void existingFieldNameTable() {
+    JsonParser parser = parser("{}");
+    FieldNameTable table = new FieldNameTable("a");
+    parser.setFieldNameTable(table);
+    Binder<Point> binder = new Binder<>(Point.class);
+    assertThatThrownBy(() -> binder.newReader(parser))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(parser.getFieldNameTable()).isSameAs(table);
+
+    // the binder's own table may be registered already
+    JsonParser parser2 = parser("{\"x\":1}");
+    binder.newReader(parser2);
+    BindingReader<Point> reader = binder.newReader(parser2);
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_OBJECT);
+    assertThat(reader.getValue().x).isEqualTo(1L);
+  }
+
+  /**
+   * Bind nested objects, lists, and skip unknown fields
+   */
+  @Test
+  public void nested() {
+    JsonParser parser = parser("{\"name\":\"tri\",\"closed\":true,\"layer\":null," +
+        "\"unknown\":{\"a\":[1,{\"b\":[]}]},\"weight\":0.5," +
+        "\"origin\":{\"x\":-1,\"y\":1.5}," +
+        "\"points\":[{\"x\":1},{\"y\":2,\"unknown\":3},{}]," +
+        "\"ignored\":\"x\",\"matrix\":[[1,2],[],[3]]}");
+    BindingReader<Shape> reader = new Binder<>(Shape.class).newReader(parser);
+
+    assertThat(reader.read()).isEqualTo(JsonEvent.END_OBJECT);
+    Shape s = reader.getValue();
+    assertThat(s.name).isEqualTo("tri");
+    assertThat(s.closed).isTrue();
+    assertThat(s.layer).isNull();
+    assertThat(s.weight).isEqualTo(0.5f);
+    assertThat(s.origin.x).isEqualTo(-1L);
+    assertThat(s.origin.y).isEqualTo(1.5);
+    assertThat(s.points).hasSize(3);
+    assertThat(s.points.get(0).x).isEqualTo(1L);
+    assertThat(s.points.get(1).y).isEqualTo(2.0);
+    assertThat(s.points.get(2).getColor()).isNull();
+    assertThat(s.ignored).isNull();
+    assertThat(s.matrix).isEqualTo(Arrays.asList(Arrays.asList(1L, 2L),
+        Arrays.asList(), Arrays.asList(3L)));
+  }
+
+  /**
+   * Bind all elements of an array while feeding the parser byte by byte
+   */
+  @Test
+  public void arrayIncrementally() {
+    byte[] json = ("[{\"x\":1,\"y\":1},{\"x\":2,\"y\":0.25}," +
+        "{\"x\":3,\"color\":\"RED\"}]").getBytes(StandardCharsets.UTF_8);
+    JsonParser parser = new JsonParser();
+    BindingReader<Point> reader = new Binder<>(Point.class).newReader(parser);
+
+    int i = 0;
+    int event;
+    long sumX = 0;
+    double sumY = 0;
+    int count = 0;
+    while (true) {
+      event = reader.read();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        if (i < json.length) {
+          parser.getFeeder().feed(json[i++]);
+        } else {
+          parser.getFeeder().done();
+        }
+      } else if (event == JsonEvent.END_OBJECT) {
+        sumX += reader.getValue().x;
+        sumY += reader.getValue().y;
+        ++count;
+      } else if (event != JsonEvent.START_ARRAY) {
+        break;
+      }
+    }
+
+    assertThat(event).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(count).isEqualTo(3);
+    assertThat(sumX).isEqualTo(6L);
+    assertThat(sumY).isEqualTo(1.25);
+  }
+
+  /**
+   * Make sure values that do not match their property are reported
+   */
+  @Test
+  public void typeMismatch() {
+    BindingReader<Point> reader = new Binder<>(Point.class).newReader(
+        parser("{\"x\":1.5}"));
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+    assertThat(reader.getErrorMessage()).isEqualTo("Unexpected value for " +
+        "property \"x\" of " + Point.class.getName());
+
+    reader = new Binder<>(Point.class).newReader(parser("{\"y\":null}"));
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+
+    reader = new Binder<>(Point.class).newReader(parser("{\"color\":\"BLUE\"}"));
+    assertThat(reader.read()).isEqualTo(JsonEvent.ERROR);
+
+    BindingReader<Shape> shapeReader = new Binder<>(Shape.class).newReader(
+        parser("{\"points\":[1]}"));
+    assertThat(shapeReader.read()).isEqualTo(JsonEvent.ERROR);
+    assertThat(shapeReader.getErrorMessage()).isEqualTo("Unexpected list element");
+  }
+
+  /**
+   * Make sure unsupported classes are rejected when the binder is created
+   */
+  @Test
+  public void unsupported() {
+    assertThatThrownBy(() -> new Binder<>(Unsupported.class))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new Binder<>(String.class))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
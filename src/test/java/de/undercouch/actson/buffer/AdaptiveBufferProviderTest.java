@@ -0,0 +1,141 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.buffer;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link AdaptiveBufferProvider}
+ * @author Michel Kraemer
+ */
+public class AdaptiveBufferProviderTest {
+  /**
+   * Simulate a value with the given length
+   * @param provider the provider to get the buffer from
+   * @param length the length of the value
+   */
+  private static void value(AdaptiveBufferProvider provider, int length) {
+    Buffer buf = provider.newBuffer();
+    for (int i = 0; i < length; ++i) {
+      buf.append('a');
+    }
+  }
+
+  /**
+   * Test that the buffer is shrunk after a large value
+   */
+  @Test
+  public void shrink() {
+    AdaptiveBufferProvider provider = new AdaptiveBufferProvider(16, 4, 4);
+    assertThat(provider.getCapacity()).isEqualTo(16);
+
+    value(provider, 10000);
+    value(provider, 5);
+    assertThat(provider.getCapacity()).isGreaterThanOrEqualTo(10000);
+
+    value(provider, 5);
+    value(provider, 5);
+    value(provider, 5);
+    assertThat(provider.getCapacity()).isGreaterThanOrEqualTo(10000);
+
+    // the next window does not contain the large value anymore
+    for (int i = 0; i < 4; ++i) {
+      value(provider, 5);
+    }
+    assertThat(provider.getCapacity()).isEqualTo(16);
+    assertThat(provider.getShrinkCount()).isEqualTo(1L);
+    assertThat(provider.getHighWaterMark()).isEqualTo(10000);
+    assertThat(provider.getBufferCount()).isEqualTo(9L);
+  }
+
+  /**
+   * Test that the buffer is not shrunk if recent values still need its
+   * capacity
+   */
+  @Test
+  public void noShrink() {
+    AdaptiveBufferProvider provider = new AdaptiveBufferProvider(16, 4, 4);
+    for (int i = 0; i < 20; ++i) {
+      value(provider, i % 4 == 0 ? 1000 : 5);
+    }
+    assertThat(provider.getCapacity()).isGreaterThanOrEqualTo(1000);
+    assertThat(provider.getShrinkCount()).isEqualTo(0L);
+  }
+
+  /**
+   * Test that invalid parameters are rejected
+   */
+  @Test
+  public void invalidParameters() {
+    assertThatThrownBy(() -> new AdaptiveBufferProvider(0, 4, 4))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new AdaptiveBufferProvider(16, 0, 4))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new AdaptiveBufferProvider(16, 4, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Test that the provider can be used by the parser
+   */
+  @Test
+  public void parse() {
+    AdaptiveBufferProvider provider = new AdaptiveBufferProvider(16, 2, 2);
+    JsonParser parser = new JsonParser(
+        new DefaultJsonFeeder(StandardCharsets.UTF_8), provider);
+
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 500; ++i) {
+      large.append('x');
+    }
+    byte[] json = ("[\"" + large + "\",\"a\",\"b\",\"c\"]")
+        .getBytes(StandardCharsets.UTF_8);
+    parser.getFeeder().feed(json);
+    parser.getFeeder().done();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo(large.toString());
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo("a");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo("b");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo("c");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+
+    assertThat(provider.getHighWaterMark()).isEqualTo(500);
+    assertThat(provider.getCapacity()).isEqualTo(16);
+  }
+}
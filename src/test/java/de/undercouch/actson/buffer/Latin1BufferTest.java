@@ -0,0 +1,139 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.buffer;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link Latin1Buffer}
+ * @author Michel Kraemer
+ */
+public class Latin1BufferTest {
+  /**
+   * Append all characters of a string to a buffer
+   * @param buf the buffer
+   * @param s the string
+   */
+  private static void append(Latin1Buffer buf, String s) {
+    for (int i = 0; i < s.length(); ++i) {
+      buf.append(s.charAt(i));
+    }
+  }
+
+  /**
+   * Test that ASCII and Latin-1 characters are stored as bytes
+   */
+  @Test
+  public void latin1() {
+    Latin1Buffer buf = new Latin1Buffer(2);
+    append(buf, "Hello Wörld ÿ");
+    assertThat(buf.isLatin1()).isTrue();
+    assertThat(buf.length()).isEqualTo(13);
+    assertThat(buf.toString()).isEqualTo("Hello Wörld ÿ");
+  }
+
+  /**
+   * Test that the buffer switches to characters if necessary
+   */
+  @Test
+  public void inflate() {
+    Latin1Buffer buf = new Latin1Buffer(2);
+    append(buf, "Bjö");
+    append(buf, "œrn 😀");
+    assertThat(buf.isLatin1()).isFalse();
+    assertThat(buf.toString()).isEqualTo("Bjöœrn 😀");
+  }
+
+  /**
+   * Test that the buffer switches back to bytes when it is cleared
+   */
+  @Test
+  public void clear() {
+    Latin1Buffer buf = new Latin1Buffer();
+    append(buf, "œ");
+    assertThat(buf.isLatin1()).isFalse();
+    buf.clear();
+    assertThat(buf.isLatin1()).isTrue();
+    assertThat(buf.toString()).isEqualTo("");
+    append(buf, "abc");
+    assertThat(buf.isLatin1()).isTrue();
+    assertThat(buf.toString()).isEqualTo("abc");
+    append(buf, "œ");
+    assertThat(buf.toString()).isEqualTo("abcœ");
+  }
+
+  /**
+   * Test that the buffer can be used by the parser
+   */
+  @Test
+  public void parse() {
+    JsonParser parser = new JsonParser(
+        new DefaultJsonFeeder(StandardCharsets.UTF_8),
+        new Latin1BufferProvider());
+    byte[] json = "{\"name\":\"Bjœrn\",\"age\":42}"
+        .getBytes(StandardCharsets.UTF_8);
+    parser.getFeeder().feed(json);
+    parser.getFeeder().done();
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentString()).isEqualTo("name");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(parser.getCurrentString()).isEqualTo("Bjœrn");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.FIELD_NAME);
+    assertThat(parser.getCurrentString()).isEqualTo("age");
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(parser.getCurrentInt()).isEqualTo(42);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.END_OBJECT);
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.EOF);
+  }
+
+  /**
+   * Test that characters can be appended in bulk
+   */
+  @Test
+  public void bulkAppend() {
+    Latin1Buffer buf = new Latin1Buffer(2);
+    char[] chars = "xxHello Wörldxx".toCharArray();
+    buf.append(chars, 2, 11);
+    assertThat(buf.isLatin1()).isTrue();
+    assertThat(buf.toString()).isEqualTo("Hello Wörld");
+
+    chars = "-Bjœrn-".toCharArray();
+    buf.append(chars, 1, 5);
+    assertThat(buf.isLatin1()).isFalse();
+    assertThat(buf.toString()).isEqualTo("Hello WörldBjœrn");
+
+    buf.append("!!");
+    assertThat(buf.toString()).isEqualTo("Hello WörldBjœrn!!");
+  }
+}
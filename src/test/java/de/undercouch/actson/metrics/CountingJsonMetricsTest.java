@@ -0,0 +1,241 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.buffer.BufferProvider;
+import de.undercouch.actson.buffer.DefaultBufferProvider;
+import de.undercouch.actson.buffer.Latin1BufferProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link CountingJsonMetrics}
+ * @author Michel Kraemer
+ */
+public class CountingJsonMetricsTest {
+  /**
+   * Parse a JSON text with the given parser
+   * @param parser the parser
+   * @param json the JSON text
+   */
+  private static void parse(JsonParser parser, String json) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    int pos = 0;
+    int event;
+    while ((event = parser.nextEvent()) != JsonEvent.EOF) {
+      assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        if (pos < bytes.length) {
+          pos += parser.getFeeder().feed(bytes, pos, bytes.length - pos);
+        } else {
+          parser.getFeeder().done();
+        }
+      }
+    }
+  }
+
+  private static JsonParser newParser(CountingJsonMetrics metrics, int capacity) {
+    DefaultJsonFeeder feeder = new DefaultJsonFeeder(StandardCharsets.UTF_8, capacity);
+    feeder.setMetrics(metrics);
+    JsonParser parser = new JsonParser(feeder);
+    parser.setMetrics(metrics);
+    assertThat(feeder.getMetrics()).isSameAs(metrics);
+    assertThat(parser.getMetrics()).isSameAs(metrics);
+    return parser;
+  }
+
+  /**
+   * Count bytes, characters, and events
+   */
+  @Test
+  public void counts() {
+    CountingJsonMetrics metrics = new CountingJsonMetrics();
+    String json = "{\"name\":\"Grüße\",\"values\":[1,2.5,true,false,null]}";
+    parse(newParser(metrics, 1024), json);
+
+    assertThat(metrics.getBytesFed()).isEqualTo(
+        (long)json.getBytes(StandardCharsets.UTF_8).length);
+    assertThat(metrics.getCharsDecoded()).isEqualTo((long)json.length());
+    assertThat(metrics.getFeedRejections()).isEqualTo(0L);
+    assertThat(metrics.getEventCount(JsonEvent.START_OBJECT)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.END_OBJECT)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.START_ARRAY)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.END_ARRAY)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.FIELD_NAME)).isEqualTo(2L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_STRING)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_INT)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_DOUBLE)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_TRUE)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_FALSE)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_NULL)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.EOF)).isEqualTo(1L);
+    assertThat(metrics.getEventCount(JsonEvent.ERROR)).isEqualTo(0L);
+    assertThat(metrics.getNeedMoreInputCount()).isEqualTo(2L);
+    assertThat(metrics.getEventCounts().get("FIELD_NAME")).isEqualTo(2L);
+    assertThat(metrics.getEventCounts().get("EOF")).isEqualTo(1L);
+    assertThat(metrics.getMaxDepth()).isEqualTo(2);
+
+    metrics.reset();
+    assertThat(metrics.getBytesFed()).isEqualTo(0L);
+    assertThat(metrics.getEventCount(JsonEvent.FIELD_NAME)).isEqualTo(0L);
+    assertThat(metrics.getMaxDepth()).isEqualTo(0);
+  }
+
+  /**
+   * Count how often the feeder was full
+   */
+  @Test
+  public void feedRejections() {
+    CountingJsonMetrics metrics = new CountingJsonMetrics();
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 100; ++i) {
+      sb.append(i).append(',');
+    }
+    sb.append("100]");
+    parse(newParser(metrics, 16), sb.toString());
+
+    assertThat(metrics.getBytesFed()).isEqualTo((long)sb.length());
+    assertThat(metrics.getFeedRejections()).isGreaterThan(0L);
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_INT)).isEqualTo(101L);
+  }
+
+  /**
+   * Track the length of the largest token
+   */
+  @Test
+  public void largestToken() {
+    for (boolean scanNumbers : new boolean[] { false, true }) {
+      CountingJsonMetrics metrics = new CountingJsonMetrics();
+      JsonParser parser = newParser(metrics, 1024);
+      parser.setScanNumbers(scanNumbers);
+      parse(parser, "[\"abc\",123456,{\"a\":1}]");
+      // "abc" including quotes
+      assertThat(metrics.getLargestToken()).isEqualTo(6);
+
+      metrics.reset();
+      parser = newParser(metrics, 1024);
+      parser.setScanNumbers(scanNumbers);
+      parse(parser, "[\"abc\",12345678 ]");
+      assertThat(metrics.getLargestToken()).isEqualTo(8);
+
+      metrics.reset();
+      parser = newParser(metrics, 1024);
+      parser.setScanNumbers(scanNumbers);
+      parse(parser, "-1234.5e10");
+      assertThat(metrics.getLargestToken()).isEqualTo(10);
+    }
+  }
+
+  /**
+   * Track the nesting depth and the growth of the parser's stack
+   */
+  @Test
+  public void depthAndBufferGrowth() {
+    CountingJsonMetrics metrics = new CountingJsonMetrics();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 40; ++i) {
+      sb.append(i % 2 == 0 ? "[" : "{\"a\":");
+    }
+    sb.append("1");
+    for (int i = 39; i >= 0; --i) {
+      sb.append(i % 2 == 0 ? "]" : "}");
+    }
+    parse(newParser(metrics, 1024), sb.toString());
+
+    assertThat(metrics.getMaxDepth()).isEqualTo(40);
+    assertThat(metrics.getBufferGrowths()).isEqualTo(2L);
+  }
+
+  /**
+   * Track the growth of the buffer that collects the characters of tokens
+   */
+  @Test
+  public void tokenBufferGrowth() {
+    StringBuilder sb = new StringBuilder("[\"");
+    for (int i = 0; i < 1000; ++i) {
+      sb.append('x');
+    }
+    sb.append("\"]");
+
+    BufferProvider[] providers = new BufferProvider[] {
+        new DefaultBufferProvider(), new Latin1BufferProvider() };
+    for (BufferProvider provider : providers) {
+      CountingJsonMetrics metrics = new CountingJsonMetrics();
+      JsonParser parser = new JsonParser(new DefaultJsonFeeder(
+          StandardCharsets.UTF_8, 1024), provider);
+      parser.setMetrics(metrics);
+      parse(parser, "[\"short\"]");
+      assertThat(metrics.getBufferGrowths()).isEqualTo(0L);
+      parser = new JsonParser(new DefaultJsonFeeder(
+          StandardCharsets.UTF_8, 1024), provider);
+      parser.setMetrics(metrics);
+      parse(parser, sb.toString());
+      assertThat(metrics.getBufferGrowths()).isGreaterThan(0L);
+    }
+  }
+
+  /**
+   * Share metrics between several parsers
+   */
+  @Test
+  public void shared() {
+    CountingJsonMetrics metrics = new CountingJsonMetrics();
+    parse(newParser(metrics, 1024), "[1,2]");
+    parse(newParser(metrics, 1024), "[3]");
+    assertThat(metrics.getEventCount(JsonEvent.VALUE_INT)).isEqualTo(3L);
+    assertThat(metrics.getEventCount(JsonEvent.EOF)).isEqualTo(2L);
+  }
+
+  /**
+   * Read the counters through JMX
+   * @throws Exception if the MBean could not be registered
+   */
+  @Test
+  public void jmx() throws Exception {
+    CountingJsonMetrics metrics = new CountingJsonMetrics();
+    parse(newParser(metrics, 1024), "[[1],[2,[3]]]");
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("de.undercouch.actson:type=JsonMetrics,name=test");
+    server.registerMBean(metrics, name);
+    try {
+      assertThat(server.getAttribute(name, "BytesFed")).isEqualTo(13L);
+      assertThat(server.getAttribute(name, "MaxDepth")).isEqualTo(3);
+      server.invoke(name, "reset", null, null);
+      assertThat(server.getAttribute(name, "BytesFed")).isEqualTo(0L);
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
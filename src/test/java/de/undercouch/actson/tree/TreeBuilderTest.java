@@ -0,0 +1,217 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.tree;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link TreeBuilder}
+ * @author Michel Kraemer
+ */
+public class TreeBuilderTest {
+  /**
+   * A tree model that creates Jackson nodes
+   */
+  private static class JacksonTreeModel implements TreeModel<JsonNode> {
+    private final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    @Override
+    public JsonNode nullNode() {
+      return factory.nullNode();
+    }
+
+    @Override
+    public JsonNode booleanNode(boolean value) {
+      return factory.booleanNode(value);
+    }
+
+    @Override
+    public JsonNode longNode(long value) {
+      if (value == (int)value) {
+        return factory.numberNode((int)value);
+      }
+      return factory.numberNode(value);
+    }
+
+    @Override
+    public JsonNode bigIntegerNode(BigInteger value) {
+      return factory.numberNode(value);
+    }
+
+    @Override
+    public JsonNode doubleNode(double value) {
+      return factory.numberNode(value);
+    }
+
+    @Override
+    public JsonNode stringNode(String value) {
+      return factory.textNode(value);
+    }
+
+    @Override
+    public JsonNode objectNode(String[] keys, Object[] values, int offset, int size) {
+      Map<String, JsonNode> children = new LinkedHashMap<>(size + size / 3 + 1);
+      for (int i = offset; i < offset + size; ++i) {
+        children.put(keys[i], (JsonNode)values[i]);
+      }
+      return new ObjectNode(factory, children);
+    }
+
+    @Override
+    public JsonNode arrayNode(Object[] values, int offset, int size) {
+      ArrayNode result = factory.arrayNode(size);
+      for (int i = offset; i < offset + size; ++i) {
+        result.add((JsonNode)values[i]);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Build a tree from the given bytes. Feed the parser as much as it accepts.
+   */
+  private static <N> N build(byte[] json, TreeModel<N> model) {
+    JsonParser parser = new JsonParser();
+    TreeBuilder<N> builder = new TreeBuilder<>(parser, model);
+    int i = 0;
+    int event;
+    while ((event = builder.read()) == JsonEvent.NEED_MORE_INPUT) {
+      if (i < json.length) {
+        i += parser.getFeeder().feed(json, i, json.length - i);
+      } else {
+        parser.getFeeder().done();
+      }
+    }
+    assertThat(event).isNotEqualTo(JsonEvent.ERROR);
+    assertThat(event).isNotEqualTo(JsonEvent.EOF);
+    N result = builder.getValue();
+    parser.getFeeder().done();
+    assertThat(builder.read()).isEqualTo(JsonEvent.EOF);
+    return result;
+  }
+
+  /**
+   * Build trees of the test files and compare them with the trees Jackson
+   * creates
+   * @throws IOException if a test file could not be read
+   */
+  @Test
+  public void jackson() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    for (int i = 1; i <= 3; ++i) {
+      URL u = getClass().getResource("/de/undercouch/actson/pass" + i + ".txt");
+      byte[] json = IOUtils.toByteArray(u);
+      JsonNode expected = mapper.readTree(json);
+      assertThat(build(json, new JacksonTreeModel())).isEqualTo(expected);
+      assertThat(mapper.readTree(build(json, Node.MODEL).toString()))
+          .isEqualTo(expected);
+    }
+  }
+
+  /**
+   * Build a compact tree and access its nodes
+   */
+  @Test
+  public void compact() {
+    Node n = build(("{\"a\":[1,2.5,\"x\",true,null,123456789012345678901]," +
+        "\"b\":{\"c\":{}},\"a\":[]}").getBytes(StandardCharsets.UTF_8),
+        Node.MODEL);
+    assertThat(n.getType()).isEqualTo(Node.OBJECT);
+    assertThat(n.size()).isEqualTo(3);
+    assertThat(n.getKey(1)).isEqualTo("b");
+    assertThat(n.get("a").size()).isEqualTo(0);
+
+    Node a = n.get(0);
+    assertThat(a.get(0).asLong()).isEqualTo(1L);
+    assertThat(a.get(1).asDouble()).isEqualTo(2.5);
+    assertThat(a.get(2).asString()).isEqualTo("x");
+    assertThat(a.get(3).asBoolean()).isTrue();
+    assertThat(a.get(4).isNull()).isTrue();
+    assertThat(a.get(5).getType()).isEqualTo(Node.INT);
+    assertThat(n.get("b").get("c").getType()).isEqualTo(Node.OBJECT);
+    assertThat(n.get("missing")).isNull();
+    assertThat(n.toString()).isEqualTo("{\"a\":[1,2.5,\"x\",true,null," +
+        "123456789012345678901],\"b\":{\"c\":{}},\"a\":[]}");
+  }
+
+  /**
+   * Build maps and lists and make sure repeated keys are shared
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void collections() {
+    Object o = build("[{\"key\":1},{\"key\":\"v\"},[false,1.5]]"
+        .getBytes(StandardCharsets.UTF_8), CollectionsTreeModel.INSTANCE);
+    List<Object> l = (List<Object>)o;
+    assertThat(l).hasSize(3);
+    Map<String, Object> m0 = (Map<String, Object>)l.get(0);
+    Map<String, Object> m1 = (Map<String, Object>)l.get(1);
+    assertThat(m0).containsEntry("key", 1L);
+    assertThat(m1).containsEntry("key", "v");
+    assertThat(m0.keySet().iterator().next())
+        .isSameAs(m1.keySet().iterator().next());
+    assertThat(l.get(2)).isEqualTo(Arrays.asList(false, 1.5));
+  }
+
+  /**
+   * Build the elements of an array one by one and build top-level scalars
+   */
+  @Test
+  public void elements() {
+    JsonParser parser = new JsonParser();
+    parser.getFeeder().feed("[1,{\"a\":[]},\"s\"]".getBytes(StandardCharsets.UTF_8));
+    parser.getFeeder().done();
+    TreeBuilder<Node> builder = new TreeBuilder<>(parser, Node.MODEL);
+
+    assertThat(parser.nextEvent()).isEqualTo(JsonEvent.START_ARRAY);
+    assertThat(builder.read()).isEqualTo(JsonEvent.VALUE_INT);
+    assertThat(builder.getValue().asLong()).isEqualTo(1L);
+    assertThat(builder.read()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(builder.getValue().toString()).isEqualTo("{\"a\":[]}");
+    assertThat(builder.read()).isEqualTo(JsonEvent.VALUE_STRING);
+    assertThat(builder.getValue().asString()).isEqualTo("s");
+    assertThat(builder.read()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(builder.read()).isEqualTo(JsonEvent.EOF);
+  }
+}
@@ -0,0 +1,180 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.metrics;
+
+import de.undercouch.actson.DefaultJsonFeeder;
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link JfrJsonMetrics}
+ * @author Michel Kraemer
+ */
+public class JfrJsonMetricsTest {
+  /**
+   * Parse a JSON text while Flight Recorder is running and return all
+   * events of this library
+   * @param json the JSON text
+   * @param metrics the metrics to register with the parser and the feeder
+   * @return the recorded events
+   * @throws IOException if the recording could not be read
+   */
+  private static List<RecordedEvent> parse(String json, JfrJsonMetrics metrics)
+      throws IOException {
+    return record(() -> {
+      DefaultJsonFeeder feeder = new DefaultJsonFeeder(StandardCharsets.UTF_8);
+      feeder.setMetrics(metrics);
+      JsonParser parser = new JsonParser(feeder);
+      parser.setMetrics(metrics);
+
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+      int pos = 0;
+      int event;
+      while ((event = parser.nextEvent()) != JsonEvent.EOF &&
+          event != JsonEvent.ERROR) {
+        if (event == JsonEvent.NEED_MORE_INPUT) {
+          if (pos < bytes.length) {
+            pos += feeder.feed(bytes, pos, bytes.length - pos);
+          } else {
+            feeder.done();
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Run an action while Flight Recorder is running and return all events
+   * of this library
+   * @param action the action to run
+   * @return the recorded events
+   * @throws IOException if the recording could not be read
+   */
+  private static List<RecordedEvent> record(Runnable action)
+      throws IOException {
+    Path file = Files.createTempFile("actson", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("de.undercouch.actson.ParseSession");
+      recording.enable("de.undercouch.actson.LargeToken");
+      recording.enable("de.undercouch.actson.FeederStall").withoutThreshold();
+      recording.start();
+
+      action.run();
+
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(e -> e.getEventType().getName().startsWith("de.undercouch.actson."))
+          .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals("de.undercouch.actson." + name))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Record a parse session
+   * @throws IOException if the recording could not be read
+   */
+  @Test
+  public void session() throws IOException {
+    String json = "{\"a\":[1,2,{\"b\":\"text\"}]}";
+    List<RecordedEvent> events = parse(json, new JfrJsonMetrics());
+
+    List<RecordedEvent> sessions = ofType(events, "ParseSession");
+    assertThat(sessions).hasSize(1);
+    RecordedEvent session = sessions.get(0);
+    assertThat(session.getLong("bytes")).isEqualTo((long)json.length());
+    assertThat(session.getLong("tokens")).isEqualTo(5L);
+    assertThat(session.getInt("maxDepth")).isEqualTo(3);
+    assertThat(session.getBoolean("error")).isFalse();
+
+    assertThat(ofType(events, "LargeToken")).isEmpty();
+    assertThat(ofType(events, "FeederStall")).isNotEmpty();
+  }
+
+  /**
+   * Record a session that ends with an error
+   * @throws IOException if the recording could not be read
+   */
+  @Test
+  public void error() throws IOException {
+    List<RecordedEvent> events = parse("[1,2,}", new JfrJsonMetrics());
+    List<RecordedEvent> sessions = ofType(events, "ParseSession");
+    assertThat(sessions).hasSize(1);
+    assertThat(sessions.get(0).getBoolean("error")).isTrue();
+  }
+
+  /**
+   * Record large tokens
+   * @throws IOException if the recording could not be read
+   */
+  @Test
+  public void largeTokens() throws IOException {
+    JfrJsonMetrics metrics = new JfrJsonMetrics(10);
+    assertThat(metrics.getLargeTokenThreshold()).isEqualTo(10);
+    List<RecordedEvent> events = parse(
+        "[\"short\",\"this is a long string\",1234567890123]", metrics);
+
+    List<RecordedEvent> large = ofType(events, "LargeToken");
+    assertThat(large).hasSize(2);
+    assertThat(large.get(0).getInt("length")).isEqualTo(23);
+    assertThat(large.get(1).getInt("length")).isEqualTo(13);
+  }
+
+  /**
+   * Check that feeding no bytes does not end a stall
+   * @throws IOException if the recording could not be read
+   */
+  @Test
+  public void emptyFeedDoesNotEndStall() throws IOException {
+    JfrJsonMetrics metrics = new JfrJsonMetrics();
+    List<RecordedEvent> events = record(() -> {
+      metrics.event(JsonEvent.NEED_MORE_INPUT);
+      metrics.bytesFed(0);
+      metrics.event(JsonEvent.NEED_MORE_INPUT);
+      metrics.bytesFed(5);
+    });
+    assertThat(ofType(events, "FeederStall")).hasSize(1);
+  }
+}
@@ -0,0 +1,306 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.vertx;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonFeeder;
+import de.undercouch.actson.JsonParser;
+import de.undercouch.actson.JsonToken;
+import de.undercouch.actson.netty.ByteBufJsonFeeder;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.streams.ReadStream;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * <p>A {@link ReadStream} that parses the buffers of another stream and
+ * emits the resulting {@link JsonToken}s.</p>
+ * <p>The stream honors the demand of its consumer (see {@link #pause()},
+ * {@link #resume()}, and {@link #fetch(long)}). It only parses as many
+ * tokens as have been requested and pauses the source stream while the
+ * parser's feeder is full (see {@link JsonFeeder#isFull()}), so at any time
+ * it keeps at most one unparsed buffer plus the contents of the feeder in
+ * memory. Buffers are decoded with a {@link ByteBufJsonFeeder}, so their
+ * bytes are not copied.</p>
+ * <p>The stream calls its end handler when the parser reaches the end of
+ * the JSON text and its exception handler with a {@link DecodeException}
+ * if the JSON text is invalid. Exceptions of the source stream are
+ * forwarded to the exception handler.</p>
+ * @author Michel Kraemer
+ * @since 2.2.0
+ */
+public class JsonParserReadStream implements ReadStream<JsonToken> {
+  private final ReadStream<Buffer> source;
+  private final ByteBufJsonFeeder feeder;
+  private final JsonParser parser;
+
+  /**
+   * Buffers received from the source but not fed into the parser yet
+   */
+  private final ArrayDeque<Buffer> pending = new ArrayDeque<>();
+
+  private Handler<JsonToken> handler;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> endHandler;
+
+  /**
+   * The number of tokens requested by the consumer but not emitted yet
+   * ({@link Long#MAX_VALUE} if the stream is in flowing mode)
+   */
+  private long demand = Long.MAX_VALUE;
+
+  /**
+   * True if this stream has paused the source stream
+   */
+  private boolean sourcePaused;
+
+  /**
+   * True if the source stream has ended
+   */
+  private boolean sourceEnded;
+
+  /**
+   * True if the end of the JSON text or an error has been reached
+   */
+  private boolean finished;
+
+  /**
+   * True while {@link #drain()} is running
+   */
+  private boolean emitting;
+
+  /**
+   * True if {@link #drain()} has been called while it was running
+   */
+  private boolean missed;
+
+  /**
+   * Constructs a stream that decodes UTF-8
+   * @param source the stream providing the JSON text
+   */
+  public JsonParserReadStream(ReadStream<Buffer> source) {
+    this(source, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Constructs a stream
+   * @param source the stream providing the JSON text
+   * @param charset the charset that should be used to decode input data
+   */
+  public JsonParserReadStream(ReadStream<Buffer> source, Charset charset) {
+    this.source = source;
+    feeder = new ByteBufJsonFeeder(charset);
+    parser = new JsonParser(feeder);
+  }
+
+  /**
+   * @return the parser, for example to configure it before the first
+   * buffer arrives
+   */
+  public JsonParser getParser() {
+    return parser;
+  }
+
+  @Override
+  public JsonParserReadStream exceptionHandler(Handler<Throwable> handler) {
+    exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public JsonParserReadStream handler(Handler<JsonToken> handler) {
+    this.handler = handler;
+    if (handler == null) {
+      source.handler(null);
+      source.exceptionHandler(null);
+      source.endHandler(null);
+    } else {
+      source.exceptionHandler(this::handleException);
+      source.endHandler(v -> handleEnd());
+      source.handler(this::handleBuffer);
+    }
+    return this;
+  }
+
+  @Override
+  public JsonParserReadStream pause() {
+    demand = 0;
+    return this;
+  }
+
+  @Override
+  public JsonParserReadStream resume() {
+    return fetch(Long.MAX_VALUE);
+  }
+
+  @Override
+  public JsonParserReadStream fetch(long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Amount must not be negative");
+    }
+    demand += amount;
+    if (demand < 0) {
+      demand = Long.MAX_VALUE;
+    }
+    drain();
+    return this;
+  }
+
+  @Override
+  public JsonParserReadStream endHandler(Handler<Void> endHandler) {
+    this.endHandler = endHandler;
+    return this;
+  }
+
+  private void handleBuffer(Buffer buf) {
+    if (finished) {
+      return;
+    }
+    pending.add(buf);
+    if (emitting) {
+      // the source emits synchronously (e.g. from within resume()). pause
+      // it right away so it does not emit further buffers.
+      updateSource();
+    }
+    drain();
+  }
+
+  private void handleEnd() {
+    sourceEnded = true;
+    drain();
+  }
+
+  private void handleException(Throwable t) {
+    if (finished) {
+      return;
+    }
+    finish();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
+    }
+  }
+
+  /**
+   * Emit tokens while there is demand and then pause or resume the source
+   * stream depending on whether the feeder is full. If the method is called
+   * again by a handler while it is running, it repeats these steps instead
+   * of running recursively.
+   */
+  private void drain() {
+    if (emitting) {
+      missed = true;
+      return;
+    }
+    emitting = true;
+    try {
+      do {
+        missed = false;
+        emit();
+        updateSource();
+      } while (missed);
+    } finally {
+      emitting = false;
+    }
+  }
+
+  /**
+   * Feed pending buffers into the parser and emit tokens until the parser
+   * needs more input or until there is no more demand
+   */
+  private void emit() {
+    while (!finished && demand > 0) {
+      int event = parser.nextEvent();
+      if (event == JsonEvent.NEED_MORE_INPUT) {
+        Buffer buf = pending.poll();
+        if (buf != null) {
+          feeder.feed(buf.getByteBuf());
+        } else if (sourceEnded) {
+          feeder.done();
+        } else {
+          return;
+        }
+        continue;
+      }
+
+      if (event == JsonEvent.EOF) {
+        finish();
+        if (endHandler != null) {
+          endHandler.handle(null);
+        }
+        return;
+      }
+
+      if (event == JsonEvent.ERROR) {
+        finish();
+        if (exceptionHandler != null) {
+          exceptionHandler.handle(new DecodeException(
+              "Syntax error in JSON text"));
+        }
+        return;
+      }
+
+      if (demand != Long.MAX_VALUE) {
+        --demand;
+      }
+      if (handler != null) {
+        handler.handle(JsonToken.of(parser, event));
+      }
+    }
+  }
+
+  /**
+   * Pause the source stream while the feeder is full or while there is a
+   * pending buffer, and resume it as soon as the parser can accept more
+   * input
+   */
+  private void updateSource() {
+    if (finished || sourceEnded) {
+      return;
+    }
+    boolean full = feeder.isFull() || !pending.isEmpty();
+    if (full && !sourcePaused) {
+      sourcePaused = true;
+      source.pause();
+    } else if (!full && sourcePaused) {
+      sourcePaused = false;
+      source.resume();
+    }
+  }
+
+  /**
+   * Stop parsing, detach from the source stream, and release all input
+   */
+  private void finish() {
+    finished = true;
+    feeder.release();
+    pending.clear();
+    source.handler(null);
+    source.endHandler(null);
+  }
+}
@@ -0,0 +1,281 @@
+// MIT License
+//
+// Copyright (c) 2016-2022 Michel Kraemer
+//
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+
+package de.undercouch.actson.vertx;
+
+import de.undercouch.actson.JsonEvent;
+import de.undercouch.actson.JsonToken;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.streams.ReadStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link JsonParserReadStream}
+ * @author Michel Kraemer
+ */
+public class JsonParserReadStreamTest {
+  /**
+   * A read stream that emits buffers synchronously and queues them while
+   * it is paused
+   */
+  private static class TestSource implements ReadStream<Buffer> {
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private Handler<Buffer> handler;
+    private Handler<Throwable> exceptionHandler;
+    private Handler<Void> endHandler;
+    private boolean paused;
+    private int delivered;
+
+    /**
+     * Emit a buffer or queue it if the stream is paused
+     * @param s the buffer's contents
+     */
+    void write(String s) {
+      queue.add(Buffer.buffer(s));
+      flush();
+    }
+
+    /**
+     * End the stream after all queued buffers have been emitted
+     */
+    void end() {
+      queue.add(this);
+      flush();
+    }
+
+    void fail(Throwable t) {
+      exceptionHandler.handle(t);
+    }
+
+    private void flush() {
+      while (!paused && !queue.isEmpty()) {
+        Object o = queue.poll();
+        if (o == this) {
+          if (endHandler != null) {
+            endHandler.handle(null);
+          }
+        } else if (handler != null) {
+          ++delivered;
+          handler.handle((Buffer)o);
+        }
+      }
+    }
+
+    @Override
+    public TestSource exceptionHandler(Handler<Throwable> handler) {
+      exceptionHandler = handler;
+      return this;
+    }
+
+    @Override
+    public TestSource handler(Handler<Buffer> handler) {
+      this.handler = handler;
+      return this;
+    }
+
+    @Override
+    public TestSource pause() {
+      paused = true;
+      return this;
+    }
+
+    @Override
+    public TestSource resume() {
+      paused = false;
+      flush();
+      return this;
+    }
+
+    @Override
+    public TestSource fetch(long amount) {
+      return resume();
+    }
+
+    @Override
+    public TestSource endHandler(Handler<Void> endHandler) {
+      this.endHandler = endHandler;
+      return this;
+    }
+  }
+
+  /**
+   * Emit all tokens in flowing mode
+   */
+  @Test
+  public void flowing() {
+    TestSource source = new TestSource();
+    List<JsonToken> tokens = new ArrayList<>();
+    List<Boolean> ended = new ArrayList<>();
+    new JsonParserReadStream(source)
+        .endHandler(v -> ended.add(true))
+        .handler(tokens::add);
+
+    source.write("{\"name\":\"El");
+    source.write("vis\",\"age\":4");
+    source.write("2}");
+    assertThat(tokens).hasSize(6);
+    assertThat(ended).isEmpty();
+
+    source.end();
+    assertThat(tokens.get(0).getEvent()).isEqualTo(JsonEvent.START_OBJECT);
+    assertThat(tokens.get(2).getString()).isEqualTo("Elvis");
+    assertThat(tokens.get(4).getLong()).isEqualTo(42L);
+    assertThat(tokens.get(5).getEvent()).isEqualTo(JsonEvent.END_OBJECT);
+    assertThat(ended).hasSize(1);
+  }
+
+  /**
+   * Make sure tokens are only emitted on demand and that the source is
+   * paused while the parser does not accept more input
+   */
+  @Test
+  public void demand() {
+    TestSource source = new TestSource();
+    List<JsonToken> tokens = new ArrayList<>();
+    List<Boolean> ended = new ArrayList<>();
+    JsonParserReadStream stream = new JsonParserReadStream(source);
+    stream.pause();
+    stream.endHandler(v -> ended.add(true)).handler(tokens::add);
+
+    for (int i = 0; i < 10; ++i) {
+      source.write(i == 0 ? "[0" : "," + i);
+    }
+    source.write("]");
+    source.end();
+
+    // the first buffer is kept until there is demand
+    assertThat(tokens).isEmpty();
+    assertThat(source.paused).isTrue();
+    assertThat(source.delivered).isEqualTo(1);
+
+    stream.fetch(3);
+    assertThat(tokens).hasSize(3);
+    assertThat(tokens.get(2).getLong()).isEqualTo(1L);
+    assertThat(source.delivered).isLessThanOrEqualTo(5);
+
+    stream.resume();
+    assertThat(tokens).hasSize(12);
+    assertThat(tokens.get(11).getEvent()).isEqualTo(JsonEvent.END_ARRAY);
+    assertThat(ended).hasSize(1);
+  }
+
+  /**
+   * Request one token after the other from within the handler
+   */
+  @Test
+  public void fetchFromHandler() {
+    TestSource source = new TestSource();
+    List<JsonToken> tokens = new ArrayList<>();
+    JsonParserReadStream stream = new JsonParserReadStream(source);
+    stream.pause();
+    stream.handler(t -> {
+      tokens.add(t);
+      stream.fetch(1);
+    });
+
+    source.write("[1,2,");
+    source.write("3]");
+    source.end();
+    assertThat(tokens).isEmpty();
+
+    stream.fetch(1);
+    assertThat(tokens).hasSize(5);
+  }
+
+  /**
+   * Make sure a syntax error is reported
+   */
+  @Test
+  public void syntaxError() {
+    TestSource source = new TestSource();
+    List<JsonToken> tokens = new ArrayList<>();
+    List<Throwable> errors = new ArrayList<>();
+    List<Boolean> ended = new ArrayList<>();
+    new JsonParserReadStream(source)
+        .exceptionHandler(errors::add)
+        .endHandler(v -> ended.add(true))
+        .handler(tokens::add);
+
+    source.write("[1,}");
+    source.write("[2]");
+    source.end();
+    assertThat(tokens).hasSize(2);
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).isInstanceOf(DecodeException.class);
+    assertThat(ended).isEmpty();
+  }
+
+  /**
+   * Make sure incomplete JSON text is reported
+   */
+  @Test
+  public void incomplete() {
+    TestSource source = new TestSource();
+    List<Throwable> errors = new ArrayList<>();
+    new JsonParserReadStream(source)
+        .exceptionHandler(errors::add)
+        .handler(t -> { });
+
+    source.write("{\"a\":");
+    source.end();
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).isInstanceOf(DecodeException.class);
+  }
+
+  /**
+   * Make sure exceptions of the source are forwarded
+   */
+  @Test
+  public void sourceException() {
+    TestSource source = new TestSource();
+    List<Throwable> errors = new ArrayList<>();
+    new JsonParserReadStream(source)
+        .exceptionHandler(errors::add)
+        .handler(t -> { });
+
+    IllegalStateException e = new IllegalStateException();
+    source.fail(e);
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).isSameAs(e);
+  }
+
+  /**
+   * Make sure the amount to fetch must not be negative
+   */
+  @Test
+  public void negativeFetch() {
+    JsonParserReadStream stream = new JsonParserReadStream(new TestSource());
+    assertThatThrownBy(() -> stream.fetch(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}